@@ -0,0 +1,50 @@
+package org.springframework.data.jpa.repository.query;
+
+import org.springframework.data.jpa.provider.PersistenceProvider;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.query.ReturnedType;
+import org.springframework.data.repository.query.parser.PartTree;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 파생 쿼리 메서드의 CriteriaQuery 를 스프링 데이터(PartTreeJpaQuery)와 같은 방식으로 만든다.
+ * ParameterMetadataProvider 가 패키지 전용이라 이 패키지에 둔다. (study.datajpa.queryplan.QueryPlanWarmup 에서만 쓴다)
+ */
+public final class DerivedQueryCriteria {
+
+    private DerivedQueryCriteria() {
+    }
+
+    /**
+     * @return 조회 쿼리, Page 반환 메서드면 count 쿼리까지
+     */
+    public static List<CriteriaQuery<?>> of(Method method, RepositoryMetadata metadata, EntityManager em) {
+        PersistenceProvider persistenceProvider = PersistenceProvider.fromEntityManager(em);
+        JpaQueryMethod queryMethod = new JpaQueryMethod(method, metadata, new SpelAwareProxyProjectionFactory(), persistenceProvider);
+        Class<?> domainType = metadata.getDomainType();
+        PartTree tree = new PartTree(method.getName(), domainType);
+        ReturnedType returnedType = queryMethod.getResultProcessor().getReturnedType();
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+
+        List<CriteriaQuery<?>> queries = new ArrayList<>();
+        JpaQueryCreator creator = tree.isCountProjection()
+                ? new JpaCountQueryCreator(tree, returnedType, builder, parameters(queryMethod, builder, persistenceProvider))
+                : new JpaQueryCreator(tree, returnedType, builder, parameters(queryMethod, builder, persistenceProvider));
+        queries.add(creator.createQuery());
+        if (queryMethod.isPageQuery()) {
+            queries.add(new JpaCountQueryCreator(tree, returnedType, builder, parameters(queryMethod, builder, persistenceProvider)).createQuery());
+        }
+        return queries;
+    }
+
+    private static ParameterMetadataProvider parameters(JpaQueryMethod queryMethod, CriteriaBuilder builder, PersistenceProvider persistenceProvider) {
+        return new ParameterMetadataProvider(builder, queryMethod.getParameters(), persistenceProvider, EscapeCharacter.DEFAULT);
+    }
+}
@@ -0,0 +1,76 @@
+package study.datajpa.changefeed;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.Session;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.ChangeType;
+import study.datajpa.teamstats.TeamStatsBulkAspect;
+import study.datajpa.tenant.TenantFilters;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * bulkAgePlus 는 엔티티 이벤트가 없으므로 ChangeLogEventListener 가 기록하지 못한다.
+ * 같은 트랜잭션에서 갱신된 회원마다 Member UPDATE 한 줄을 change_log 에 넣는다.
+ *
+ * 갱신 뒤 age + 1 이상인 그 테넌트 회원이 갱신 대상이다. (그 사이 커밋된 회원이 섞이면 UPDATE 가 한 줄 더 남을 뿐 빠지지는 않는다)
+ * TeamStatsBulkAspect 안쪽에서 돈다.
+ */
+@Aspect
+@Component
+@Order(BulkAgeChangeLogAspect.ORDER)
+@RequiredArgsConstructor
+public class BulkAgeChangeLogAspect {
+
+    public static final int ORDER = TeamStatsBulkAspect.ORDER + 1;
+
+    private static final String INSERT_SQL = "insert into change_log (entity_name, entity_id, change_type, changed_at, tenant_id)" +
+            " select 'Member', cast(member_id as varchar), ?, ?, tenant_id from member where age > ? and tenant_id = ?";
+
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Around("execution(int study.datajpa.repository.MemberRepository.bulkAgePlus(int))" +
+            " || execution(int study.datajpa.repository.MemberJpaRepository.bulkAgePlus(int))")
+    public Object recordBulkUpdate(ProceedingJoinPoint joinPoint) {
+        int age = (int) joinPoint.getArgs()[0];
+        String tenant = TenantFilters.currentOrDefault();
+        return transactionTemplate.execute(status -> {
+            int updated = proceed(joinPoint);
+            if (updated > 0) {
+                em.unwrap(Session.class).doWork(connection -> {
+                    try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+                        ps.setString(1, ChangeType.UPDATE.name());
+                        ps.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                        ps.setInt(3, age);
+                        ps.setString(4, tenant);
+                        ps.executeUpdate();
+                    }
+                });
+            }
+            return updated;
+        });
+    }
+
+    private static int proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return (int) joinPoint.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // bulkAgePlus 는 checked 예외를 선언하지 않는다.
+            throw new IllegalStateException(e);
+        }
+    }
+}
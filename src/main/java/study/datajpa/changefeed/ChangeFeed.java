@@ -0,0 +1,55 @@
+package study.datajpa.changefeed;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.domain.ChangeLog;
+import study.datajpa.dto.ChangeBatch;
+import study.datajpa.dto.ChangeLogDto;
+import study.datajpa.repository.ChangeLogRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * findAll 후 diff 하는 대신 "워터마크 이후의 변경분"만 배치로 읽어간다.
+ * 워터마크는 change_log_id 가 아닌 commit_seq 다. id 는 insert 시점에 정해지므로 늦게 커밋된 작은 id 를 건너뛸 수 있다.
+ * 읽기 전에 ChangeLogSequencer 로 그 사이 커밋된 행에 순번을 붙인다.
+ * 테넌트 요청(GET /changes)은 ChangeLog 의 테넌트 필터로 자기 테넌트의 변경만 받는다. 순번은 테넌트가 공유하므로 중간에 빈 번호가 있다.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ChangeFeed {
+
+    private final ChangeLogRepository changeLogRepository;
+    private final ChangeLogSequencer changeLogSequencer;
+
+    public ChangeBatch changesSince(long watermark, int batchSize) {
+        changeLogSequencer.assign();
+        List<ChangeLog> changes = changeLogRepository.findByCommitSeqGreaterThanOrderByCommitSeqAsc(watermark, PageRequest.of(0, batchSize));
+
+        long nextWatermark = changes.isEmpty() ? watermark : changes.get(changes.size() - 1).getCommitSeq();
+        List<ChangeLogDto> content = changes.stream()
+                .map(ChangeLogDto::new)
+                .collect(Collectors.toList());
+        return new ChangeBatch(content, nextWatermark, changes.size() == batchSize);
+    }
+
+    /**
+     * 시각 T 를 워터마크로 변환한다. 이후 조회는 changesSince 로 이어간다.
+     */
+    public long watermarkAt(LocalDateTime time) {
+        changeLogSequencer.assign();
+        return changeLogRepository.findFirstCommitSeqSince(time)
+                .map(seq -> seq - 1)
+                .orElseGet(changeLogRepository::findLatestCommitSeq);
+    }
+
+    public long latestWatermark() {
+        changeLogSequencer.assign();
+        return changeLogRepository.findLatestCommitSeq();
+    }
+}
@@ -0,0 +1,77 @@
+package study.datajpa.changefeed;
+
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import study.datajpa.domain.ChangeType;
+import study.datajpa.domain.Item;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.tenant.TenantFilters;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * 엔티티 쓰기와 같은 트랜잭션(같은 커넥션)에서 change_log 에 한 줄을 추가한다.
+ * flush 도중이므로 EntityManager 대신 JDBC 로 직접 기록한다.
+ * JPQL 벌크 연산은 이벤트가 발생하지 않는다. (bulkAgePlus 는 BulkAgeChangeLogAspect 가 기록한다)
+ */
+public class ChangeLogEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final String INSERT_SQL =
+            "insert into change_log (entity_name, entity_id, change_type, changed_at, tenant_id) values (?, ?, ?, ?, ?)";
+
+    private static final Set<Class<?>> TRACKED = Set.of(Member.class, Team.class, Item.class);
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getSession(), event.getEntity(), event.getId(), ChangeType.INSERT);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(event.getSession(), event.getEntity(), event.getId(), ChangeType.UPDATE);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getSession(), event.getEntity(), event.getId(), ChangeType.DELETE);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void record(EventSource session, Object entity, Serializable id, ChangeType changeType) {
+        if (!TRACKED.contains(entity.getClass())) {
+            return;
+        }
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+                ps.setString(1, entity.getClass().getSimpleName());
+                ps.setString(2, String.valueOf(id));
+                ps.setString(3, changeType.name());
+                ps.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+                ps.setString(5, tenantOf(entity));
+                ps.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Item 은 테넌트 구분이 없으므로 현재 테넌트로 남긴다.
+     */
+    private static String tenantOf(Object entity) {
+        String tenant = null;
+        if (entity instanceof Member) {
+            tenant = ((Member) entity).getTenantId();
+        } else if (entity instanceof Team) {
+            tenant = ((Team) entity).getTenantId();
+        }
+        return tenant != null ? tenant : TenantFilters.currentOrDefault();
+    }
+}
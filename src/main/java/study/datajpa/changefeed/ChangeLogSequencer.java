@@ -0,0 +1,63 @@
+package study.datajpa.changefeed;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.domain.ChangeLog;
+import study.datajpa.domain.ChangeLogSequence;
+import study.datajpa.repository.ChangeLogRepository;
+import study.datajpa.tenant.TenantFilters;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+/**
+ * 커밋된 change_log 행에 commit_seq 를 붙인다.
+ * 아직 커밋되지 않은 행은 보이지 않으므로 커밋된 뒤의 다음 실행에서, 그때까지 붙은 어떤 순번보다 큰 값을 받는다.
+ * 순번 행(ChangeLogSequence)을 잠그고 붙이므로 실행은 인스턴스를 넘어 한 번에 하나씩이다.
+ * 순번은 테넌트 구분 없이 하나이므로 테넌트 요청에서 불려도 필터를 끄고 모든 테넌트의 행에 붙인다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeLogSequencer {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ChangeLogRepository changeLogRepository;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * @return 순번을 붙인 행 수
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int assign() {
+        em.unwrap(Session.class).disableFilter(TenantFilters.NAME);
+        ChangeLogSequence sequence = em.find(ChangeLogSequence.class, ChangeLogSequence.CHANGE_LOG, LockModeType.PESSIMISTIC_WRITE);
+        if (sequence == null) {
+            // 처음 한 번. 동시에 만들면 한쪽은 키 충돌로 실패하고, 다음 호출에서 붙인다.
+            sequence = new ChangeLogSequence(ChangeLogSequence.CHANGE_LOG);
+            em.persist(sequence);
+            em.flush();
+        }
+        int assigned = 0;
+        List<ChangeLog> pending;
+        do {
+            pending = changeLogRepository.findByCommitSeqIsNullOrderByIdAsc(PageRequest.of(0, BATCH_SIZE));
+            for (ChangeLog changeLog : pending) {
+                changeLog.assignCommitSeq(sequence.next());
+            }
+            em.flush();
+            em.clear();
+            sequence = em.find(ChangeLogSequence.class, ChangeLogSequence.CHANGE_LOG);
+            assigned += pending.size();
+        } while (pending.size() == BATCH_SIZE);
+        return assigned;
+    }
+}
@@ -0,0 +1,97 @@
+package study.datajpa.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.changefeed.ChangeLogEventListener;
+import study.datajpa.outbox.OutboxEventListener;
+import study.datajpa.persistencecontext.PersistenceContextGuard;
+import study.datajpa.persistencecontext.PersistenceContextGuard.DirtyCheckTimer;
+import study.datajpa.persistencecontext.PersistenceContextMetrics;
+import study.datajpa.querycache.QueryCacheInvalidationListener;
+import study.datajpa.querycache.QueryCacheInvalidator;
+import study.datajpa.teamstats.TeamStatsEventListener;
+import study.datajpa.tenant.TenantGuardListener;
+
+import java.util.Collections;
+
+/**
+ * Hibernate 이벤트 리스너를 SessionFactory 생성 과정(Integrator)에서 등록한다.
+ * EntityManagerFactory 를 주입받아 등록하면 백그라운드 JPA 초기화가 끝날 때까지 컨텍스트 기동이 막힌다.
+ */
+@Configuration
+public class HibernateEventConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateEventListenerCustomizer(
+            PersistenceContextMetrics persistenceContextMetrics,
+            QueryCacheInvalidator queryCacheInvalidator,
+            @Value("${persistence-context.max-managed-entities:1000}") int maxManagedEntities,
+            @Value("${persistence-context.batch-clear:true}") boolean batchClear) {
+        PersistenceContextGuard guard = new PersistenceContextGuard(persistenceContextMetrics, maxManagedEntities, batchClear);
+        DirtyCheckTimer dirtyCheckTimer = new DirtyCheckTimer(persistenceContextMetrics);
+        QueryCacheInvalidationListener queryCacheListener = new QueryCacheInvalidationListener(queryCacheInvalidator);
+        return properties -> properties.put("hibernate.integrator_provider", (IntegratorProvider) () ->
+                Collections.singletonList(new EventListenerIntegrator(guard, dirtyCheckTimer, queryCacheListener)));
+    }
+
+    static class EventListenerIntegrator implements Integrator {
+
+        private final PersistenceContextGuard guard;
+        private final DirtyCheckTimer dirtyCheckTimer;
+        private final QueryCacheInvalidationListener queryCacheListener;
+
+        EventListenerIntegrator(PersistenceContextGuard guard, DirtyCheckTimer dirtyCheckTimer,
+                                QueryCacheInvalidationListener queryCacheListener) {
+            this.guard = guard;
+            this.dirtyCheckTimer = dirtyCheckTimer;
+            this.queryCacheListener = queryCacheListener;
+        }
+
+        @Override
+        public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                              SessionFactoryServiceRegistry serviceRegistry) {
+            EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+
+            ChangeLogEventListener changeLogListener = new ChangeLogEventListener();
+            registry.appendListeners(EventType.POST_INSERT, changeLogListener);
+            registry.appendListeners(EventType.POST_UPDATE, changeLogListener);
+            registry.appendListeners(EventType.POST_DELETE, changeLogListener);
+
+            OutboxEventListener outboxListener = new OutboxEventListener();
+            registry.appendListeners(EventType.POST_INSERT, outboxListener);
+            registry.appendListeners(EventType.POST_UPDATE, outboxListener);
+
+            TeamStatsEventListener teamStatsListener = new TeamStatsEventListener();
+            registry.appendListeners(EventType.POST_INSERT, teamStatsListener);
+            registry.appendListeners(EventType.POST_UPDATE, teamStatsListener);
+            registry.appendListeners(EventType.POST_DELETE, teamStatsListener);
+
+            registry.appendListeners(EventType.POST_INSERT, queryCacheListener);
+            registry.appendListeners(EventType.POST_UPDATE, queryCacheListener);
+            registry.appendListeners(EventType.POST_DELETE, queryCacheListener);
+
+            registry.appendListeners(EventType.POST_LOAD, new TenantGuardListener());
+
+            registry.appendListeners(EventType.PERSIST, guard);
+            registry.appendListeners(EventType.MERGE, guard);
+            registry.appendListeners(EventType.POST_LOAD, guard);
+            registry.appendListeners(EventType.FLUSH, guard);
+            registry.appendListeners(EventType.AUTO_FLUSH, guard);
+            registry.prependListeners(EventType.FLUSH_ENTITY, dirtyCheckTimer.start());
+            registry.appendListeners(EventType.FLUSH_ENTITY, dirtyCheckTimer.end());
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
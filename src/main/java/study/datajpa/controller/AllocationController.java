@@ -0,0 +1,27 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.AllocationStats;
+import study.datajpa.profiling.AllocationProfiler;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class AllocationController {
+
+    private final AllocationProfiler allocationProfiler;
+
+    @GetMapping("/stats/allocations")
+    public List<AllocationStats> allocations() {
+        return allocationProfiler.snapshot();
+    }
+
+    @DeleteMapping("/stats/allocations")
+    public void resetAllocations() {
+        allocationProfiler.reset();
+    }
+}
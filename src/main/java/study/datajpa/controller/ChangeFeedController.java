@@ -0,0 +1,23 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.changefeed.ChangeFeed;
+import study.datajpa.dto.ChangeBatch;
+
+@RestController
+@RequiredArgsConstructor
+public class ChangeFeedController {
+
+    private static final int MAX_BATCH_SIZE = 2000;
+
+    private final ChangeFeed changeFeed;
+
+    @GetMapping("/changes")
+    public ChangeBatch changes(@RequestParam(value = "since", defaultValue = "0") long since,
+                               @RequestParam(value = "size", defaultValue = "100") int size) {
+        return changeFeed.changesSince(since, Math.min(Math.max(size, 1), MAX_BATCH_SIZE));
+    }
+}
@@ -0,0 +1,21 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.FetchPlanAdvice;
+import study.datajpa.fetchplan.FetchPlanAdvisor;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class FetchPlanController {
+
+    private final FetchPlanAdvisor fetchPlanAdvisor;
+
+    @GetMapping("/stats/fetch-plans")
+    public List<FetchPlanAdvice> fetchPlans() {
+        return fetchPlanAdvisor.advise();
+    }
+}
@@ -3,29 +3,39 @@ package study.datajpa.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import study.datajpa.domain.Member;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberPage;
+import study.datajpa.dto.MemberScroll;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.scroll.MemberScrollService;
+import study.datajpa.serialization.MemberPageCborHttpMessageConverter;
+import study.datajpa.writebehind.MemberUpdateService;
 
 import javax.annotation.PostConstruct;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
     private final MemberRepository memberRepository;
+    private final MemberScrollService memberScrollService;
+    private final MemberUpdateService memberUpdateService;
 
     /**
      * 권장하지 않는 방법
      */
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable("id") Long id) {
-        Member member = memberRepository.findById(id).get();
-        return member.getUsername();
+        return memberRepository.lookupUsername(id).get();
     }
 
     /**
@@ -36,12 +46,72 @@ public class MemberController {
         return member.getUsername();
     }
 
+    /**
+     * write-behind.enabled 이면 쓰기 지연 버퍼를 거친다.
+     */
+    @PatchMapping("/members/{id}")
+    public void updateMember(@PathVariable("id") Long id,
+                             @RequestParam(value = "username", required = false) String username,
+                             @RequestParam(value = "age", required = false) Integer age) {
+        memberUpdateService.update(id, username, age);
+    }
+
+    @GetMapping("/members/by-username")
+    public List<MemberDto> membersByUsername(@RequestParam("username") String username,
+                                             @RequestParam(value = "minAge", required = false) Integer minAge) {
+        return minAge == null
+                ? memberRepository.lookupByUsername(username)
+                : memberRepository.lookupByUsernameAndAgeGreaterThan(username, minAge);
+    }
+
+    @GetMapping("/members/top3")
+    public List<MemberDto> top3Members() {
+        return memberRepository.lookupTop3();
+    }
+
     @GetMapping("/members")
     public Page<MemberDto> memberList(@PageableDefault(size = 5) Pageable pageable) {
         return memberRepository.findAll(pageable)
                 .map(MemberDto::new);
     }
 
+    /**
+     * Accept: application/cbor 이면 Pageable/Sort 메타데이터 없이 CBOR 로 응답한다.
+     */
+    @GetMapping(value = "/members", produces = MemberPageCborHttpMessageConverter.APPLICATION_CBOR_VALUE)
+    public MemberPage memberListCompact(@PageableDefault(size = 5) Pageable pageable) {
+        return MemberPage.of(memberList(pageable));
+    }
+
+    /**
+     * count 쿼리 없이 다음 페이지 여부만 준다.
+     */
+    @GetMapping("/members/slice")
+    public Slice<MemberDto> memberSlice(@PageableDefault(size = 20) Pageable pageable) {
+        return memberRepository.findSliceBy(pageable)
+                .map(MemberDto::new);
+    }
+
+    /**
+     * 무한 스크롤. 응답의 nextCursor 를 다음 요청의 cursor 로 넘긴다.
+     */
+    @GetMapping("/members/scroll")
+    public MemberScroll scrollMembers(@RequestParam(value = "cursor", required = false) Long cursor,
+                                      @RequestParam(value = "size", defaultValue = "20") int size) {
+        return memberScrollService.scroll(cursor, Math.max(1, Math.min(size, 100)));
+    }
+
+    @GetMapping("/members/search")
+    public Page<MemberDto> searchMembers(@RequestParam("q") String query, @PageableDefault(size = 20) Pageable pageable) {
+        return memberRepository.searchByUsername(query, pageable);
+    }
+
+    @GetMapping("/members/autocomplete")
+    public List<String> autocomplete(@RequestParam("prefix") String prefix,
+                                     @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return memberRepository.autocompleteUsername(prefix, Math.max(1, Math.min(limit, 100)));
+    }
+
     /**
      * @PostConstruct 은 호출되지 않아도 실행된다.
      */
@@ -0,0 +1,32 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.reactive.ReactiveMemberQueries;
+
+/**
+ * MemberController 의 스트리밍 버전
+ * 전체 결과를 Page 로 메모리에 올리지 않고, 응답 쓰기가 끝나는 만큼만 다음 데이터를 요청한다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class MemberStreamController {
+
+    private final ReactiveMemberQueries reactiveMemberQueries;
+
+    @GetMapping(value = "/members/stream", produces = {MediaType.APPLICATION_STREAM_JSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<MemberDto> memberStream() {
+        return reactiveMemberQueries.findAll();
+    }
+
+    @GetMapping("/members/stream/{id}")
+    public Mono<MemberDto> findMember(@PathVariable("id") Long id) {
+        return reactiveMemberQueries.findById(id);
+    }
+}
@@ -0,0 +1,29 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.OutboxStats;
+import study.datajpa.outbox.OutboxMetrics;
+import study.datajpa.repository.OutboxEventRepository;
+
+@RestController
+@RequiredArgsConstructor
+public class OutboxController {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxMetrics outboxMetrics;
+
+    @GetMapping("/outbox/stats")
+    public OutboxStats stats() {
+        OutboxStats stats = new OutboxStats();
+        stats.setPending(outboxEventRepository.countByDispatchedAtIsNull());
+        stats.setDispatched(outboxMetrics.getDispatched());
+        stats.setBatches(outboxMetrics.getBatches());
+        stats.setThroughputPerSecond(outboxMetrics.getThroughputPerSecond());
+        stats.setLastLagMillis(outboxMetrics.getLastLagMillis());
+        stats.setMaxLagMillis(outboxMetrics.getMaxLagMillis());
+        stats.setAverageSinkMillis(outboxMetrics.getAverageSinkMillis());
+        return stats;
+    }
+}
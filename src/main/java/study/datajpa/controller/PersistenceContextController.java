@@ -0,0 +1,19 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.PersistenceContextStats;
+import study.datajpa.persistencecontext.PersistenceContextMetrics;
+
+@RestController
+@RequiredArgsConstructor
+public class PersistenceContextController {
+
+    private final PersistenceContextMetrics persistenceContextMetrics;
+
+    @GetMapping("/stats/persistence-context")
+    public PersistenceContextStats persistenceContext() {
+        return persistenceContextMetrics.snapshot();
+    }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.QueryCacheStats;
+import study.datajpa.querycache.QueryResultCache;
+
+@RestController
+@RequiredArgsConstructor
+public class QueryCacheController {
+
+    private final QueryResultCache queryResultCache;
+
+    @GetMapping("/stats/query-cache")
+    public QueryCacheStats queryCache() {
+        return queryResultCache.snapshot();
+    }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.QueryPlanCacheStats;
+import study.datajpa.queryplan.QueryPlanMetrics;
+
+@RestController
+@RequiredArgsConstructor
+public class QueryPlanController {
+
+    private final QueryPlanMetrics queryPlanMetrics;
+
+    @GetMapping("/stats/query-plans")
+    public QueryPlanCacheStats queryPlans() {
+        return queryPlanMetrics.snapshot();
+    }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.ScrollPrefetchStats;
+import study.datajpa.scroll.MemberScrollService;
+
+@RestController
+@RequiredArgsConstructor
+public class ScrollPrefetchController {
+
+    private final MemberScrollService memberScrollService;
+
+    @GetMapping("/stats/member-scroll")
+    public ScrollPrefetchStats memberScroll() {
+        return memberScrollService.stats();
+    }
+}
@@ -0,0 +1,44 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.sharding.ShardedMemberStore;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardedMemberController {
+
+    private final ShardedMemberStore shardedMemberStore;
+
+    @GetMapping("/sharded/members")
+    public Page<MemberDto> memberList(@PageableDefault(size = 5) Pageable pageable) {
+        return shardedMemberStore.findAll(pageable);
+    }
+
+    @GetMapping("/sharded/members/{id}")
+    public ResponseEntity<MemberDto> member(@PathVariable("id") long id) {
+        return ResponseEntity.of(shardedMemberStore.findById(id));
+    }
+
+    @GetMapping("/sharded/members/search")
+    public List<MemberDto> byNames(@RequestParam("names") List<String> names) {
+        return shardedMemberStore.findByNames(names);
+    }
+
+    @GetMapping("/sharded/teams/{teamId}/members")
+    public List<MemberDto> byTeam(@PathVariable("teamId") long teamId) {
+        return shardedMemberStore.findByTeamId(teamId);
+    }
+}
@@ -0,0 +1,21 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.TenantStats;
+import study.datajpa.tenant.TenantLimiter;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TenantController {
+
+    private final TenantLimiter tenantLimiter;
+
+    @GetMapping("/stats/tenants")
+    public List<TenantStats> tenants() {
+        return tenantLimiter.snapshot();
+    }
+}
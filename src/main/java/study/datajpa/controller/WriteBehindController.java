@@ -0,0 +1,19 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.WriteBehindStats;
+import study.datajpa.writebehind.WriteBehindMetrics;
+
+@RestController
+@RequiredArgsConstructor
+public class WriteBehindController {
+
+    private final WriteBehindMetrics writeBehindMetrics;
+
+    @GetMapping("/stats/write-behind")
+    public WriteBehindStats writeBehind() {
+        return writeBehindMetrics.snapshot();
+    }
+}
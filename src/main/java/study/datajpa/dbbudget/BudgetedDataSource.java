@@ -0,0 +1,185 @@
+package study.datajpa.dbbudget;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DbBudgetContext 가 열린 스레드에서만 동작한다. (그 외에는 원래 커넥션을 그대로 돌려준다)
+ * - 커넥션을 받기 전과 문장을 실행하기 전에 남은 예산을 확인하고, 걸린 시간을 차감한다.
+ * - 예산이 있으면 커넥션 몫(permits)을 남은 예산만큼만 기다린다. 풀의 connectionTimeout 까지 기다리지 않는다.
+ *   몫은 풀 크기만큼 있으므로 몫을 받은 요청끼리는 풀에서 기다리지 않는다.
+ *   (예산 밖의 작업이 풀을 다 쥐고 있을 때만 풀에서 기다린다)
+ * - 타임아웃이 있으면 watchdog 이 시간이 지난 문장을 Statement.cancel() 로 취소한다.
+ *   (setQueryTimeout 은 초 단위라서 쓰지 않는다)
+ */
+class BudgetedDataSource extends DelegatingDataSource {
+
+    private final ScheduledThreadPoolExecutor watchdog;
+    private final Semaphore permits;
+
+    BudgetedDataSource(DataSource target, ScheduledThreadPoolExecutor watchdog, int maxConnections) {
+        super(target);
+        this.watchdog = watchdog;
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DbBudgetContext context = DbBudgetContext.current();
+        if (context == null) {
+            return super.getConnection();
+        }
+        // 예산이 없으면 커넥션 풀 대기열에 들어가지 않는다.
+        context.checkBudget();
+        long remaining = context.remainingMillis();
+        long start = System.nanoTime();
+        try {
+            if (remaining == Long.MAX_VALUE) {
+                return wrap(super.getConnection(), null);
+            }
+            if (!permits.tryAcquire(remaining, TimeUnit.MILLISECONDS)) {
+                throw new DbBudgetExceededException(String.format("%s: no connection within db time budget (%d ms left)",
+                        context.getOwner(), remaining));
+            }
+            try {
+                return wrap(super.getConnection(), permits);
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(context.getOwner() + ": interrupted while waiting for a connection", e);
+        } finally {
+            context.charge(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @param permits 닫을 때 몫을 돌려줄 곳, 몫 없이 받았으면 null
+     */
+    private Connection wrap(Connection connection, Semaphore permits) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection, permits));
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ConnectionHandler(Connection target, Semaphore permits) {
+            this.target = target;
+            this.permits = permits;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "close":
+                    if (permits != null && released.compareAndSet(false, true)) {
+                        try {
+                            return invokeTarget(target, method, args);
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{method.getReturnType()},
+                        new StatementHandler((Statement) result));
+            }
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+
+        StatementHandler(Statement target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            DbBudgetContext context = DbBudgetContext.current();
+            if (context == null || !method.getName().startsWith("execute")) {
+                return invokeTarget(target, method, args);
+            }
+
+            context.checkBudget();
+            long timeout = context.statementTimeoutMillis();
+            AtomicBoolean cancelled = new AtomicBoolean();
+            ScheduledFuture<?> cancel = timeout <= 0 ? null : watchdog.schedule(() -> {
+                cancelled.set(true);
+                try {
+                    target.cancel();
+                } catch (SQLException e) {
+                    // 이미 끝났거나 닫힌 문장
+                }
+            }, timeout, TimeUnit.MILLISECONDS);
+
+            long start = System.nanoTime();
+            try {
+                return invokeTarget(target, method, args);
+            } catch (SQLException e) {
+                if (cancelled.get()) {
+                    // 하이버네이트/스프링이 QueryTimeoutException 으로 변환한다.
+                    throw new SQLTimeoutException(String.format("%s: statement cancelled after %d ms (db time %d ms)",
+                            context.getOwner(), timeout, context.spentMillis()), e.getSQLState(), e.getErrorCode(), e);
+                }
+                throw e;
+            } finally {
+                if (cancel != null) {
+                    cancel.cancel(false);
+                }
+                context.charge(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package study.datajpa.dbbudget;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.RepositoryNames;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 엔드포인트마다 DB 시간 예산을 열고, 리포지토리/엔드포인트의 @QueryTimeout (또는 설정값)을 문장 타임아웃으로 건다.
+ * 설정의 키는 "클래스 단순 이름.메서드" 이다. (리포지토리는 MemberRepository 처럼 인터페이스 이름)
+ */
+@Slf4j
+@Aspect
+@Component
+@ConditionalOnProperty(name = "db-budget.enabled", havingValue = "true")
+public class DbBudgetAspect {
+
+    private final long defaultRequestBudgetMillis;
+    private final Map<String, Long> requestBudgets;
+    private final Map<String, Long> queryTimeouts;
+
+    public DbBudgetAspect(@Value("${db-budget.request-ms:0}") long defaultRequestBudgetMillis,
+                          @Value("${db-budget.request-budgets:}") String[] requestBudgets,
+                          @Value("${db-budget.query-timeouts:}") String[] queryTimeouts) {
+        this.defaultRequestBudgetMillis = defaultRequestBudgetMillis;
+        this.requestBudgets = parse(requestBudgets);
+        this.queryTimeouts = parse(queryTimeouts);
+    }
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object endpoint(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String name = name(joinPoint);
+
+        DbTimeBudget budget = AnnotatedElementUtils.findMergedAnnotation(method, DbTimeBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), DbTimeBudget.class);
+        }
+        long budgetMillis = budget != null ? budget.value() : requestBudgets.getOrDefault(name, defaultRequestBudgetMillis);
+
+        DbBudgetContext context = DbBudgetContext.open(name, budgetMillis);
+        if (context == null) {
+            return withTimeout(joinPoint, method, name);
+        }
+        try {
+            return withTimeout(joinPoint, method, name);
+        } catch (RuntimeException e) {
+            // 커넥션을 받다가 난 예외는 트랜잭션 매니저가 CannotCreateTransactionException 등으로 감싼다.
+            DbBudgetExceededException exceeded = exceeded(e);
+            if (exceeded == null) {
+                throw e;
+            }
+            log.warn("{} rejected: {}", name, exceeded.getMessage());
+            throw exceeded;
+        } finally {
+            log.debug("{} db time {} ms", name, context.spentMillis());
+            context.close();
+        }
+    }
+
+    @Around("execution(* study.datajpa.repository..*(..))")
+    public Object repository(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String name = name(joinPoint);
+        if (timeout(method, name) == null) {
+            return joinPoint.proceed();
+        }
+        // 요청 밖(스케줄러, 배치)에서 불려도 타임아웃은 건다.
+        DbBudgetContext opened = DbBudgetContext.open(name, 0);
+        try {
+            return withTimeout(joinPoint, method, name);
+        } finally {
+            if (opened != null) {
+                opened.close();
+            }
+        }
+    }
+
+    private Object withTimeout(ProceedingJoinPoint joinPoint, Method method, String name) throws Throwable {
+        Long timeout = timeout(method, name);
+        if (timeout == null) {
+            return joinPoint.proceed();
+        }
+        DbBudgetContext context = DbBudgetContext.current();
+        context.pushTimeout(timeout);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            context.popTimeout();
+        }
+    }
+
+    private static DbBudgetExceededException exceeded(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DbBudgetExceededException) {
+                return (DbBudgetExceededException) cause;
+            }
+            if (cause instanceof QueryTimeoutException) {
+                return new DbBudgetExceededException(cause.getMessage(), e);
+            }
+        }
+        return null;
+    }
+
+    private Long timeout(Method method, String name) {
+        QueryTimeout timeout = AnnotatedElementUtils.findMergedAnnotation(method, QueryTimeout.class);
+        if (timeout == null) {
+            timeout = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), QueryTimeout.class);
+        }
+        return timeout != null ? Long.valueOf(timeout.value()) : queryTimeouts.get(name);
+    }
+
+    private String name(ProceedingJoinPoint joinPoint) {
+        return RepositoryNames.ownerName(joinPoint.getThis()) + "." + joinPoint.getSignature().getName();
+    }
+
+    /**
+     * "MemberRepository.findAll=2000" 목록
+     */
+    private static Map<String, Long> parse(String[] entries) {
+        Map<String, Long> values = new HashMap<>();
+        for (String entry : entries) {
+            if (entry.trim().isEmpty()) {
+                continue;
+            }
+            int eq = entry.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("expected Class.method=millis: " + entry);
+            }
+            values.put(entry.substring(0, eq).trim(), Long.parseLong(entry.substring(eq + 1).trim()));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,92 @@
+package study.datajpa.dbbudget;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 현재 스레드(요청)의 DB 시간 예산과 문장 타임아웃
+ * 엔드포인트/리포지토리 애스펙트가 열고 닫으며, BudgetedDataSource 가 문장을 실행할 때마다 참조하고 시간을 차감한다.
+ */
+class DbBudgetContext {
+
+    private static final ThreadLocal<DbBudgetContext> CURRENT = new ThreadLocal<>();
+
+    private final String owner;
+    private final long budgetNanos;
+    private long spentNanos;
+    private final Deque<Long> timeouts = new ArrayDeque<>();
+
+    private DbBudgetContext(String owner, long budgetMillis) {
+        this.owner = owner;
+        this.budgetNanos = budgetMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(budgetMillis) : Long.MAX_VALUE;
+    }
+
+    static DbBudgetContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return 새로 연 컨텍스트, 이미 열려 있으면 null (바깥에서 연 쪽이 닫는다)
+     */
+    static DbBudgetContext open(String owner, long budgetMillis) {
+        if (CURRENT.get() != null) {
+            return null;
+        }
+        DbBudgetContext context = new DbBudgetContext(owner, budgetMillis);
+        CURRENT.set(context);
+        return context;
+    }
+
+    void close() {
+        CURRENT.remove();
+    }
+
+    void pushTimeout(long millis) {
+        timeouts.push(millis);
+    }
+
+    void popTimeout() {
+        timeouts.pop();
+    }
+
+    /**
+     * 다음 문장에 걸 타임아웃 (가장 안쪽 @QueryTimeout 과 남은 예산 중 작은 값), 없으면 0
+     */
+    long statementTimeoutMillis() {
+        long timeout = timeouts.isEmpty() ? Long.MAX_VALUE : timeouts.peek();
+        if (budgetNanos != Long.MAX_VALUE) {
+            timeout = Math.min(timeout, Math.max(1, TimeUnit.NANOSECONDS.toMillis(budgetNanos - spentNanos)));
+        }
+        return timeout == Long.MAX_VALUE ? 0 : timeout;
+    }
+
+    /**
+     * 남은 예산, 제한이 없으면 Long.MAX_VALUE
+     */
+    long remainingMillis() {
+        if (budgetNanos == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(budgetNanos - spentNanos));
+    }
+
+    void checkBudget() {
+        if (spentNanos >= budgetNanos) {
+            throw new DbBudgetExceededException(String.format("%s: db time budget exhausted (%d ms)",
+                    owner, TimeUnit.NANOSECONDS.toMillis(budgetNanos)));
+        }
+    }
+
+    void charge(long nanos) {
+        spentNanos += nanos;
+    }
+
+    long spentMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(spentNanos);
+    }
+
+    String getOwner() {
+        return owner;
+    }
+}
@@ -0,0 +1,77 @@
+package study.datajpa.dbbudget;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * JPA 가 쓰는 기본 DataSource 빈만 BudgetedDataSource 로 감싼다. (다른 DataSource 빈은 그대로 둔다)
+ * 테넌트 래퍼(TenantDataSourcePostProcessor)보다 나중에, 즉 바깥에 감싼다.
+ */
+@Component
+@ConditionalOnProperty(name = "db-budget.enabled", havingValue = "true")
+public class DbBudgetDataSourcePostProcessor implements BeanPostProcessor, BeanFactoryAware, Ordered, DisposableBean {
+
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 10;
+
+    /**
+     * DataSourceAutoConfiguration 이 등록하는 빈 이름
+     */
+    private static final String PRIMARY_DATA_SOURCE = "dataSource";
+
+    private final int maxConnections;
+    private final ScheduledThreadPoolExecutor watchdog;
+    private ConfigurableListableBeanFactory beanFactory;
+
+    public DbBudgetDataSourcePostProcessor(
+            @Value("${db-budget.max-connections:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConnections) {
+        this.maxConnections = maxConnections;
+        watchdog = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "db-budget-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 대부분의 타이머는 문장이 끝나면서 취소된다. 큐에 쌓아 두지 않는다.
+        watchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof BudgetedDataSource) && isPrimary(beanName)) {
+            return new BudgetedDataSource((DataSource) bean, watchdog, maxConnections);
+        }
+        return bean;
+    }
+
+    private boolean isPrimary(String beanName) {
+        if (beanFactory.containsBeanDefinition(beanName) && beanFactory.getBeanDefinition(beanName).isPrimary()) {
+            return true;
+        }
+        return PRIMARY_DATA_SOURCE.equals(beanName);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public void destroy() {
+        watchdog.shutdownNow();
+    }
+}
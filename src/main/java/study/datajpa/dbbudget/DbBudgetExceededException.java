@@ -0,0 +1,20 @@
+package study.datajpa.dbbudget;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 요청의 DB 시간 예산을 다 썼거나 문장이 타임아웃으로 취소되었다.
+ * 대기열에 쌓이지 않도록 재시도하지 않고 503 으로 응답한다.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DbBudgetExceededException extends RuntimeException {
+
+    public DbBudgetExceededException(String message) {
+        super(message);
+    }
+
+    public DbBudgetExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
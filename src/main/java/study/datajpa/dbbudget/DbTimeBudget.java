@@ -0,0 +1,20 @@
+package study.datajpa.dbbudget;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 요청 하나가 DB 에서 쓸 수 있는 시간 (커넥션 대기 + 문장 실행의 합)
+ * 다 쓰면 이후 문장은 실행하지 않고 DbBudgetExceededException 으로 바로 실패한다. 0 이면 제한 없음.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DbTimeBudget {
+
+    /**
+     * 밀리초
+     */
+    long value();
+}
@@ -0,0 +1,21 @@
+package study.datajpa.dbbudget;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 이 리포지토리 메서드(또는 엔드포인트) 안에서 실행되는 SQL 문장 하나의 최대 실행 시간
+ * 넘으면 Statement.cancel() 로 취소하고 org.springframework.dao.QueryTimeoutException 이 난다.
+ * 안쪽(리포지토리)에 선언된 값이 바깥(엔드포인트)보다 우선한다.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryTimeout {
+
+    /**
+     * 밀리초
+     */
+    long value();
+}
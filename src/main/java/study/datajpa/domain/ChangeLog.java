@@ -0,0 +1,54 @@
+package study.datajpa.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Filter;
+import study.datajpa.tenant.TenantFilters;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Member, Team, Item 변경 이력 (append-only)
+ * change_log_id 는 insert 순서일 뿐 커밋 순서가 아니다. (먼저 id 를 받은 트랜잭션이 나중에 커밋할 수 있다)
+ * 그래서 소비자는 커밋된 뒤에 ChangeLogSequencer 가 붙이는 commitSeq 를 워터마크로 사용한다.
+ * 변경된 엔티티의 테넌트를 남기고 테넌트 필터를 걸어서, 테넌트 요청은 자기 테넌트의 변경만 읽는다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"id", "entityName", "entityId", "changeType", "changedAt"})
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_changed_at", columnList = "changed_at"),
+        @Index(name = "idx_change_log_commit_seq", columnList = "commit_seq"),
+        @Index(name = "idx_change_log_tenant_commit_seq", columnList = "tenant_id, commit_seq")
+})
+@Filter(name = TenantFilters.NAME)
+public class ChangeLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "change_log_id")
+    private Long id;
+    private String entityName;
+    private String entityId;
+
+    @Enumerated(EnumType.STRING)
+    private ChangeType changeType;
+
+    private LocalDateTime changedAt;
+
+    @Column(name = "tenant_id", nullable = false, updatable = false, columnDefinition = TenantFilters.COLUMN_DEFINITION)
+    private String tenantId;
+
+    /**
+     * 커밋된 뒤에 붙는 순번, 아직 붙지 않았으면 null
+     */
+    private Long commitSeq;
+
+    public void assignCommitSeq(long commitSeq) {
+        this.commitSeq = commitSeq;
+    }
+}
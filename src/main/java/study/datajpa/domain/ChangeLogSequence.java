@@ -0,0 +1,38 @@
+package study.datajpa.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * change_log.commit_seq 의 마지막 값 (한 행)
+ * ChangeLogSequencer 가 이 행을 잠근 채로 순번을 붙이므로, 여러 인스턴스가 동시에 붙여도 순번이 커밋 순서와 어긋나지 않는다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"name", "lastSeq"})
+@Table(name = "change_log_sequence")
+public class ChangeLogSequence {
+
+    public static final String CHANGE_LOG = "change_log";
+
+    @Id
+    @Column(name = "sequence_name")
+    private String name;
+    private long lastSeq;
+
+    public ChangeLogSequence(String name) {
+        this.name = name;
+    }
+
+    public long next() {
+        return ++lastSeq;
+    }
+}
@@ -0,0 +1,5 @@
+package study.datajpa.domain;
+
+public enum ChangeType {
+    INSERT, UPDATE, DELETE
+}
@@ -1,8 +1,18 @@
 package study.datajpa.domain;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.ParamDef;
+import org.hibernate.engine.spi.ManagedEntity;
+import study.datajpa.idgen.ConfigurableIdGenerator;
+import study.datajpa.tenant.TenantFilters;
+import study.datajpa.tenant.TenantMismatchException;
 
 import javax.persistence.*;
+import java.util.List;
 
 import static javax.persistence.FetchType.*;
 
@@ -16,11 +26,25 @@ import static javax.persistence.FetchType.*;
         query = "select m from Member m where m.username = :username"
 )
 @NamedEntityGraph(name = "Member.all", attributeNodes = @NamedAttributeNode("team"))
+@Table(indexes = {
+        @Index(name = "idx_member_username_age", columnList = "username, age"),
+        @Index(name = "idx_member_last_modified_date", columnList = "last_modified_date"),
+        @Index(name = "idx_member_tenant", columnList = "tenant_id")
+})
+@FilterDef(name = TenantFilters.NAME, parameters = @ParamDef(name = TenantFilters.PARAM, type = "string"),
+        defaultCondition = TenantFilters.CONDITION)
+@Filter(name = TenantFilters.NAME)
 //public class Member {
 public class Member extends BaseEntity {
 
+    /**
+     * build.gradle 의 hibernate.enhance 는 association management 를 다른 향상과 함께 켜고 끈다. (-PnoEnhance)
+     */
+    private static final boolean ASSOCIATION_MANAGED = ManagedEntity.class.isAssignableFrom(Member.class);
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_id")
+    @GenericGenerator(name = "member_id", strategy = ConfigurableIdGenerator.STRATEGY)
     @Column(name = "member_id")
     private Long id;
     private String username;
@@ -30,6 +54,10 @@ public class Member extends BaseEntity {
     @JoinColumn(name = "team_id")
     private Team team;
 
+    @Setter(AccessLevel.NONE)
+    @Column(name = "tenant_id", nullable = false, updatable = false, columnDefinition = TenantFilters.COLUMN_DEFINITION)
+    private String tenantId;
+
     public Member(String username) {
         this.username = username;
     }
@@ -47,8 +75,31 @@ public class Member extends BaseEntity {
         }
     }
 
+    @PrePersist
+    void assignTenant() {
+        if (tenantId == null) {
+            tenantId = TenantFilters.currentOrDefault();
+        }
+    }
+
+    /**
+     * 다른 테넌트의 팀이면 TenantMismatchException (아직 저장 전이면 현재 테넌트로 본다)
+     */
     public void changeTeam(Team team) {
+        String owner = tenantId != null ? tenantId : TenantFilters.currentOrDefault();
+        String teamOwner = team.getTenantId() != null ? team.getTenantId() : TenantFilters.currentOrDefault();
+        if (!owner.equals(teamOwner)) {
+            throw new TenantMismatchException("Team#" + team.getId() + " not found");
+        }
         this.team = team;
-        team.getMembers().add(this);
+        // 바이트코드 향상(association management)이 켜져 있으면 위 대입에서 이미 추가된다.
+        if (ASSOCIATION_MANAGED) {
+            return;
+        }
+        // 중복 확인은 이미 읽은 컬렉션에서만 한다. 읽지 않은 inverse 컬렉션의 add 는 큐에 쌓일 뿐 컬렉션을 읽지 않는다.
+        List<Member> members = team.getMembers();
+        if (!Hibernate.isInitialized(members) || !members.contains(this)) {
+            members.add(this);
+        }
     }
 }
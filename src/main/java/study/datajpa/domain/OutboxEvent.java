@@ -0,0 +1,47 @@
+package study.datajpa.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 트랜잭셔널 아웃박스
+ * 도메인 변경과 같은 트랜잭션에서 기록되고, 디스패처가 커밋 이후 비동기로 전달한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"id", "aggregateId", "eventType", "payload"})
+@Table(name = "outbox_event", indexes = @Index(name = "idx_outbox_event_pending", columnList = "dispatched_at, outbox_event_id"))
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_event_id")
+    private Long id;
+    private String aggregateType;
+    private String aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    private OutboxEventType eventType;
+
+    private String payload;
+    private LocalDateTime createdAt;
+    private LocalDateTime dispatchedAt;
+
+    public OutboxEvent(String aggregateType, String aggregateId, OutboxEventType eventType, String payload) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public void markDispatched(LocalDateTime dispatchedAt) {
+        this.dispatchedAt = dispatchedAt;
+    }
+}
@@ -0,0 +1,5 @@
+package study.datajpa.domain;
+
+public enum OutboxEventType {
+    MEMBER_CREATED, MEMBER_UPDATED, MEMBER_TEAM_CHANGED, MEMBER_BULK_AGED
+}
@@ -0,0 +1,56 @@
+package study.datajpa.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+import study.datajpa.idgen.ConfigurableIdGenerator;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 병렬 스캔 작업의 범위별 진행 상황
+ * 청크가 커밋될 때마다 같은 트랜잭션에서 lastProcessedId 가 갱신되므로, 작업이 죽더라도 마지막 커밋 지점부터 재개할 수 있다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"id", "jobName", "rangeStart", "rangeEnd", "lastProcessedId", "completed"})
+@Table(name = "scan_checkpoint",
+        uniqueConstraints = @UniqueConstraint(name = "uk_scan_checkpoint_range", columnNames = {"job_name", "range_start"}))
+public class ScanCheckpoint {
+
+    @Id
+    @GeneratedValue(generator = "scan_checkpoint_id")
+    @GenericGenerator(name = "scan_checkpoint_id", strategy = ConfigurableIdGenerator.STRATEGY)
+    @Column(name = "scan_checkpoint_id")
+    private Long id;
+    private String jobName;
+
+    /**
+     * (rangeStart, rangeEnd] 구간의 member_id 를 담당한다.
+     */
+    private long rangeStart;
+    private long rangeEnd;
+    private long lastProcessedId;
+    private long processed;
+    private boolean completed;
+    private LocalDateTime updatedAt;
+
+    public ScanCheckpoint(String jobName, long rangeStart, long rangeEnd) {
+        this.jobName = jobName;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.lastProcessedId = rangeStart;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void advance(long lastProcessedId, int count, boolean completed) {
+        this.lastProcessedId = lastProcessedId;
+        this.processed += count;
+        this.completed = completed;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
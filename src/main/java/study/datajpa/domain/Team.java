@@ -1,6 +1,10 @@
 package study.datajpa.domain;
 
 import lombok.*;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.GenericGenerator;
+import study.datajpa.idgen.ConfigurableIdGenerator;
+import study.datajpa.tenant.TenantFilters;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -11,18 +15,36 @@ import java.util.List;
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
+@Filter(name = TenantFilters.NAME)
 public class Team {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "team_id")
+    @GenericGenerator(name = "team_id", strategy = ConfigurableIdGenerator.STRATEGY)
     @Column(name = "team_id")
     private Long id;
     private String name;
 
+    @Setter(AccessLevel.NONE)
+    @Column(name = "tenant_id", nullable = false, updatable = false, columnDefinition = TenantFilters.COLUMN_DEFINITION)
+    private String tenantId;
+
+    /**
+     * 엔티티의 @Filter 는 컬렉션 로딩에 걸리지 않으므로 컬렉션에도 건다.
+     */
     @OneToMany(mappedBy = "team")
+    @Filter(name = TenantFilters.NAME)
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
         this.name = name;
     }
+
+    @PrePersist
+    void assignTenant() {
+        if (tenantId == null) {
+            tenantId = TenantFilters.currentOrDefault();
+        }
+    }
 }
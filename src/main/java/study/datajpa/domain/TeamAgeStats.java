@@ -0,0 +1,38 @@
+package study.datajpa.domain;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * 팀별/나이별 회원 수 (팀 집계 읽기 모델)
+ * Member 쓰기 이벤트(TeamStatsEventListener)와 bulkAgePlus(TeamStatsBulkAspect)에서 증분으로 갱신된다.
+ * 0 이 된 행은 지우지 않는다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"id", "memberCount"})
+@Table(name = "team_age_stats")
+public class TeamAgeStats {
+
+    @EmbeddedId
+    private Id id;
+    private long memberCount;
+
+    @Embeddable
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    @ToString
+    public static class Id implements Serializable {
+
+        private Long teamId;
+        private Integer age;
+    }
+}
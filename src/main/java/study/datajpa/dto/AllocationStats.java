@@ -0,0 +1,19 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class AllocationStats {
+
+    /**
+     * repository / controller
+     */
+    private String kind;
+    private String method;
+    private long calls;
+    private long totalAllocatedBytes;
+    private long avgAllocatedBytes;
+    private long maxAllocatedBytes;
+    private double avgCpuMillis;
+    private double avgWallMillis;
+}
@@ -0,0 +1,21 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class BulkImportResult {
+
+    private long members;
+    private long teamsCreated;
+    private long elapsedMillis;
+
+    public BulkImportResult(long members, long teamsCreated, long elapsedMillis) {
+        this.members = members;
+        this.teamsCreated = teamsCreated;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? members : members * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ChangeBatch {
+
+    private List<ChangeLogDto> changes;
+    private long nextWatermark;
+    private boolean hasMore;
+
+    public ChangeBatch(List<ChangeLogDto> changes, long nextWatermark, boolean hasMore) {
+        this.changes = changes;
+        this.nextWatermark = nextWatermark;
+        this.hasMore = hasMore;
+    }
+}
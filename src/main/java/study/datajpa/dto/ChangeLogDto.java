@@ -0,0 +1,27 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+import study.datajpa.domain.ChangeLog;
+import study.datajpa.domain.ChangeType;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ChangeLogDto {
+
+    private Long id;
+    private Long commitSeq;
+    private String entityName;
+    private String entityId;
+    private ChangeType changeType;
+    private LocalDateTime changedAt;
+
+    public ChangeLogDto(ChangeLog changeLog) {
+        this.id = changeLog.getId();
+        this.commitSeq = changeLog.getCommitSeq();
+        this.entityName = changeLog.getEntityName();
+        this.entityId = changeLog.getEntityId();
+        this.changeType = changeLog.getChangeType();
+        this.changedAt = changeLog.getChangedAt();
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+import study.datajpa.fetchplan.FetchStrategy;
+
+@Data
+public class FetchPlanAdvice {
+
+    private String method;
+    private long calls;
+    private double avgRows;
+    private double avgDistinctTeams;
+    /**
+     * 조회된 회원 수 대비 서로 다른 팀 수 (1 이면 모든 회원의 팀이 다르다)
+     */
+    private double teamSharingRatio;
+    /**
+     * 반환 이후 팀에 접근한 호출 비율. 이미 함께 조회하는 메서드는 측정할 수 없어 null 이다.
+     */
+    private Double accessRatio;
+    private boolean prefetching;
+    private FetchStrategy recommended;
+    private double statementsPerCall;
+    private double recommendedStatementsPerCall;
+    private double teamBytesPerCall;
+    private double recommendedTeamBytesPerCall;
+    private double bytesSavedPerCall;
+}
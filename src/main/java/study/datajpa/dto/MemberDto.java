@@ -3,8 +3,10 @@ package study.datajpa.dto;
 import lombok.Data;
 import study.datajpa.domain.Member;
 
+import java.io.Serializable;
+
 @Data   // Entity에서는 사용하지 말것
-public class MemberDto {
+public class MemberDto implements Serializable {
 
     private Long id;
     private String username;
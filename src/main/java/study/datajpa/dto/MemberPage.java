@@ -0,0 +1,33 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Page 의 Pageable/Sort 메타데이터를 뺀 응답 봉투
+ */
+@Data
+public class MemberPage {
+
+    private List<MemberDto> content;
+    private int page;
+    private int size;
+    private long totalElements;
+
+    public MemberPage(List<MemberDto> content, int page, int size, long totalElements) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+    }
+
+    public static MemberPage of(Page<MemberDto> page) {
+        return new MemberPage(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements());
+    }
+
+    public boolean isHasNext() {
+        return (long) (page + 1) * size < totalElements;
+    }
+}
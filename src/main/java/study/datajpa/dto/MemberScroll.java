@@ -0,0 +1,25 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 무한 스크롤 응답. 전체 건수 없이 다음 요청에 넘길 커서만 준다.
+ */
+@Data
+public class MemberScroll {
+
+    private List<MemberDto> content;
+    /**
+     * 다음 요청의 cursor (마지막 회원 id), 더 없으면 null
+     */
+    private Long nextCursor;
+    private boolean hasNext;
+
+    public MemberScroll(List<MemberDto> content, Long nextCursor, boolean hasNext) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+}
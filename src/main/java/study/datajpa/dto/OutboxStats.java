@@ -0,0 +1,15 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class OutboxStats {
+
+    private long pending;
+    private long dispatched;
+    private long batches;
+    private double throughputPerSecond;
+    private long lastLagMillis;
+    private long maxLagMillis;
+    private double averageSinkMillis;
+}
@@ -0,0 +1,16 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class PersistenceContextStats {
+
+    private long flushes;
+    private double avgEntitiesPerFlush;
+    private long dirtyChecks;
+    private double dirtyCheckMillis;
+    private double avgDirtyCheckMillisPerFlush;
+    private long maxManagedEntities;
+    private long autoClears;
+    private long warnings;
+}
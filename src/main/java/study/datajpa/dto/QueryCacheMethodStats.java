@@ -0,0 +1,13 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class QueryCacheMethodStats {
+
+    private String method;
+    private long l1Hits;
+    private long l2Hits;
+    private long misses;
+    private double hitRatio;
+}
@@ -0,0 +1,16 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class QueryCacheStats {
+
+    private int l1Entries;
+    private long l1Evictions;
+    private boolean l2Enabled;
+    private int l2Entries;
+    private long l2Evictions;
+    private List<QueryCacheMethodStats> methods;
+}
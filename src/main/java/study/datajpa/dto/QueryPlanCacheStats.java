@@ -0,0 +1,20 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class QueryPlanCacheStats {
+
+    private boolean statisticsEnabled;
+    /**
+     * hibernate.query.plan_cache_max_size
+     */
+    private int maxSize;
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long recompilations;
+    private List<QueryPlanStatsDto> queries;
+}
@@ -0,0 +1,19 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class QueryPlanStatsDto {
+
+    private String query;
+    private long planCacheHits;
+    private long planCacheMisses;
+    /**
+     * 첫 컴파일 이후의 미스. 캐시에서 밀려났거나 동시에 처음 컴파일된 것이다. (Hibernate 는 퇴출 수를 세지 않는다)
+     */
+    private long recompilations;
+    private long compileMicros;
+    private long executions;
+    private long executionAvgMillis;
+    private long executionMaxMillis;
+}
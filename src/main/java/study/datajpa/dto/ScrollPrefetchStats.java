@@ -0,0 +1,20 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class ScrollPrefetchStats {
+
+    private long requests;
+    /**
+     * 미리 읽어 둔 슬라이스로 응답한 요청 (진행 중인 선읽기를 기다린 경우 포함)
+     */
+    private long hits;
+    private long prefetches;
+    /**
+     * 만료되었거나 그 사이 회원이 바뀌어 버린 선읽기
+     */
+    private long discarded;
+    private int buffered;
+    private double hitRatio;
+}
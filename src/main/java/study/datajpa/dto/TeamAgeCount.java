@@ -0,0 +1,15 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class TeamAgeCount {
+
+    private int age;
+    private long memberCount;
+
+    public TeamAgeCount(Integer age, Long memberCount) {
+        this.age = age;
+        this.memberCount = memberCount;
+    }
+}
@@ -0,0 +1,41 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+@Data
+public class TeamAggregate {
+
+    private Long teamId;
+    private long memberCount;
+    private Integer minAge;
+    private Integer maxAge;
+    private double averageAge;
+    /**
+     * 10살 단위 구간의 시작 나이 -> 회원 수
+     */
+    private SortedMap<Integer, Long> ageHistogram = new TreeMap<>();
+
+    /**
+     * @param ageCounts 나이 오름차순, 회원 수가 0 인 나이는 제외
+     */
+    public static TeamAggregate of(Long teamId, List<TeamAgeCount> ageCounts) {
+        TeamAggregate aggregate = new TeamAggregate();
+        aggregate.setTeamId(teamId);
+        long ageSum = 0;
+        for (TeamAgeCount ageCount : ageCounts) {
+            aggregate.memberCount += ageCount.getMemberCount();
+            ageSum += (long) ageCount.getAge() * ageCount.getMemberCount();
+            aggregate.ageHistogram.merge(Math.floorDiv(ageCount.getAge(), 10) * 10, ageCount.getMemberCount(), Long::sum);
+        }
+        if (!ageCounts.isEmpty()) {
+            aggregate.setMinAge(ageCounts.get(0).getAge());
+            aggregate.setMaxAge(ageCounts.get(ageCounts.size() - 1).getAge());
+            aggregate.setAverageAge(ageSum / (double) aggregate.memberCount);
+        }
+        return aggregate;
+    }
+}
@@ -0,0 +1,13 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class TenantStats {
+
+    private String tenant;
+    private int activeConnections;
+    private int maxConnections;
+    private long acquired;
+    private long throttled;
+}
@@ -0,0 +1,23 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+
+@Data
+public class WriteBehindStats {
+
+    private long submitted;
+    private long flushedUpdates;
+    /**
+     * 병합 후 실제로 UPDATE 한 행 수
+     */
+    private long flushedRows;
+    /**
+     * flushedUpdates / flushedRows (1 이면 병합 효과 없음)
+     */
+    private double coalescingRatio;
+    private long flushes;
+    private double avgFlushMillis;
+    private long maxBatchRows;
+    private long missing;
+    private long failedUpdates;
+}
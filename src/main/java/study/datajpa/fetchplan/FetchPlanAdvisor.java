@@ -0,0 +1,227 @@
+package study.datajpa.fetchplan;
+
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.dto.FetchPlanAdvice;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 메서드별로 Member.team 이 실제로 얼마나 쓰이는지 기록하고 fetch 전략을 추천한다.
+ * 반환 시점에 초기화되지 않은 팀 프록시가 트랜잭션(없으면 요청)이 끝날 때 초기화되어 있으면 그 사이에 지연 로딩된 것이다.
+ */
+@Component
+public class FetchPlanAdvisor {
+
+    private static final double LOW_ACCESS = 0.2;
+    private static final double HIGH_SHARING = 0.2;
+    private static final int TEAM_ID_BYTES = 8;
+
+    private final Map<Method, MethodFetchStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * 지금 팀 프록시를 한 번에 초기화하는 수 (Team 의 @BatchSize, 없으면 default_batch_fetch_size)
+     */
+    private final int currentBatchSize;
+
+    /**
+     * BATCH 를 추천할 때 Team 에 붙이라고 가정하는 @BatchSize
+     */
+    private final int batchSize;
+
+    public FetchPlanAdvisor(@Value("${spring.jpa.properties.hibernate.default_batch_fetch_size:1}") int defaultBatchFetchSize,
+                            @Value("${fetch-advisor.batch-size:100}") int batchSize) {
+        BatchSize teamBatchSize = Team.class.getAnnotation(BatchSize.class);
+        this.currentBatchSize = Math.max(1, teamBatchSize != null ? teamBatchSize.size() : defaultBatchFetchSize);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public void observe(Method method, List<Member> members) {
+        MethodFetchStats methodStats = stats.computeIfAbsent(method, m -> new MethodFetchStats(
+                m.getDeclaringClass().getSimpleName() + "." + m.getName(),
+                isPaged(m),
+                m.isAnnotationPresent(Query.class)));
+
+        Map<Object, Team> teams = new HashMap<>();
+        for (Member member : members) {
+            Team team = member.getTeam();
+            if (team != null) {
+                teams.putIfAbsent(teamId(team), team);
+            }
+        }
+        List<Team> pending = new ArrayList<>();
+        int prefetched = 0;
+        for (Team team : teams.values()) {
+            if (Hibernate.isInitialized(team)) {
+                prefetched++;
+            } else {
+                pending.add(team);
+            }
+        }
+
+        methodStats.getCalls().increment();
+        methodStats.getRows().add(members.size());
+        methodStats.getDistinctTeams().add(teams.size());
+        methodStats.getPrefetchedTeams().add(prefetched);
+
+        Runnable completion = () -> {
+            int loaded = 0;
+            for (Team team : teams.values()) {
+                if (Hibernate.isInitialized(team)) {
+                    methodStats.getTeamNameBytes().add(nameBytes(team));
+                    methodStats.getTeamsMeasured().increment();
+                }
+            }
+            for (Team team : pending) {
+                if (Hibernate.isInitialized(team)) {
+                    loaded++;
+                }
+            }
+            methodStats.getLazyLoadedTeams().add(loaded);
+            if (loaded > 0) {
+                methodStats.getCallsWithAccess().increment();
+            }
+        };
+        onUnitOfWorkEnd(completion);
+    }
+
+    public List<FetchPlanAdvice> advise() {
+        List<FetchPlanAdvice> advices = new ArrayList<>();
+        for (MethodFetchStats s : stats.values()) {
+            long calls = s.getCalls().sum();
+            if (calls == 0) {
+                continue;
+            }
+            double rows = s.getRows().sum() / (double) calls;
+            double teams = s.getDistinctTeams().sum() / (double) calls;
+            double lazyLoads = s.getLazyLoadedTeams().sum() / (double) calls;
+            double sharing = rows == 0 ? 0 : teams / rows;
+            boolean prefetching = s.getDistinctTeams().sum() > 0
+                    && s.getPrefetchedTeams().sum() * 2 >= s.getDistinctTeams().sum();
+            Double accessRatio = prefetching ? null : s.getCallsWithAccess().sum() / (double) calls;
+            long measured = s.getTeamsMeasured().sum();
+            double teamRowBytes = TEAM_ID_BYTES + (measured == 0 ? 16 : s.getTeamNameBytes().sum() / (double) measured);
+
+            FetchStrategy recommended;
+            if (!prefetching && accessRatio < LOW_ACCESS) {
+                recommended = FetchStrategy.LAZY;
+            } else if (s.isPaged()) {
+                // 컬렉션이 아니어도 fetch join + 페이징은 조인 행 수만큼 팀 컬럼을 싣는다. 배치 로딩이 안전하다.
+                recommended = FetchStrategy.BATCH;
+            } else if (sharing < HIGH_SHARING) {
+                recommended = teams > batchSize ? FetchStrategy.SUBSELECT : FetchStrategy.BATCH;
+            } else {
+                recommended = s.isCustomQuery() ? FetchStrategy.JOIN_FETCH : FetchStrategy.ENTITY_GRAPH;
+            }
+
+            // 팀에 접근하는 경우 읽게 될 팀 수 (이미 함께 읽고 있다면 전부로 본다)
+            double teamsUsed = prefetching ? teams : lazyLoads;
+
+            FetchPlanAdvice advice = new FetchPlanAdvice();
+            advice.setMethod(s.getMethod());
+            advice.setCalls(calls);
+            advice.setAvgRows(rows);
+            advice.setAvgDistinctTeams(teams);
+            advice.setTeamSharingRatio(sharing);
+            advice.setAccessRatio(accessRatio);
+            advice.setPrefetching(prefetching);
+            advice.setRecommended(recommended);
+            advice.setStatementsPerCall(prefetching ? 1 : 1 + Math.ceil(lazyLoads / currentBatchSize));
+            advice.setRecommendedStatementsPerCall(statements(recommended, teamsUsed, lazyLoads));
+            advice.setTeamBytesPerCall(prefetching ? rows * teamRowBytes : lazyLoads * teamRowBytes);
+            advice.setRecommendedTeamBytesPerCall(teamRows(recommended, rows, teamsUsed, lazyLoads) * teamRowBytes);
+            advice.setBytesSavedPerCall(advice.getTeamBytesPerCall() - advice.getRecommendedTeamBytesPerCall());
+            advices.add(advice);
+        }
+        advices.sort((a, b) -> Double.compare(
+                b.getStatementsPerCall() - b.getRecommendedStatementsPerCall(),
+                a.getStatementsPerCall() - a.getRecommendedStatementsPerCall()));
+        return advices;
+    }
+
+    private double statements(FetchStrategy strategy, double teamsUsed, double lazyLoads) {
+        switch (strategy) {
+            case JOIN_FETCH:
+            case ENTITY_GRAPH:
+                return 1;
+            case BATCH:
+                return 1 + Math.ceil(teamsUsed / batchSize);
+            case SUBSELECT:
+                return teamsUsed > 0 ? 2 : 1;
+            default:
+                return 1 + Math.ceil(lazyLoads / currentBatchSize);
+        }
+    }
+
+    /**
+     * @return 팀 행 수 (조인은 회원 행마다 중복된다)
+     */
+    private static double teamRows(FetchStrategy strategy, double rows, double teamsUsed, double lazyLoads) {
+        switch (strategy) {
+            case JOIN_FETCH:
+            case ENTITY_GRAPH:
+                return rows;
+            case BATCH:
+            case SUBSELECT:
+                return teamsUsed;
+            default:
+                return lazyLoads;
+        }
+    }
+
+    private static void onUnitOfWorkEnd(Runnable completion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    completion.run();
+                }
+            });
+            return;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.registerDestructionCallback(FetchPlanAdvisor.class.getName() + "." + UUID.randomUUID(),
+                    completion, RequestAttributes.SCOPE_REQUEST);
+            return;
+        }
+        completion.run();
+    }
+
+    private static boolean isPaged(Method method) {
+        return Slice.class.isAssignableFrom(method.getReturnType())
+                || Arrays.stream(method.getParameterTypes()).anyMatch(Pageable.class::isAssignableFrom);
+    }
+
+    private static Object teamId(Team team) {
+        if (team instanceof HibernateProxy) {
+            return ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return team.getId();
+    }
+
+    private static long nameBytes(Team team) {
+        String name = team.getName();
+        return name == null ? 0 : name.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
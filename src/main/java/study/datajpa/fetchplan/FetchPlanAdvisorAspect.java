@@ -0,0 +1,79 @@
+package study.datajpa.fetchplan;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.datajpa.domain.Member;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * MemberRepository 가 돌려준 회원을 샘플링해서 FetchPlanAdvisor 에 넘긴다.
+ * 전략을 바꾸지는 않는다. 추천 결과는 /stats/fetch-plans 에서 확인하고 코드에 반영한다.
+ */
+@Slf4j
+@Aspect
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "fetch-advisor.enabled", havingValue = "true")
+public class FetchPlanAdvisorAspect {
+
+    private final FetchPlanAdvisor advisor;
+
+    @Value("${fetch-advisor.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Around("execution(* study.datajpa.repository.MemberRepository.*(..))")
+    public Object observe(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return result;
+        }
+        List<Member> members = members(result);
+        if (!members.isEmpty()) {
+            try {
+                advisor.observe(((MethodSignature) joinPoint.getSignature()).getMethod(), members);
+            } catch (RuntimeException e) {
+                // 통계 수집 실패가 조회 결과에 영향을 주면 안 된다.
+                log.debug("fetch plan observation failed: {}", joinPoint.getSignature(), e);
+            }
+        }
+        return result;
+    }
+
+    private static List<Member> members(Object result) {
+        if (result instanceof Optional) {
+            result = ((Optional<?>) result).orElse(null);
+        }
+        if (result instanceof Member) {
+            return Collections.singletonList((Member) result);
+        }
+        Collection<?> values;
+        if (result instanceof Slice) {
+            values = ((Slice<?>) result).getContent();
+        } else if (result instanceof Collection) {
+            values = (Collection<?>) result;
+        } else {
+            return Collections.emptyList();
+        }
+        List<Member> members = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (value instanceof Member) {
+                members.add((Member) value);
+            }
+        }
+        return members;
+    }
+}
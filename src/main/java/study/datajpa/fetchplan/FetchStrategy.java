@@ -0,0 +1,24 @@
+package study.datajpa.fetchplan;
+
+public enum FetchStrategy {
+    /**
+     * 연관 엔티티를 거의 쓰지 않으므로 지연 로딩 그대로 둔다.
+     */
+    LAZY,
+    /**
+     * @Query 의 join fetch (한 번의 쿼리, 행마다 팀 컬럼이 중복된다)
+     */
+    JOIN_FETCH,
+    /**
+     * 파생 쿼리 / findAll 에 @EntityGraph (SQL 은 join fetch 와 같다)
+     */
+    ENTITY_GRAPH,
+    /**
+     * IN 절 배치 로딩 (Team 에 @BatchSize), 페이징과 함께 쓸 수 있다.
+     */
+    BATCH,
+    /**
+     * @Fetch(SUBSELECT) 로 원 쿼리를 서브쿼리로 재사용 (결과가 크고 팀 공유율이 높을 때)
+     */
+    SUBSELECT
+}
@@ -0,0 +1,37 @@
+package study.datajpa.fetchplan;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 리포지토리 메서드 하나의 연관관계(Member.team) 사용 통계
+ */
+@Getter
+class MethodFetchStats {
+
+    private final String method;
+    private final boolean paged;
+    private final boolean customQuery;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder distinctTeams = new LongAdder();
+    /**
+     * 반환 시점에 이미 초기화되어 있던 팀 (fetch join / entity graph 로 같이 읽은 것)
+     */
+    private final LongAdder prefetchedTeams = new LongAdder();
+    /**
+     * 반환 이후 트랜잭션/요청이 끝나기 전까지 지연 로딩된 팀 (= 추가 SELECT 수)
+     */
+    private final LongAdder lazyLoadedTeams = new LongAdder();
+    private final LongAdder callsWithAccess = new LongAdder();
+    private final LongAdder teamNameBytes = new LongAdder();
+    private final LongAdder teamsMeasured = new LongAdder();
+
+    MethodFetchStats(String method, boolean paged, boolean customQuery) {
+        this.method = method;
+        this.paged = paged;
+        this.customQuery = customQuery;
+    }
+}
@@ -0,0 +1,129 @@
+package study.datajpa.idgen;
+
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.boot.model.relational.Database;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Member/Team/ScanCheckpoint 의 식별자 생성기. 전략은 엔티티가 아니라 설정(spring.jpa.properties.study.id.*)으로 고른다.
+ *
+ * 어떤 전략이든 시퀀스(sequence_name, 기본 hibernate_sequence)는 만들어 둔다. 벌크 적재처럼 JDBC 로 직접 넣는 곳이
+ * next value 를 쓰기 때문이다. pooled-lo/striped 에서는 시퀀스 값 하나가 블록의 시작이므로 JDBC 로 꺼낸 값과 겹치지 않는다.
+ *
+ * <pre>
+ * &#64;Id
+ * &#64;GeneratedValue(generator = "member_id")
+ * &#64;GenericGenerator(name = "member_id", strategy = ConfigurableIdGenerator.STRATEGY)
+ * </pre>
+ */
+public class ConfigurableIdGenerator implements PersistentIdentifierGenerator {
+
+    public static final String STRATEGY = "study.datajpa.idgen.ConfigurableIdGenerator";
+
+    public static final String STRATEGY_SETTING = "study.id.strategy";
+    public static final String INCREMENT_SETTING = "study.id.increment";
+    public static final String STRIPE_SIZE_SETTING = "study.id.stripe-size";
+    public static final String NODE_ID_SETTING = "study.id.node-id";
+
+    private final SequenceStyleGenerator sequence = new SequenceStyleGenerator();
+    private IdStrategy strategy;
+    private TimeOrderedIdGenerator timeOrdered;
+    private int stripeSize;
+    private ThreadLocal<long[]> stripes;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        strategy = IdStrategy.of(ConfigurationHelper.getString(STRATEGY_SETTING, settings, "pooled-lo"));
+
+        Properties sequenceParams = new Properties();
+        sequenceParams.putAll(params);
+        switch (strategy) {
+            case POOLED_LO:
+                sequenceParams.setProperty(SequenceStyleGenerator.INCREMENT_PARAM,
+                        String.valueOf(ConfigurationHelper.getInt(INCREMENT_SETTING, settings, 50)));
+                sequenceParams.setProperty(SequenceStyleGenerator.OPT_PARAM, "pooled-lo");
+                break;
+            case STRIPED:
+                stripeSize = ConfigurationHelper.getInt(STRIPE_SIZE_SETTING, settings, 1000);
+                stripes = ThreadLocal.withInitial(() -> new long[]{0, 0});
+                sequenceParams.setProperty(SequenceStyleGenerator.INCREMENT_PARAM, String.valueOf(stripeSize));
+                sequenceParams.setProperty(SequenceStyleGenerator.OPT_PARAM, "pooled-lo");
+                break;
+            case TIME_ORDERED:
+                timeOrdered = new TimeOrderedIdGenerator(ConfigurationHelper.getInt(NODE_ID_SETTING, settings, 0));
+                sequenceParams.setProperty(SequenceStyleGenerator.INCREMENT_PARAM, "1");
+                sequenceParams.setProperty(SequenceStyleGenerator.OPT_PARAM, "none");
+                break;
+            default:
+                throw new MappingException("unknown id strategy: " + strategy);
+        }
+        sequence.configure(type, sequenceParams, serviceRegistry);
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        switch (strategy) {
+            case TIME_ORDERED:
+                return timeOrdered.nextId();
+            case STRIPED:
+                return nextStriped(session);
+            default:
+                return sequence.generate(session, object);
+        }
+    }
+
+    /**
+     * 스레드별 [next, end) 블록. 다 쓰면 이 스레드만 시퀀스를 한 번 더 읽는다.
+     */
+    private Long nextStriped(SharedSessionContractImplementor session) {
+        long[] stripe = stripes.get();
+        if (stripe[0] == stripe[1]) {
+            long low = sequence.getDatabaseStructure().buildCallback(session).getNextValue().makeValue().longValue();
+            stripe[0] = low;
+            stripe[1] = low + stripeSize;
+        }
+        return stripe[0]++;
+    }
+
+    public IdStrategy getStrategy() {
+        return strategy;
+    }
+
+    @Override
+    public void registerExportables(Database database) {
+        sequence.registerExportables(database);
+    }
+
+    @Override
+    public String[] sqlCreateStrings(Dialect dialect) throws HibernateException {
+        return sequence.sqlCreateStrings(dialect);
+    }
+
+    @Override
+    public String[] sqlDropStrings(Dialect dialect) throws HibernateException {
+        return sequence.sqlDropStrings(dialect);
+    }
+
+    @Override
+    public Object generatorKey() {
+        return sequence.generatorKey();
+    }
+
+    @Override
+    public boolean supportsJdbcBatchInserts() {
+        return true;
+    }
+}
@@ -0,0 +1,26 @@
+package study.datajpa.idgen;
+
+/**
+ * study.id.strategy 값
+ */
+public enum IdStrategy {
+
+    /**
+     * 시퀀스 한 번에 increment 개를 받아 [v, v + increment) 를 쓴다. (Hibernate pooled-lo 옵티마이저)
+     */
+    POOLED_LO,
+
+    /**
+     * 밀리초 + 노드 + 순번으로 만든 64비트 값. DB 를 거치지 않는다.
+     */
+    TIME_ORDERED,
+
+    /**
+     * 스레드마다 시퀀스에서 stripe-size 개짜리 블록을 따로 받아 쓴다. 동시 삽입 시 옵티마이저 잠금 경합이 없다.
+     */
+    STRIPED;
+
+    public static IdStrategy of(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
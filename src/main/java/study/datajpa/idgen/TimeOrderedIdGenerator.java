@@ -0,0 +1,51 @@
+package study.datajpa.idgen;
+
+import java.time.Instant;
+
+/**
+ * [41비트 밀리초 (2020-01-01 기준)][10비트 노드][12비트 순번]
+ * 같은 밀리초에 4096 개를 넘으면 다음 밀리초까지 기다린다. 시계가 뒤로 가면 마지막 시각을 계속 쓴다.
+ * 노드마다 node-id 가 달라야 한다.
+ *
+ * 값이 2^53 보다 크므로 JSON 으로 내보낼 때 JavaScript 클라이언트는 문자열로 받아야 한다.
+ */
+public class TimeOrderedIdGenerator {
+
+    static final long EPOCH = Instant.parse("2020-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+    private long lastMillis = -1;
+    private long sequence;
+
+    public TimeOrderedIdGenerator(long node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("node must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+    }
+
+    public synchronized long nextId() {
+        long now = Math.max(System.currentTimeMillis(), lastMillis);
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                while (now <= lastMillis) {
+                    Thread.onSpinWait();
+                    now = System.currentTimeMillis();
+                }
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+        return ((now - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+}
@@ -0,0 +1,171 @@
+package study.datajpa.indexadvisor;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 리포지토리 쿼리 메서드를 기준으로 인덱스를 제안한다.
+ * 1. 파생 쿼리 메서드는 메서드 이름(PartTree)에서 조건 컬럼을 뽑는다.
+ * 2. @Query, 네임드 쿼리, Specification 은 실제 실행된 SQL 을 캡처하여 H2 EXPLAIN 으로 전체 스캔 여부를 확인한다.
+ * 동등 조건 컬럼을 앞에, 범위 조건 컬럼 하나를 마지막에 두는 복합 인덱스를 제안하며, 기존 인덱스의 선두 컬럼과 겹치면 제외한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class IndexAdvisor {
+
+    private static final Set<Part.Type> EQUALITY = EnumSet.of(Part.Type.SIMPLE_PROPERTY, Part.Type.IN, Part.Type.TRUE, Part.Type.FALSE, Part.Type.IS_NULL);
+    private static final Set<Part.Type> RANGE = EnumSet.of(Part.Type.GREATER_THAN, Part.Type.GREATER_THAN_EQUAL,
+            Part.Type.LESS_THAN, Part.Type.LESS_THAN_EQUAL, Part.Type.BETWEEN, Part.Type.BEFORE, Part.Type.AFTER, Part.Type.STARTING_WITH);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * invocation 안에서 실행된 SELECT 문의 실행 계획
+     */
+    public List<QueryPlan> explain(Runnable invocation) {
+        List<String> statements;
+        SqlCaptureListener.start();
+        try {
+            invocation.run();
+        } finally {
+            statements = SqlCaptureListener.stop();
+        }
+        return statements.stream()
+                .filter(sql -> sql.trim().toLowerCase(Locale.ROOT).startsWith("select"))
+                .map(this::explain)
+                .collect(Collectors.toList());
+    }
+
+    public QueryPlan explain(String sql) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class);
+        return new QueryPlan(sql, plan);
+    }
+
+    /**
+     * 실행 계획에서 전체 스캔된 테이블의 조건 컬럼으로 인덱스를 제안한다.
+     */
+    public List<IndexSuggestion> suggest(QueryPlan queryPlan) {
+        String plan = queryPlan.getPlan();
+        int from = plan.toUpperCase(Locale.ROOT).indexOf("FROM ");
+        String conditions = from < 0 ? plan : plan.substring(from);
+
+        Map<String, List<List<String>>> indexes = existingIndexes();
+        Set<IndexSuggestion> suggestions = new LinkedHashSet<>();
+        for (Map.Entry<String, String> scan : queryPlan.getFullScanAliases().entrySet()) {
+            Pattern predicate = Pattern.compile("\\b" + Pattern.quote(scan.getValue())
+                    + "\\.(\\w+)\\s*(=|>=|<=|>|<|IN\\b|BETWEEN\\b|LIKE\\b)", Pattern.CASE_INSENSITIVE);
+            Set<String> equality = new LinkedHashSet<>();
+            Set<String> range = new LinkedHashSet<>();
+            Matcher matcher = predicate.matcher(conditions);
+            while (matcher.find()) {
+                String column = matcher.group(1).toLowerCase(Locale.ROOT);
+                String operator = matcher.group(2).toUpperCase(Locale.ROOT);
+                if (operator.equals("=") || operator.equals("IN")) {
+                    equality.add(column);
+                } else {
+                    range.add(column);
+                }
+            }
+            addIfUncovered(suggestions, indexes, queryPlan.getSql(), scan.getKey().toLowerCase(Locale.ROOT), equality, range);
+        }
+        return new ArrayList<>(suggestions);
+    }
+
+    /**
+     * @Query 가 없는 파생 쿼리 메서드의 이름으로부터 인덱스를 제안한다.
+     */
+    public List<IndexSuggestion> suggest(Class<?> repositoryInterface, Class<?> domainType) {
+        String table = toColumnName(domainType.getSimpleName());
+        Map<String, List<List<String>>> indexes = existingIndexes();
+
+        Set<IndexSuggestion> suggestions = new LinkedHashSet<>();
+        for (Method method : repositoryInterface.getDeclaredMethods()) {
+            if (method.isDefault() || method.isAnnotationPresent(Query.class)) {
+                continue;
+            }
+            PartTree tree;
+            try {
+                tree = new PartTree(method.getName(), domainType);
+            } catch (RuntimeException e) {
+                continue;
+            }
+
+            Set<String> equality = new LinkedHashSet<>();
+            Set<String> range = new LinkedHashSet<>();
+            for (PartTree.OrPart orPart : tree) {
+                for (Part part : orPart) {
+                    PropertyPath property = part.getProperty();
+                    if (property.hasNext()) {
+                        continue;   // 연관관계 경로는 조인 대상 테이블의 인덱스로 다룬다.
+                    }
+                    String column = toColumnName(property.getSegment());
+                    if (EQUALITY.contains(part.getType())) {
+                        equality.add(column);
+                    } else if (RANGE.contains(part.getType())) {
+                        range.add(column);
+                    }
+                }
+            }
+            addIfUncovered(suggestions, indexes, repositoryInterface.getSimpleName() + "." + method.getName(), table, equality, range);
+        }
+        return new ArrayList<>(suggestions);
+    }
+
+    /**
+     * 현재 스키마의 인덱스 (테이블 -> 인덱스별 컬럼 목록)
+     */
+    public Map<String, List<List<String>>> existingIndexes() {
+        Map<String, Map<String, List<String>>> byTable = new LinkedHashMap<>();
+        jdbcTemplate.query("select table_name, index_name, column_name from information_schema.indexes " +
+                        "where table_schema = schema() order by table_name, index_name, ordinal_position",
+                rs -> {
+                    byTable.computeIfAbsent(rs.getString(1).toLowerCase(Locale.ROOT), t -> new LinkedHashMap<>())
+                            .computeIfAbsent(rs.getString(2), i -> new ArrayList<>())
+                            .add(rs.getString(3).toLowerCase(Locale.ROOT));
+                });
+
+        Map<String, List<List<String>>> result = new LinkedHashMap<>();
+        byTable.forEach((table, indexes) -> result.put(table, new ArrayList<>(indexes.values())));
+        return result;
+    }
+
+    /**
+     * @param indexes 호출마다 information_schema 를 다시 읽지 않도록 한 번 읽어 둔 existingIndexes()
+     */
+    private static void addIfUncovered(Set<IndexSuggestion> suggestions, Map<String, List<List<String>>> indexes,
+                                       String source, String table, Set<String> equality, Set<String> range) {
+        if (equality.isEmpty() && range.isEmpty()) {
+            return;
+        }
+        List<String> columns = new ArrayList<>(equality);
+        range.stream().filter(c -> !equality.contains(c)).findFirst().ifPresent(columns::add);
+
+        boolean covered = indexes.getOrDefault(table, new ArrayList<>()).stream()
+                .anyMatch(index -> index.size() >= columns.size() && index.subList(0, columns.size()).equals(columns));
+        if (!covered) {
+            suggestions.add(new IndexSuggestion(source, table, columns));
+        }
+    }
+
+    private static String toColumnName(String name) {
+        return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+    }
+}
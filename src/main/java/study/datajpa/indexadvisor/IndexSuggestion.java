@@ -0,0 +1,38 @@
+package study.datajpa.indexadvisor;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@EqualsAndHashCode(of = {"table", "columns"})
+@ToString(of = {"source", "table", "columns"})
+public class IndexSuggestion {
+
+    private final String source;
+    private final String table;
+    private final List<String> columns;
+
+    public IndexSuggestion(String source, String table, List<String> columns) {
+        this.source = source;
+        this.table = table;
+        this.columns = columns;
+    }
+
+    public String getIndexName() {
+        return "idx_" + table + "_" + String.join("_", columns);
+    }
+
+    public String getDdl() {
+        return "create index " + getIndexName() + " on " + table + " (" + String.join(", ", columns) + ")";
+    }
+
+    /**
+     * @Table(indexes = ...) 에 그대로 붙여넣을 수 있는 형태
+     */
+    public String getAnnotation() {
+        return "@Index(name = \"" + getIndexName() + "\", columnList = \"" + String.join(", ", columns) + "\")";
+    }
+}
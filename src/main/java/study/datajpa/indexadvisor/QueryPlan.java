@@ -0,0 +1,59 @@
+package study.datajpa.indexadvisor;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * H2 EXPLAIN 결과
+ * 인덱스를 타지 못한 테이블은 플랜에 "PUBLIC.MEMBER.tableScan" 처럼 표시된다.
+ */
+@Getter
+@ToString(of = {"sql", "plan"})
+public class QueryPlan {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("PUBLIC\\.(\\w+) (\\w+)\\s*/\\* PUBLIC\\.\\1\\.tableScan \\*/");
+
+    private final String sql;
+    private final String plan;
+
+    public QueryPlan(String sql, String plan) {
+        this.sql = sql;
+        this.plan = plan.replace("\"", "");
+    }
+
+    public boolean isFullScan() {
+        return !getFullScans().isEmpty();
+    }
+
+    /**
+     * 전체 스캔된 테이블 (소문자)
+     */
+    public List<String> getFullScans() {
+        List<String> tables = new ArrayList<>();
+        Matcher matcher = TABLE_SCAN.matcher(plan);
+        while (matcher.find()) {
+            tables.add(matcher.group(1).toLowerCase(Locale.ROOT));
+        }
+        return tables;
+    }
+
+    /**
+     * 전체 스캔된 테이블(대문자) -> 플랜상의 별칭
+     */
+    Map<String, String> getFullScanAliases() {
+        Map<String, String> aliases = new LinkedHashMap<>();
+        Matcher matcher = TABLE_SCAN.matcher(plan);
+        while (matcher.find()) {
+            aliases.put(matcher.group(1), matcher.group(2));
+        }
+        return aliases;
+    }
+}
@@ -0,0 +1,36 @@
+package study.datajpa.indexadvisor;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * p6spy 리스너로 등록되어, 캡처 중인 스레드에서 실행된 SQL 을 바인딩 값이 채워진 형태로 모은다.
+ */
+@Component
+public class SqlCaptureListener extends SimpleJdbcEventListener {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    static void start() {
+        CAPTURED.set(new ArrayList<>());
+    }
+
+    static List<String> stop() {
+        List<String> captured = CAPTURED.get();
+        CAPTURED.remove();
+        return captured == null ? new ArrayList<>() : captured;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        List<String> captured = CAPTURED.get();
+        if (captured != null && e == null) {
+            captured.add(statementInformation.getSqlWithValues());
+        }
+    }
+}
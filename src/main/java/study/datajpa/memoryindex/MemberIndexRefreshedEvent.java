@@ -0,0 +1,14 @@
+package study.datajpa.memoryindex;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * MemberReadIndex 가 새 스냅샷으로 교체된 뒤 발행된다.
+ */
+@Getter
+@RequiredArgsConstructor
+public class MemberIndexRefreshedEvent {
+
+    private final MemberIndexSnapshot snapshot;
+}
@@ -0,0 +1,22 @@
+package study.datajpa.memoryindex;
+
+import lombok.Getter;
+
+/**
+ * 인덱스 적재용 프로젝션 (JPQL 생성자 표현식)
+ */
+@Getter
+public class MemberIndexRow {
+
+    private final long id;
+    private final String username;
+    private final int age;
+    private final long teamId;
+
+    public MemberIndexRow(Long id, String username, Integer age, Long teamId) {
+        this.id = id;
+        this.username = username;
+        this.age = age == null ? 0 : age;
+        this.teamId = teamId == null ? MemberIndexSnapshot.NO_TEAM : teamId;
+    }
+}
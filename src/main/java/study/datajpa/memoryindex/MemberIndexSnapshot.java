@@ -0,0 +1,339 @@
+package study.datajpa.memoryindex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Member (id, username, age, team_id) 와 Team (id, name) 의 불변 컬럼 스냅샷
+ * 행은 (username, age, id) 순으로 정렬되어 있어, username 은 이진 탐색으로, age 범위 조건은 username 구간 안에서 다시 이진 탐색으로 찾는다.
+ * 조회 메서드는 호출자가 넘긴 int[] 에 행 번호를 채우므로 조회 시 객체를 생성하지 않는다.
+ * 행 번호는 같은 스냅샷의 접근자(getId, getAge ...)로만 해석해야 한다.
+ */
+public final class MemberIndexSnapshot {
+
+    public static final long NO_TEAM = -1L;
+
+    static final Comparator<MemberIndexRow> ORDER = Comparator
+            .comparing(MemberIndexRow::getUsername, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingInt(MemberIndexRow::getAge)
+            .thenComparingLong(MemberIndexRow::getId);
+
+    static final MemberIndexSnapshot EMPTY = new MemberIndexSnapshot(new ArrayList<>(), new TreeMap<>());
+
+    private final int size;
+    private final long[] ids;
+    private final String[] usernames;
+    private final int[] ages;
+    private final long[] teamIds;
+
+    /**
+     * id 오름차순 행 번호 (findTop3HelloBy 용)
+     */
+    private final int[] idOrder;
+
+    /**
+     * id -> 행 번호 (open addressing)
+     */
+    private final long[] slotKeys;
+    private final int[] slotRows;
+
+    /**
+     * team_id 오름차순
+     */
+    private final long[] teamKeys;
+    private final String[] teamNames;
+
+    private MemberIndexSnapshot(List<MemberIndexRow> sortedRows, SortedMap<Long, String> teams) {
+        this.size = sortedRows.size();
+        this.ids = new long[size];
+        this.usernames = new String[size];
+        this.ages = new int[size];
+        this.teamIds = new long[size];
+        for (int row = 0; row < size; row++) {
+            MemberIndexRow r = sortedRows.get(row);
+            ids[row] = r.getId();
+            usernames[row] = r.getUsername();
+            ages[row] = r.getAge();
+            teamIds[row] = r.getTeamId();
+        }
+
+        this.idOrder = new int[size];
+        Integer[] boxed = new Integer[size];
+        for (int row = 0; row < size; row++) {
+            boxed[row] = row;
+        }
+        Arrays.sort(boxed, Comparator.comparingLong(row -> ids[row]));
+        for (int i = 0; i < size; i++) {
+            idOrder[i] = boxed[i];
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(4, size * 2) - 1) << 1;
+        this.slotKeys = new long[capacity];
+        this.slotRows = new int[capacity];
+        Arrays.fill(slotKeys, Long.MIN_VALUE);
+        for (int row = 0; row < size; row++) {
+            int slot = slot(ids[row]);
+            while (slotKeys[slot] != Long.MIN_VALUE) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            slotKeys[slot] = ids[row];
+            slotRows[slot] = row;
+        }
+
+        this.teamKeys = new long[teams.size()];
+        this.teamNames = new String[teams.size()];
+        int i = 0;
+        for (Map.Entry<Long, String> team : teams.entrySet()) {
+            teamKeys[i] = team.getKey();
+            teamNames[i++] = team.getValue();
+        }
+    }
+
+    /**
+     * 스냅샷 파일에서 읽은 컬럼을 그대로 쓴다. (정렬, 해시 재구성 없음)
+     */
+    MemberIndexSnapshot(long[] ids, String[] usernames, int[] ages, long[] teamIds, int[] idOrder,
+                        long[] slotKeys, int[] slotRows, long[] teamKeys, String[] teamNames) {
+        this.size = ids.length;
+        this.ids = ids;
+        this.usernames = usernames;
+        this.ages = ages;
+        this.teamIds = teamIds;
+        this.idOrder = idOrder;
+        this.slotKeys = slotKeys;
+        this.slotRows = slotRows;
+        this.teamKeys = teamKeys;
+        this.teamNames = teamNames;
+    }
+
+    static MemberIndexSnapshot of(Collection<MemberIndexRow> rows, Map<Long, String> teams) {
+        List<MemberIndexRow> sorted = new ArrayList<>(rows);
+        sorted.sort(ORDER);
+        return new MemberIndexSnapshot(sorted, new TreeMap<>(teams));
+    }
+
+    /**
+     * 변경/삭제분만 반영한 새 스냅샷. 기존 행은 이미 정렬되어 있으므로 변경분과 병합만 한다.
+     */
+    MemberIndexSnapshot merge(Map<Long, MemberIndexRow> changed, Set<Long> deleted,
+                              Map<Long, String> changedTeams, Set<Long> deletedTeams) {
+        List<MemberIndexRow> changes = new ArrayList<>();
+        for (MemberIndexRow row : changed.values()) {
+            if (!deleted.contains(row.getId())) {
+                changes.add(row);
+            }
+        }
+        changes.sort(ORDER);
+
+        List<MemberIndexRow> merged = new ArrayList<>(size + changes.size());
+        int c = 0;
+        for (int row = 0; row < size; row++) {
+            if (changed.containsKey(ids[row]) || deleted.contains(ids[row])) {
+                continue;
+            }
+            MemberIndexRow existing = new MemberIndexRow(ids[row], usernames[row], ages[row], teamIds[row]);
+            while (c < changes.size() && ORDER.compare(changes.get(c), existing) < 0) {
+                merged.add(changes.get(c++));
+            }
+            merged.add(existing);
+        }
+        while (c < changes.size()) {
+            merged.add(changes.get(c++));
+        }
+
+        SortedMap<Long, String> teams = new TreeMap<>();
+        for (int i = 0; i < teamKeys.length; i++) {
+            teams.put(teamKeys[i], teamNames[i]);
+        }
+        teams.putAll(changedTeams);
+        teams.keySet().removeAll(deletedTeams);
+        return new MemberIndexSnapshot(merged, teams);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getId(int row) {
+        return ids[row];
+    }
+
+    public String getUsername(int row) {
+        return usernames[row];
+    }
+
+    public int getAge(int row) {
+        return ages[row];
+    }
+
+    public long getTeamId(int row) {
+        return teamIds[row];
+    }
+
+    /**
+     * @return 팀 이름, 없으면 null
+     */
+    public String getTeamName(long teamId) {
+        int index = Arrays.binarySearch(teamKeys, teamId);
+        return index < 0 ? null : teamNames[index];
+    }
+
+    int teamCount() {
+        return teamKeys.length;
+    }
+
+    long teamKeyAt(int index) {
+        return teamKeys[index];
+    }
+
+    String teamNameAt(int index) {
+        return teamNames[index];
+    }
+
+    int idOrderAt(int index) {
+        return idOrder[index];
+    }
+
+    int slotCount() {
+        return slotKeys.length;
+    }
+
+    long slotKeyAt(int slot) {
+        return slotKeys[slot];
+    }
+
+    int slotRowAt(int slot) {
+        return slotRows[slot];
+    }
+
+    /**
+     * @return id 에 해당하는 행 번호, 없으면 -1
+     */
+    public int rowOf(long id) {
+        int slot = slot(id);
+        while (slotKeys[slot] != Long.MIN_VALUE) {
+            if (slotKeys[slot] == id) {
+                return slotRows[slot];
+            }
+            slot = (slot + 1) & (slotKeys.length - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * findByUsername 결과 건수 (out 배열 크기를 정할 때 쓴다)
+     */
+    public int countByUsername(String username) {
+        int from = lowerBound(username);
+        return upperBound(username, from) - from;
+    }
+
+    /**
+     * findByUsername
+     * @return out 에 채운 행 수 (out 이 작으면 잘린다)
+     */
+    public int findByUsername(String username, int[] out) {
+        int from = lowerBound(username);
+        int to = upperBound(username, from);
+        return copyRows(from, to, out);
+    }
+
+    /**
+     * findByUsernameAndAgeGreaterThan 결과 건수
+     */
+    public int countByUsernameAndAgeGreaterThan(String username, int age) {
+        int from = lowerBound(username);
+        int to = upperBound(username, from);
+        return to - firstOlderThan(age, from, to);
+    }
+
+    /**
+     * findByUsernameAndAgeGreaterThan
+     */
+    public int findByUsernameAndAgeGreaterThan(String username, int age, int[] out) {
+        int from = lowerBound(username);
+        int to = upperBound(username, from);
+        return copyRows(firstOlderThan(age, from, to), to, out);
+    }
+
+    /**
+     * username 구간 [from, to) 안에서 age 는 정렬되어 있다.
+     */
+    private int firstOlderThan(int age, int from, int to) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ages[mid] <= age) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * findTop3HelloBy (id 오름차순 상위 out.length 건)
+     */
+    public int findTop(int[] out) {
+        int count = Math.min(out.length, size);
+        System.arraycopy(idOrder, 0, out, 0, count);
+        return count;
+    }
+
+    private int copyRows(int from, int to, int[] out) {
+        int count = Math.min(to - from, out.length);
+        for (int i = 0; i < count; i++) {
+            out[i] = from + i;
+        }
+        return count;
+    }
+
+    private int lowerBound(String username) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(usernames[mid], username) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int upperBound(String username, int from) {
+        int lo = from;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(usernames[mid], username) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int compare(String a, String b) {
+        if (a == null) {
+            return b == null ? 0 : -1;
+        }
+        return b == null ? 1 : a.compareTo(b);
+    }
+
+    private int slot(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (slotKeys.length - 1);
+    }
+}
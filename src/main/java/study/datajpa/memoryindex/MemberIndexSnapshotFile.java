@@ -0,0 +1,290 @@
+package study.datajpa.memoryindex;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MemberIndexSnapshot 의 바이너리 스냅샷 파일
+ *
+ * magic(int) version(int) modifiedWatermark(long, epoch millis) changeLogWatermark(long)
+ * memberCount(int) ids(long[n]) ages(int[n]) teamIds(long[n]) idOrder(int[n])
+ * slotCount(int) slotKeys(long[s]) slotRows(int[s])
+ * usernames(string[n])
+ * teamCount(int) teamKeys(long[t]) teamNames(string[t])
+ * string = length(int, null 이면 -1) + UTF-8 bytes
+ *
+ * 스냅샷의 컬럼 배열(정렬 순서, id 순서, id 해시 테이블 포함)을 그대로 저장하므로 읽을 때는 배열 단위 복사와
+ * 문자열 디코딩만 하고 정렬이나 해시 재구성을 하지 않는다. (String 컬럼 때문에 파일을 매핑한 채 쓰지는 않는다)
+ * 읽기는 파일을 SEGMENT_SIZE 단위로 매핑(FileChannel.map)해 힙으로 한 번에 읽어 들이지 않으며, 2GB 를 넘는 파일도 읽는다.
+ * 쓰기는 고정 크기 버퍼를 채워 가며 내보내므로 파일 크기만큼 힙을 잡지 않는다.
+ * 매핑은 읽기가 끝나면 참조가 사라져 GC 때 해제된다.
+ * 임시 파일에 쓴 뒤 이동하므로 읽는 쪽이 쓰다 만 파일을 보지 않는다.
+ */
+public final class MemberIndexSnapshotFile {
+
+    private static final int MAGIC = 0x4D494458; // "MIDX"
+    private static final int VERSION = 2;
+
+    /**
+     * 한 번에 매핑하는 구간 크기
+     */
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+
+    private MemberIndexSnapshotFile() {
+    }
+
+    public static void write(Path file, MemberIndexSnapshot snapshot, long modifiedWatermark, long changeLogWatermark) throws IOException {
+        int size = snapshot.size();
+        int slots = snapshot.slotCount();
+
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putLong(modifiedWatermark);
+            out.putLong(changeLogWatermark);
+            out.putInt(size);
+            for (int row = 0; row < size; row++) {
+                out.putLong(snapshot.getId(row));
+            }
+            for (int row = 0; row < size; row++) {
+                out.putInt(snapshot.getAge(row));
+            }
+            for (int row = 0; row < size; row++) {
+                out.putLong(snapshot.getTeamId(row));
+            }
+            for (int i = 0; i < size; i++) {
+                out.putInt(snapshot.idOrderAt(i));
+            }
+            out.putInt(slots);
+            for (int slot = 0; slot < slots; slot++) {
+                out.putLong(snapshot.slotKeyAt(slot));
+            }
+            for (int slot = 0; slot < slots; slot++) {
+                out.putInt(snapshot.slotRowAt(slot));
+            }
+            for (int row = 0; row < size; row++) {
+                out.putString(snapshot.getUsername(row));
+            }
+            int teamCount = snapshot.teamCount();
+            out.putInt(teamCount);
+            for (int i = 0; i < teamCount; i++) {
+                out.putLong(snapshot.teamKeyAt(i));
+            }
+            for (int i = 0; i < teamCount; i++) {
+                out.putString(snapshot.teamNameAt(i));
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Loaded read(Path file) throws IOException {
+        return read(file, SEGMENT_SIZE);
+    }
+
+    /**
+     * @param segmentSize 한 번에 매핑하는 구간 크기 (테스트에서 구간 경계를 넘는 읽기를 확인할 때 작게 준다)
+     */
+    static Loaded read(Path file, int segmentSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Input in = new Input(channel, segmentSize);
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("not a member index snapshot: " + file);
+            }
+            long modifiedWatermark = in.getLong();
+            long changeLogWatermark = in.getLong();
+
+            int size = in.getInt();
+            long[] ids = in.getLongs(size);
+            int[] ages = in.getInts(size);
+            long[] teamIds = in.getLongs(size);
+            int[] idOrder = in.getInts(size);
+            int slots = in.getInt();
+            long[] slotKeys = in.getLongs(slots);
+            int[] slotRows = in.getInts(slots);
+            String[] usernames = new String[size];
+            for (int row = 0; row < size; row++) {
+                usernames[row] = in.getString();
+            }
+            int teamCount = in.getInt();
+            long[] teamKeys = in.getLongs(teamCount);
+            String[] teamNames = new String[teamCount];
+            for (int i = 0; i < teamCount; i++) {
+                teamNames[i] = in.getString();
+            }
+            MemberIndexSnapshot snapshot = new MemberIndexSnapshot(ids, usernames, ages, teamIds, idOrder,
+                    slotKeys, slotRows, teamKeys, teamNames);
+            return new Loaded(snapshot, modifiedWatermark, changeLogWatermark);
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("truncated member index snapshot: " + file, e);
+        }
+    }
+
+    /**
+     * 파일을 segmentSize 단위로 매핑해 가며 읽는다.
+     * 남은 매핑보다 긴 값을 읽어야 하면 현재 위치부터 다시 매핑한다.
+     */
+    private static class Input {
+
+        private final FileChannel channel;
+        private final long fileSize;
+        private final int segmentSize;
+        private MappedByteBuffer segment;
+        private long segmentStart;
+
+        Input(FileChannel channel, int segmentSize) throws IOException {
+            this.channel = channel;
+            this.fileSize = channel.size();
+            this.segmentSize = segmentSize;
+            map(0, 0);
+        }
+
+        int getInt() throws IOException {
+            ensure(Integer.BYTES);
+            return segment.getInt();
+        }
+
+        long getLong() throws IOException {
+            ensure(Long.BYTES);
+            return segment.getLong();
+        }
+
+        long[] getLongs(int count) throws IOException {
+            long[] values = new long[count];
+            int done = 0;
+            while (done < count) {
+                ensure(Long.BYTES);
+                int n = Math.min(count - done, segment.remaining() / Long.BYTES);
+                segment.asLongBuffer().get(values, done, n);
+                segment.position(segment.position() + n * Long.BYTES);
+                done += n;
+            }
+            return values;
+        }
+
+        int[] getInts(int count) throws IOException {
+            int[] values = new int[count];
+            int done = 0;
+            while (done < count) {
+                ensure(Integer.BYTES);
+                int n = Math.min(count - done, segment.remaining() / Integer.BYTES);
+                segment.asIntBuffer().get(values, done, n);
+                segment.position(segment.position() + n * Integer.BYTES);
+                done += n;
+            }
+            return values;
+        }
+
+        String getString() throws IOException {
+            int length = getInt();
+            if (length < 0) {
+                return null;
+            }
+            ensure(length);
+            byte[] value = new byte[length];
+            segment.get(value);
+            return new String(value, StandardCharsets.UTF_8);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (segment.remaining() < bytes) {
+                map(segmentStart + segment.position(), bytes);
+            }
+        }
+
+        private void map(long position, int minimum) throws IOException {
+            long length = Math.min(Math.max(segmentSize, minimum), fileSize - position);
+            if (length < minimum) {
+                throw new BufferUnderflowException();
+            }
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            segmentStart = position;
+        }
+    }
+
+    /**
+     * 고정 크기 버퍼가 차면 채널로 내보낸다.
+     */
+    private static class Output {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putString(String value) throws IOException {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                writeFully(ByteBuffer.wrap(bytes));
+                return;
+            }
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void writeFully(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+    public static class Loaded {
+
+        private final MemberIndexSnapshot snapshot;
+        private final long modifiedWatermark;
+        private final long changeLogWatermark;
+    }
+}
@@ -0,0 +1,242 @@
+package study.datajpa.memoryindex;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import study.datajpa.domain.ChangeLog;
+import study.datajpa.domain.ChangeType;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.repository.ChangeLogRepository;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 자주 조회되는 findByUsername, findByUsernameAndAgeGreaterThan, findTop3HelloBy 와 팀 이름 조회를 위한 프로세스 내 읽기 인덱스
+ * (MemberLookupRepository, MemberSearchRepository 가 사용한다)
+ * 거의 변하지 않는 회원 데이터를 전제로 하며, 주기적으로 lastModifiedDate 이후 변경분(삭제와 Team 변경은 change_log)만 읽어 새 스냅샷으로 교체한다.
+ * 두 변경분 모두 같은 시간 워터마크에서 overlap 만큼 겹쳐 읽는다. change_log id 는 커밋 순서가 아니어서
+ * 늦게 커밋된 작은 id 를 id 워터마크로는 놓치기 때문이다. (겹쳐 읽은 변경은 다시 적용해도 결과가 같다)
+ * 조회는 snapshot() 으로 얻은 불변 스냅샷에서 수행하므로 잠금이 없다. 기본 테넌트의 회원만 담는다.
+ *
+ * snapshot-file 이 설정되면 주기적으로 스냅샷을 파일로 남기고, 재기동 시 DB 전체 적재 대신 파일의 컬럼을 그대로 읽어 바로 서비스한 뒤
+ * 파일에 기록된 워터마크 이후의 변경분만 DB 에서 따라잡는다.
+ *
+ * 주의: JPQL 벌크 연산(bulkAgePlus)은 lastModifiedDate 를 갱신하지 않으므로 full-refresh-interval 마다 전체를 다시 적재한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "member-index.enabled", havingValue = "true")
+public class MemberReadIndex {
+
+    private static final int LOAD_CHUNK_SIZE = 10_000;
+    private static final int CHANGE_BATCH_SIZE = 1_000;
+
+    private final MemberRepository memberRepository;
+    private final TeamRepository teamRepository;
+    private final ChangeLogRepository changeLogRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long overlapSeconds;
+    private final long fullRefreshMillis;
+    private final Path snapshotFile;
+
+    private volatile MemberIndexSnapshot snapshot = MemberIndexSnapshot.EMPTY;
+    private LocalDateTime modifiedWatermark;
+    private long changeLogWatermark;
+    private long lastFullRefresh;
+
+    public MemberReadIndex(MemberRepository memberRepository,
+                           TeamRepository teamRepository,
+                           ChangeLogRepository changeLogRepository,
+                           PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${member-index.overlap-seconds:5}") long overlapSeconds,
+                           @Value("${member-index.full-refresh-interval-ms:600000}") long fullRefreshMillis,
+                           @Value("${member-index.snapshot-file:}") String snapshotFile) {
+        this.memberRepository = memberRepository;
+        this.teamRepository = teamRepository;
+        this.changeLogRepository = changeLogRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.eventPublisher = eventPublisher;
+        this.overlapSeconds = overlapSeconds;
+        this.fullRefreshMillis = fullRefreshMillis;
+        this.snapshotFile = StringUtils.hasText(snapshotFile) ? Paths.get(snapshotFile) : null;
+    }
+
+    public MemberIndexSnapshot snapshot() {
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (snapshotFile != null && Files.isReadable(snapshotFile)) {
+            try {
+                long start = System.currentTimeMillis();
+                MemberIndexSnapshotFile.Loaded loaded = MemberIndexSnapshotFile.read(snapshotFile);
+                if (loaded.getChangeLogWatermark() > changeLogRepository.findLatestId()) {
+                    // 파일 이후에 DB 가 새로 만들어졌다. (ddl-auto: create 등)
+                    throw new IllegalStateException("snapshot is newer than the database");
+                }
+                publish(loaded.getSnapshot());
+                modifiedWatermark = toLocalDateTime(loaded.getModifiedWatermark());
+                changeLogWatermark = loaded.getChangeLogWatermark();
+                lastFullRefresh = System.currentTimeMillis();
+                log.info("member index mapped from {}: rows={}, elapsed={}ms",
+                        snapshotFile, snapshot.size(), lastFullRefresh - start);
+
+                refresh();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("member index snapshot unusable, loading from database: {}", snapshotFile, e);
+            }
+        }
+        fullRefresh();
+    }
+
+    public synchronized void fullRefresh() {
+        long start = System.currentTimeMillis();
+        LocalDateTime watermark = LocalDateTime.now().minusSeconds(overlapSeconds);
+        long changeLogId = changeLogRepository.findLatestId();
+
+        List<MemberIndexRow> rows = new ArrayList<>();
+        long afterId = 0;
+        List<MemberIndexRow> chunk;
+        do {
+            long from = afterId;
+            chunk = readOnlyTx.execute(status -> memberRepository.findIndexRowChunk(from, PageRequest.of(0, LOAD_CHUNK_SIZE)));
+            rows.addAll(chunk);
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == LOAD_CHUNK_SIZE);
+
+        Map<Long, String> teams = new HashMap<>();
+        for (TeamIndexRow team : readOnlyTx.execute(status -> teamRepository.findIndexRows())) {
+            teams.put(team.getId(), team.getName());
+        }
+
+        publish(MemberIndexSnapshot.of(rows, teams));
+        modifiedWatermark = watermark;
+        changeLogWatermark = changeLogId;
+        lastFullRefresh = System.currentTimeMillis();
+        log.info("member index loaded: rows={}, teams={}, elapsed={}ms", rows.size(), teams.size(), lastFullRefresh - start);
+    }
+
+    @Scheduled(fixedDelayString = "${member-index.refresh-interval-ms:5000}")
+    public synchronized void refresh() {
+        if (modifiedWatermark == null || System.currentTimeMillis() - lastFullRefresh >= fullRefreshMillis) {
+            fullRefresh();
+            return;
+        }
+
+        // 커밋이 늦게 된 트랜잭션을 놓치지 않도록 overlap 만큼 겹쳐 읽는다. (upsert 이므로 중복은 무해)
+        LocalDateTime since = modifiedWatermark;
+        LocalDateTime nextWatermark = LocalDateTime.now().minusSeconds(overlapSeconds);
+        List<MemberIndexRow> modified = readOnlyTx.execute(status -> memberRepository.findIndexRowsModifiedSince(since));
+
+        Map<Long, MemberIndexRow> changed = new LinkedHashMap<>();
+        for (MemberIndexRow row : modified) {
+            changed.put(row.getId(), row);
+        }
+
+        Set<Long> deleted = new HashSet<>();
+        Set<Long> changedTeamIds = new HashSet<>();
+        Set<Long> deletedTeams = new HashSet<>();
+        List<ChangeLog> changes;
+        long afterId = 0;
+        do {
+            long after = afterId;
+            changes = readOnlyTx.execute(status -> changeLogRepository.findByChangedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+                    since, after, PageRequest.of(0, CHANGE_BATCH_SIZE)));
+            for (ChangeLog change : changes) {
+                if (Member.class.getSimpleName().equals(change.getEntityName()) && change.getChangeType() == ChangeType.DELETE) {
+                    deleted.add(Long.valueOf(change.getEntityId()));
+                } else if (Team.class.getSimpleName().equals(change.getEntityName())) {
+                    Long teamId = Long.valueOf(change.getEntityId());
+                    if (change.getChangeType() == ChangeType.DELETE) {
+                        deletedTeams.add(teamId);
+                        changedTeamIds.remove(teamId);
+                    } else {
+                        changedTeamIds.add(teamId);
+                        deletedTeams.remove(teamId);
+                    }
+                }
+            }
+            if (!changes.isEmpty()) {
+                afterId = changes.get(changes.size() - 1).getId();
+                // 스냅샷 파일이 DB 보다 새것인지 확인하는 데만 쓴다.
+                changeLogWatermark = Math.max(changeLogWatermark, afterId);
+            }
+        } while (changes.size() == CHANGE_BATCH_SIZE);
+
+        Map<Long, String> changedTeams = new HashMap<>();
+        if (!changedTeamIds.isEmpty()) {
+            for (TeamIndexRow team : readOnlyTx.execute(status -> teamRepository.findIndexRowsByIdIn(changedTeamIds))) {
+                changedTeams.put(team.getId(), team.getName());
+            }
+        }
+
+        if (!changed.isEmpty() || !deleted.isEmpty() || !changedTeams.isEmpty() || !deletedTeams.isEmpty()) {
+            publish(snapshot.merge(changed, deleted, changedTeams, deletedTeams));
+        }
+        modifiedWatermark = nextWatermark;
+    }
+
+    private void publish(MemberIndexSnapshot next) {
+        snapshot = next;
+        eventPublisher.publishEvent(new MemberIndexRefreshedEvent(next));
+    }
+
+    /**
+     * 현재 스냅샷과 워터마크를 파일로 남긴다. 재기동 시 이 지점부터 따라잡는다.
+     */
+    @Scheduled(fixedDelayString = "${member-index.snapshot-interval-ms:60000}",
+            initialDelayString = "${member-index.snapshot-interval-ms:60000}")
+    public synchronized void writeSnapshot() {
+        if (snapshotFile == null || modifiedWatermark == null) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            MemberIndexSnapshotFile.write(snapshotFile, snapshot, toEpochMillis(modifiedWatermark), changeLogWatermark);
+            log.info("member index snapshot written to {}: rows={}, elapsed={}ms",
+                    snapshotFile, snapshot.size(), System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            log.warn("member index snapshot write failed: {}", snapshotFile, e);
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,48 @@
+package study.datajpa.memoryindex;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * MemberReadIndex 의 스냅샷이 바뀔 때마다(MemberIndexRefreshedEvent) username 검색 인덱스를 다시 만든다.
+ * 따라서 검색 결과는 다른 읽기 인덱스 조회와 같은 만큼(member-index.refresh-interval-ms)만 늦다.
+ * 재구성은 스냅샷 전체를 훑으므로, 다시 만드는 동안에는 직전 인덱스로 답한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "member-index.enabled", havingValue = "true")
+public class MemberUsernameSearch {
+
+    private final MemberReadIndex memberReadIndex;
+
+    private volatile UsernameSearchIndex index;
+
+    public MemberUsernameSearch(MemberReadIndex memberReadIndex) {
+        this.memberReadIndex = memberReadIndex;
+    }
+
+    public UsernameSearchIndex index() {
+        UsernameSearchIndex current = index;
+        if (current == null) {
+            rebuild(memberReadIndex.snapshot());
+            current = index;
+        }
+        return current;
+    }
+
+    @EventListener
+    public void onRefreshed(MemberIndexRefreshedEvent event) {
+        rebuild(event.getSnapshot());
+    }
+
+    private synchronized void rebuild(MemberIndexSnapshot snapshot) {
+        if (index != null && index.getSnapshot() == snapshot) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        index = UsernameSearchIndex.of(snapshot);
+        log.info("username search index built: rows={}, elapsed={}ms", snapshot.size(), System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,15 @@
+package study.datajpa.memoryindex;
+
+import lombok.Getter;
+
+@Getter
+public class TeamIndexRow {
+
+    private final long id;
+    private final String name;
+
+    public TeamIndexRow(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+}
@@ -0,0 +1,246 @@
+package study.datajpa.memoryindex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * MemberIndexSnapshot 한 개에 대한 username 검색 인덱스 (불변)
+ * - 자동완성/접두어: 소문자 username 순으로 정렬한 행 번호에서 이진 탐색
+ * - 부분 문자열(3자 이상): 소문자 trigram -> 행 번호 역색인의 교집합을 구한 뒤 실제 포함 여부를 확인
+ *   (3자 미만은 접두어로만 찾는다. DB 로 찾을 때도 같다)
+ * 결과는 일치 정도(완전 일치, 접두어, 단어 시작, 부분 문자열), 길이, username 순으로 정렬된다.
+ */
+public final class UsernameSearchIndex {
+
+    public static final int EXACT = 0;
+    public static final int PREFIX = 1;
+    public static final int WORD_PREFIX = 2;
+    public static final int SUBSTRING = 3;
+
+    /**
+     * 이보다 짧은 검색어는 trigram 이 없으므로 접두어로만 찾는다.
+     */
+    public static final int SHORT_QUERY_LENGTH = 3;
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final MemberIndexSnapshot snapshot;
+    private final String[] lowered;
+    /**
+     * 소문자 username 오름차순 행 번호
+     */
+    private final int[] lowerOrder;
+    /**
+     * 행 번호 -> lowerOrder 안의 위치
+     */
+    private final int[] positions;
+    private final Map<Long, int[]> postings;
+
+    private UsernameSearchIndex(MemberIndexSnapshot snapshot) {
+        this.snapshot = snapshot;
+        int size = snapshot.size();
+        this.lowered = new String[size];
+        for (int row = 0; row < size; row++) {
+            String username = snapshot.getUsername(row);
+            lowered[row] = username == null ? "" : username.toLowerCase(Locale.ROOT);
+        }
+
+        Integer[] boxed = new Integer[size];
+        for (int row = 0; row < size; row++) {
+            boxed[row] = row;
+        }
+        Arrays.sort(boxed, Comparator.comparing((Integer row) -> lowered[row]).thenComparingInt(row -> row));
+        this.lowerOrder = new int[size];
+        this.positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            lowerOrder[i] = boxed[i];
+            positions[boxed[i]] = i;
+        }
+
+        // 두 번 훑는다: trigram 별 행 수를 세어 배열을 한 번에 할당하고, 행 번호 순으로 채운다.
+        Map<Long, int[]> counts = new HashMap<>();
+        for (int row = 0; row < size; row++) {
+            for (long trigram : trigrams(lowered[row])) {
+                counts.computeIfAbsent(trigram, t -> new int[1])[0]++;
+            }
+        }
+        this.postings = new HashMap<>(counts.size() * 2);
+        Map<Long, int[]> fill = new HashMap<>(counts.size() * 2);
+        counts.forEach((trigram, count) -> {
+            postings.put(trigram, new int[count[0]]);
+            fill.put(trigram, new int[1]);
+        });
+        for (int row = 0; row < size; row++) {
+            for (long trigram : trigrams(lowered[row])) {
+                postings.get(trigram)[fill.get(trigram)[0]++] = row;
+            }
+        }
+    }
+
+    public static UsernameSearchIndex of(MemberIndexSnapshot snapshot) {
+        return new UsernameSearchIndex(snapshot);
+    }
+
+    public MemberIndexSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return 일치 정도 순으로 정렬된 행 번호 전체 (페이징은 호출자가 한다)
+     */
+    public int[] search(String query) {
+        String q = query.toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) {
+            return NO_ROWS;
+        }
+        int[] candidates = q.length() < SHORT_QUERY_LENGTH ? prefixRows(q) : substringCandidates(q);
+
+        int count = 0;
+        long[] keyed = new long[candidates.length];
+        for (int row : candidates) {
+            int rank = rank(lowered[row], q);
+            if (rank >= 0) {
+                // 정렬 키: 일치 정도(상위) + 길이 + 소문자 순서 위치
+                long length = Math.min(lowered[row].length(), 0xFFFF);
+                keyed[count++] = ((long) rank << 60) | (length << 40) | positions[row];
+            }
+        }
+        Arrays.sort(keyed, 0, count);
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = lowerOrder[(int) (keyed[i] & 0xFF_FFFF_FFFFL)];
+        }
+        return rows;
+    }
+
+    /**
+     * @return prefix 로 시작하는 username (중복 제거, 소문자 순) 최대 limit 개
+     */
+    public List<String> autocomplete(String prefix, int limit) {
+        String p = prefix.toLowerCase(Locale.ROOT);
+        List<String> result = new ArrayList<>(Math.min(limit, 16));
+        String previous = null;
+        for (int i = lowerBound(p); i < lowerOrder.length && result.size() < limit; i++) {
+            int row = lowerOrder[i];
+            if (!lowered[row].startsWith(p)) {
+                break;
+            }
+            String username = snapshot.getUsername(row);
+            if (username != null && !username.equals(previous)) {
+                result.add(username);
+                previous = username;
+            }
+        }
+        return result;
+    }
+
+    private int[] prefixRows(String prefix) {
+        int from = lowerBound(prefix);
+        int to = from;
+        while (to < lowerOrder.length && lowered[lowerOrder[to]].startsWith(prefix)) {
+            to++;
+        }
+        int[] rows = new int[to - from];
+        System.arraycopy(lowerOrder, from, rows, 0, rows.length);
+        return rows;
+    }
+
+    private int[] substringCandidates(String q) {
+        long[] grams = trigrams(q);
+        int[][] lists = new int[grams.length][];
+        for (int i = 0; i < grams.length; i++) {
+            int[] list = postings.get(grams[i]);
+            if (list == null) {
+                return NO_ROWS;
+            }
+            lists[i] = list;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+        int[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i]);
+        }
+        return result;
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = lowerOrder.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (lowered[lowerOrder[mid]].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @return 일치 정도, 포함하지 않으면 -1
+     */
+    static int rank(String username, String q) {
+        if (username.equals(q)) {
+            return EXACT;
+        }
+        if (username.startsWith(q)) {
+            return PREFIX;
+        }
+        int index = username.indexOf(q);
+        if (index < 0) {
+            return -1;
+        }
+        for (; index > 0; index = username.indexOf(q, index + 1)) {
+            if (!Character.isLetterOrDigit(username.charAt(index - 1))) {
+                return WORD_PREFIX;
+            }
+        }
+        return SUBSTRING;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * @return 중복 없는 trigram (문자 3개를 16비트씩 묶은 값)
+     */
+    private static long[] trigrams(String s) {
+        if (s.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[s.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int n = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[n++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, n);
+    }
+}
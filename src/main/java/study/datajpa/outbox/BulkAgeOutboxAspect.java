@@ -0,0 +1,60 @@
+package study.datajpa.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.OutboxEvent;
+import study.datajpa.domain.OutboxEventType;
+import study.datajpa.tenant.TenantFilters;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * 벌크 연산은 엔티티 이벤트가 발생하지 않으므로 bulkAgePlus 호출 자체를 이벤트로 기록한다.
+ * 호출자 트랜잭션이 있으면 참여하고, 없으면 새 트랜잭션에서 업데이트와 아웃박스 기록을 함께 커밋한다.
+ * TeamStatsBulkAspect 보다 바깥에서 돌아, 통계 갱신까지 이 트랜잭션에 묶는다.
+ */
+@Aspect
+@Component
+@Order(BulkAgeOutboxAspect.ORDER)
+@RequiredArgsConstructor
+public class BulkAgeOutboxAspect {
+
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 2;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Around("execution(int study.datajpa.repository.MemberRepository.bulkAgePlus(int))" +
+            " || execution(int study.datajpa.repository.MemberJpaRepository.bulkAgePlus(int))")
+    public Object recordBulkAge(ProceedingJoinPoint joinPoint) {
+        int age = (int) joinPoint.getArgs()[0];
+        return transactionTemplate.execute(status -> {
+            int updated = proceed(joinPoint);
+            String payload = String.format("{\"minAge\":%d,\"updated\":%d,\"tenant\":\"%s\"}",
+                    age, updated, TenantFilters.currentOrDefault());
+            em.persist(new OutboxEvent(Member.class.getSimpleName(), null, OutboxEventType.MEMBER_BULK_AGED, payload));
+            return updated;
+        });
+    }
+
+    private static int proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return (int) joinPoint.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // bulkAgePlus 는 checked 예외를 선언하지 않는다.
+            throw new IllegalStateException(e);
+        }
+    }
+}
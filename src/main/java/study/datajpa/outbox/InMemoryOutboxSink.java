@@ -0,0 +1,24 @@
+package study.datajpa.outbox;
+
+import study.datajpa.domain.OutboxEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 테스트용 전달 대상
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> delivered = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        delivered.addAll(events);
+    }
+
+    public List<OutboxEvent> getDelivered() {
+        return new ArrayList<>(delivered);
+    }
+}
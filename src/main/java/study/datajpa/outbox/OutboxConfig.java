@@ -0,0 +1,21 @@
+package study.datajpa.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * outbox.sink.file 을 지정했을 때만 파일로 전달한다. 브로커 연동은 OutboxSink 빈을 따로 등록한다.
+ */
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "outbox.sink.file")
+    public OutboxSink outboxSink(@Value("${outbox.sink.file}") String file) {
+        return new FileOutboxSink(Paths.get(file));
+    }
+}
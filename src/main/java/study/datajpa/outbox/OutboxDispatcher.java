@@ -0,0 +1,63 @@
+package study.datajpa.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.domain.OutboxEvent;
+import study.datajpa.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    /**
+     * outbox.sink.file 이나 OutboxSink 빈이 없으면 폴링하지 않으므로(OutboxScheduler) 호출 시점에 찾는다.
+     */
+    private final ObjectProvider<OutboxSink> outboxSink;
+    private final OutboxMetrics outboxMetrics;
+
+    @Value("${outbox.dispatch.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * 미전달 이벤트를 batchSize 만큼 잠그고(SKIP LOCKED) 전달한 뒤 전달 시각을 기록한다.
+     * 전달에 실패하면 트랜잭션이 롤백되어 잠금이 풀리고 다음 폴링에서 다시 시도한다.
+     */
+    @Transactional
+    public int dispatchBatch() {
+        List<OutboxEvent> events = outboxEventRepository.findPendingForDispatch(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        outboxSink.getObject().deliver(events);
+        long elapsed = System.nanoTime() - start;
+
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent event : events) {
+            event.markDispatched(now);
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxMetrics.record(events, now, elapsed);
+            }
+        });
+        return events.size();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+}
@@ -0,0 +1,97 @@
+package study.datajpa.outbox;
+
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.OutboxEventType;
+import study.datajpa.domain.Team;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Member 저장과 Member.changeTeam 을 flush 시점에 감지하여 outbox_event 에 기록한다.
+ * 엔티티 쓰기와 같은 커넥션을 사용하므로 롤백되면 이벤트도 함께 사라진다.
+ */
+public class OutboxEventListener implements PostInsertEventListener, PostUpdateEventListener {
+
+    private static final String INSERT_SQL =
+            "insert into outbox_event (aggregate_type, aggregate_id, event_type, payload, created_at) values (?, ?, ?, ?, ?)";
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        Member member = (Member) event.getEntity();
+        String payload = String.format("{\"memberId\":%d,\"username\":%s,\"age\":%d,\"teamId\":%s}",
+                member.getId(), quote(member.getUsername()), member.getAge(), teamId(member.getTeam()));
+        write(event.getSession(), member.getId(), OutboxEventType.MEMBER_CREATED, payload);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        Member member = (Member) event.getEntity();
+        int teamIndex = event.getPersister().getEntityMetamodel().getPropertyIndex("team");
+        Long fromTeamId = event.getOldState() == null ? null : teamId((Team) event.getOldState()[teamIndex]);
+        Long toTeamId = teamId((Team) event.getState()[teamIndex]);
+
+        if (event.getOldState() != null && !Objects.equals(fromTeamId, toTeamId)) {
+            String payload = String.format("{\"memberId\":%d,\"fromTeamId\":%s,\"toTeamId\":%s}",
+                    member.getId(), fromTeamId, toTeamId);
+            write(event.getSession(), member.getId(), OutboxEventType.MEMBER_TEAM_CHANGED, payload);
+        } else {
+            String payload = String.format("{\"memberId\":%d,\"username\":%s,\"age\":%d}",
+                    member.getId(), quote(member.getUsername()), member.getAge());
+            write(event.getSession(), member.getId(), OutboxEventType.MEMBER_UPDATED, payload);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void write(EventSource session, Long memberId, OutboxEventType eventType, String payload) {
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+                ps.setString(1, Member.class.getSimpleName());
+                ps.setString(2, String.valueOf(memberId));
+                ps.setString(3, eventType.name());
+                ps.setString(4, payload);
+                ps.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+                ps.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * 프록시를 초기화하지 않고 식별자만 꺼낸다.
+     */
+    private static Long teamId(Team team) {
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return team.getId();
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
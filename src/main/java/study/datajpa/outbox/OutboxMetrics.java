@@ -0,0 +1,62 @@
+package study.datajpa.outbox;
+
+import org.springframework.stereotype.Component;
+import study.datajpa.domain.OutboxEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 처리량(events/sec)과 지연(생성 ~ 전달) 지표
+ */
+@Component
+public class OutboxMetrics {
+
+    private final long startedAt = System.nanoTime();
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private final AtomicLong sinkNanos = new AtomicLong();
+
+    public void record(List<OutboxEvent> events, LocalDateTime dispatchedAt, long sinkElapsedNanos) {
+        long oldestLag = events.stream()
+                .mapToLong(e -> Duration.between(e.getCreatedAt(), dispatchedAt).toMillis())
+                .max()
+                .orElse(0);
+
+        dispatched.addAndGet(events.size());
+        batches.incrementAndGet();
+        sinkNanos.addAndGet(sinkElapsedNanos);
+        lastLagMillis.set(oldestLag);
+        maxLagMillis.accumulateAndGet(oldestLag, Math::max);
+    }
+
+    public long getDispatched() {
+        return dispatched.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getLastLagMillis() {
+        return lastLagMillis.get();
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis.get();
+    }
+
+    public double getThroughputPerSecond() {
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        return seconds <= 0 ? 0 : dispatched.get() / seconds;
+    }
+
+    public double getAverageSinkMillis() {
+        long count = batches.get();
+        return count == 0 ? 0 : sinkNanos.get() / 1_000_000.0 / count;
+    }
+}
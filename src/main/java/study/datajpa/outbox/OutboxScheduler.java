@@ -0,0 +1,27 @@
+package study.datajpa.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "outbox.dispatch.enabled", havingValue = "true")
+public class OutboxScheduler {
+
+    private final OutboxDispatcher outboxDispatcher;
+    /**
+     * 전달 대상 없이 폴링을 켜면 기동 시 실패하도록 직접 받는다.
+     */
+    private final OutboxSink outboxSink;
+
+    @Scheduled(fixedDelayString = "${outbox.dispatch.interval-ms:1000}")
+    public void dispatch() {
+        // 배치가 꽉 차서 돌아오면 밀린 이벤트가 있는 것이므로 대기 없이 이어서 가져간다.
+        int dispatched;
+        do {
+            dispatched = outboxDispatcher.dispatchBatch();
+        } while (dispatched >= outboxDispatcher.getBatchSize());
+    }
+}
@@ -0,0 +1,14 @@
+package study.datajpa.outbox;
+
+import study.datajpa.domain.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * 아웃박스 이벤트의 전달 대상 (메시지 브로커, 파일, 메모리 등)
+ * 예외를 던지면 배치 전체가 롤백되어 다음 폴링에서 다시 전달된다. (at-least-once)
+ */
+public interface OutboxSink {
+
+    void deliver(List<OutboxEvent> events);
+}
@@ -0,0 +1,15 @@
+package study.datajpa.persistencecontext;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 대량 저장 메서드에 붙인다. 실행 중에는 관리 엔티티 수가 persistence-context.max-managed-entities 를 넘으면
+ * persist/merge 직후에 flush + clear 한다. 그 전에 저장한 엔티티는 준영속이 되므로 다시 수정해도 반영되지 않는다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BatchMode {
+}
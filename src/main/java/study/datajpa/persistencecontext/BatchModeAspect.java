@@ -0,0 +1,21 @@
+package study.datajpa.persistencecontext;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+public class BatchModeAspect {
+
+    @Around("@annotation(study.datajpa.persistencecontext.BatchMode)")
+    public Object batchMode(ProceedingJoinPoint joinPoint) throws Throwable {
+        BatchModeHolder.enter();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            BatchModeHolder.exit();
+        }
+    }
+}
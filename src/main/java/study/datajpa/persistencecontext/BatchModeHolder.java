@@ -0,0 +1,40 @@
+package study.datajpa.persistencecontext;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드가 BatchMode 안에서 실행 중인지 기록한다. (중첩 가능)
+ */
+public final class BatchModeHolder {
+
+    private static final ThreadLocal<Integer> DEPTH = ThreadLocal.withInitial(() -> 0);
+
+    private BatchModeHolder() {
+    }
+
+    public static boolean isActive() {
+        return DEPTH.get() > 0;
+    }
+
+    public static <T> T run(Supplier<T> work) {
+        enter();
+        try {
+            return work.get();
+        } finally {
+            exit();
+        }
+    }
+
+    static void enter() {
+        DEPTH.set(DEPTH.get() + 1);
+    }
+
+    static void exit() {
+        int depth = DEPTH.get() - 1;
+        if (depth == 0) {
+            DEPTH.remove();
+        } else {
+            DEPTH.set(depth);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package study.datajpa.persistencecontext;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.FlushEntityEvent;
+import org.hibernate.event.spi.FlushEntityEventListener;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.MergeEvent;
+import org.hibernate.event.spi.MergeEventListener;
+import org.hibernate.event.spi.PersistEvent;
+import org.hibernate.event.spi.PersistEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+import java.util.Map;
+
+/**
+ * 영속성 컨텍스트의 관리 엔티티 수를 감시한다.
+ * 기준을 넘으면 BatchMode 안에서는 최상위 persist/merge 가 끝난 직후 flush + clear 하고, 그 밖에서는 경고만 남긴다.
+ * 조회(post-load) 중에는 결과를 읽는 도중일 수 있으므로 비우지 않는다.
+ */
+@Slf4j
+public class PersistenceContextGuard implements PersistEventListener, MergeEventListener, PostLoadEventListener,
+        FlushEventListener, AutoFlushEventListener {
+
+    private final PersistenceContextMetrics metrics;
+    private final int maxManagedEntities;
+    private final boolean batchClear;
+
+    public PersistenceContextGuard(PersistenceContextMetrics metrics, int maxManagedEntities, boolean batchClear) {
+        this.metrics = metrics;
+        this.maxManagedEntities = maxManagedEntities;
+        this.batchClear = batchClear;
+    }
+
+    @Override
+    public void onPersist(PersistEvent event) throws HibernateException {
+        check(event.getSession(), true);
+    }
+
+    @Override
+    public void onPersist(PersistEvent event, Map createdAlready) throws HibernateException {
+        // 연쇄 저장 중에는 비우지 않는다.
+    }
+
+    @Override
+    public void onMerge(MergeEvent event) throws HibernateException {
+        check(event.getSession(), true);
+    }
+
+    @Override
+    public void onMerge(MergeEvent event, Map copiedAlready) throws HibernateException {
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        check(event.getSession(), false);
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) throws HibernateException {
+        metrics.recordFlush(event.getNumberOfEntitiesProcessed());
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) throws HibernateException {
+        if (event.isFlushRequired()) {
+            metrics.recordFlush(event.getNumberOfEntitiesProcessed());
+        }
+    }
+
+    private void check(SessionImplementor session, boolean clearable) {
+        PersistenceContext persistenceContext = session.getPersistenceContext();
+        int managed = persistenceContext.getNumberOfManagedEntities();
+        metrics.recordManaged(managed);
+        if (managed <= maxManagedEntities) {
+            return;
+        }
+        if (clearable && batchClear && BatchModeHolder.isActive() && persistenceContext.getCascadeLevel() == 0) {
+            session.flush();
+            session.clear();
+            metrics.recordAutoClear();
+            return;
+        }
+        // 기준을 처음 넘었을 때만 남긴다.
+        if (managed == maxManagedEntities + 1) {
+            metrics.recordWarning();
+            log.warn("persistence context holds more than {} managed entities; flush cost grows with every entity" +
+                    " (use @BatchMode or flush/clear periodically)", maxManagedEntities);
+        }
+    }
+
+    /**
+     * flush 때 엔티티마다 실행되는 dirty check 시간을 잰다. 기본 리스너 앞에 Start, 뒤에 End 를 등록한다.
+     */
+    public static class DirtyCheckTimer {
+
+        private static final ThreadLocal<Long> STARTED = new ThreadLocal<>();
+
+        private final PersistenceContextMetrics metrics;
+
+        public DirtyCheckTimer(PersistenceContextMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        public FlushEntityEventListener start() {
+            return event -> STARTED.set(System.nanoTime());
+        }
+
+        public FlushEntityEventListener end() {
+            return event -> {
+                Long started = STARTED.get();
+                if (started != null) {
+                    metrics.recordDirtyCheck(System.nanoTime() - started);
+                    STARTED.remove();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package study.datajpa.persistencecontext;
+
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.PersistenceContextStats;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class PersistenceContextMetrics {
+
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushedEntities = new LongAdder();
+    private final LongAdder dirtyChecks = new LongAdder();
+    private final LongAdder dirtyCheckNanos = new LongAdder();
+    private final LongAccumulator maxManagedEntities = new LongAccumulator(Math::max, 0);
+    private final LongAdder autoClears = new LongAdder();
+    private final LongAdder warnings = new LongAdder();
+
+    void recordFlush(int entities) {
+        flushes.increment();
+        flushedEntities.add(entities);
+    }
+
+    void recordDirtyCheck(long nanos) {
+        dirtyChecks.increment();
+        dirtyCheckNanos.add(nanos);
+    }
+
+    void recordManaged(int managed) {
+        maxManagedEntities.accumulate(managed);
+    }
+
+    void recordAutoClear() {
+        autoClears.increment();
+    }
+
+    void recordWarning() {
+        warnings.increment();
+    }
+
+    public PersistenceContextStats snapshot() {
+        long flushCount = flushes.sum();
+        long checks = dirtyChecks.sum();
+        long nanos = dirtyCheckNanos.sum();
+
+        PersistenceContextStats stats = new PersistenceContextStats();
+        stats.setFlushes(flushCount);
+        stats.setAvgEntitiesPerFlush(flushCount == 0 ? 0 : flushedEntities.sum() / (double) flushCount);
+        stats.setDirtyChecks(checks);
+        stats.setDirtyCheckMillis(nanos / 1_000_000.0);
+        stats.setAvgDirtyCheckMillisPerFlush(flushCount == 0 ? 0 : nanos / 1_000_000.0 / flushCount);
+        stats.setMaxManagedEntities(maxManagedEntities.get());
+        stats.setAutoClears(autoClears.sum());
+        stats.setWarnings(warnings.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,35 @@
+package study.datajpa.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 리포지토리 호출/컨트롤러 요청 한 건의 할당량과 CPU 시간
+ * JFR 녹화 중에만 기록된다. (jcmd <pid> JFR.start ...)
+ */
+@Name("study.datajpa.Allocation")
+@Label("Repository/Controller Allocation")
+@Category({"Data JPA", "Profiling"})
+@Description("Bytes allocated and CPU time spent by the current thread during one repository call or controller request")
+@StackTrace(false)
+class AllocationEvent extends jdk.jfr.Event {
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Method")
+    String method;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    @Label("CPU Time")
+    @Timespan
+    long cpuNanos;
+}
@@ -0,0 +1,117 @@
+package study.datajpa.profiling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.AllocationStats;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 현재 스레드의 할당 바이트(com.sun.management.ThreadMXBean)와 CPU 시간을 호출 전후로 재서 메서드별로 누적한다.
+ * 같은 스레드에서 일어난 할당만 잡히므로, 다른 스레드로 넘긴 작업(스트리밍 응답, 병렬 적재)은 포함되지 않는다.
+ * 중첩 호출(컨트롤러 -> 리포지토리)은 각각 자기 하위 호출을 포함한 값으로 기록된다.
+ */
+@Slf4j
+@Component
+public class AllocationProfiler {
+
+    public static final String REPOSITORY = "repository";
+    public static final String CONTROLLER = "controller";
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final com.sun.management.ThreadMXBean allocations;
+    private final boolean cpuTimeSupported;
+    private final Map<String, MethodAllocationStats> stats = new ConcurrentHashMap<>();
+
+    public AllocationProfiler() {
+        com.sun.management.ThreadMXBean allocations = null;
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            allocations = (com.sun.management.ThreadMXBean) threads;
+            if (allocations.isThreadAllocatedMemorySupported()) {
+                allocations.setThreadAllocatedMemoryEnabled(true);
+            } else {
+                allocations = null;
+            }
+        }
+        if (allocations == null) {
+            log.warn("thread allocated memory is not supported by this JVM, allocated bytes will be reported as 0");
+        }
+        this.allocations = allocations;
+
+        boolean cpuTimeSupported = threads.isCurrentThreadCpuTimeSupported();
+        if (cpuTimeSupported && !threads.isThreadCpuTimeEnabled()) {
+            threads.setThreadCpuTimeEnabled(true);
+        }
+        this.cpuTimeSupported = cpuTimeSupported;
+    }
+
+    /**
+     * 현재 스레드가 지금까지 할당한 바이트
+     */
+    public long allocatedBytes() {
+        return allocations == null ? 0 : allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * 현재 스레드의 CPU 시간 (ns)
+     */
+    public long cpuTime() {
+        return cpuTimeSupported ? threads.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * allocatedBytes(), cpuTime(), System.nanoTime() 으로 잰 시작값을 받아 지금까지의 차이를 기록한다.
+     */
+    public void record(String kind, String method, long allocatedStart, long cpuStart, long wallStart) {
+        long allocated = Math.max(0, allocatedBytes() - allocatedStart);
+        long cpu = Math.max(0, cpuTime() - cpuStart);
+        long wall = System.nanoTime() - wallStart;
+
+        stats.computeIfAbsent(kind + ':' + method, k -> new MethodAllocationStats(kind, method))
+                .record(allocated, cpu, wall);
+
+        AllocationEvent event = new AllocationEvent();
+        if (event.shouldCommit()) {
+            event.kind = kind;
+            event.method = method;
+            event.allocatedBytes = allocated;
+            event.cpuNanos = cpu;
+            event.commit();
+        }
+    }
+
+    /**
+     * 누적 할당량이 큰 순서
+     */
+    public List<AllocationStats> snapshot() {
+        List<AllocationStats> result = new ArrayList<>(stats.size());
+        for (MethodAllocationStats s : stats.values()) {
+            long calls = s.getCalls().sum();
+            if (calls == 0) {
+                continue;
+            }
+            AllocationStats dto = new AllocationStats();
+            dto.setKind(s.getKind());
+            dto.setMethod(s.getMethod());
+            dto.setCalls(calls);
+            dto.setTotalAllocatedBytes(s.getAllocatedBytes().sum());
+            dto.setAvgAllocatedBytes(dto.getTotalAllocatedBytes() / calls);
+            dto.setMaxAllocatedBytes(s.getMaxAllocatedBytes().get());
+            dto.setAvgCpuMillis(s.getCpuNanos().sum() / 1_000_000.0 / calls);
+            dto.setAvgWallMillis(s.getWallNanos().sum() / 1_000_000.0 / calls);
+            result.add(dto);
+        }
+        result.sort(Comparator.comparingLong(AllocationStats::getTotalAllocatedBytes).reversed());
+        return result;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.profiling;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.RepositoryNames;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 리포지토리 호출과 컨트롤러 요청을 샘플링해서 AllocationProfiler 에 기록한다.
+ * 결과는 /stats/allocations 와 JFR 이벤트(study.datajpa.Allocation)로 확인한다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "allocation-profiler.enabled", havingValue = "true")
+public class AllocationProfilingAspect {
+
+    private final AllocationProfiler profiler;
+
+    @Value("${allocation-profiler.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Around("execution(* study.datajpa.repository..*(..))")
+    public Object repository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return profile(AllocationProfiler.REPOSITORY, joinPoint);
+    }
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object controller(ProceedingJoinPoint joinPoint) throws Throwable {
+        return profile(AllocationProfiler.CONTROLLER, joinPoint);
+    }
+
+    private Object profile(String kind, ProceedingJoinPoint joinPoint) throws Throwable {
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return joinPoint.proceed();
+        }
+        long allocatedStart = profiler.allocatedBytes();
+        long cpuStart = profiler.cpuTime();
+        long wallStart = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            profiler.record(kind, RepositoryNames.ownerName(joinPoint.getThis()) + "." + joinPoint.getSignature().getName(),
+                    allocatedStart, cpuStart, wallStart);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package study.datajpa.profiling;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 메서드 하나의 누적 할당/CPU 통계 (샘플링된 호출만)
+ */
+@Getter
+class MethodAllocationStats {
+
+    private final String kind;
+    private final String method;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAccumulator maxAllocatedBytes = new LongAccumulator(Math::max, 0);
+    private final LongAdder cpuNanos = new LongAdder();
+    private final LongAdder wallNanos = new LongAdder();
+
+    MethodAllocationStats(String kind, String method) {
+        this.kind = kind;
+        this.method = method;
+    }
+
+    void record(long allocated, long cpu, long wall) {
+        calls.increment();
+        allocatedBytes.add(allocated);
+        maxAllocatedBytes.accumulate(allocated);
+        cpuNanos.add(cpu);
+        wallNanos.add(wall);
+    }
+}
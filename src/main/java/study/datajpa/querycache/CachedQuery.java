@@ -0,0 +1,23 @@
+package study.datajpa.querycache;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 리포지토리 조회 메서드의 결과를 메서드 + 인자(Pageable 포함) 단위로 캐시한다.
+ * 캐시된 결과는 호출자끼리 공유되므로 DTO/프로젝션 조회에만 붙이고, 결과를 수정하지 않아야 한다.
+ * 읽기-쓰기 트랜잭션 안에서의 호출은 아직 flush 되지 않은 변경을 봐야 하므로 캐시를 거치지 않는다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedQuery {
+
+    long ttlSeconds() default 60;
+
+    /**
+     * 이 엔티티가 쓰이면(엔티티 이벤트, @Modifying 벌크 쿼리) 캐시된 결과를 버린다.
+     */
+    Class<?>[] invalidateOn() default {};
+}
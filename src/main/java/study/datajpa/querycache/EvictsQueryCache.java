@@ -0,0 +1,17 @@
+package study.datajpa.querycache;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 엔티티 이벤트가 발생하지 않는 쓰기(JPQL 벌크, 네이티브 쿼리)를 하는 메서드에 붙인다.
+ * Spring Data 리포지토리의 @Modifying 메서드는 붙이지 않아도 리포지토리 엔티티 타입으로 무효화된다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EvictsQueryCache {
+
+    Class<?>[] value();
+}
@@ -0,0 +1,129 @@
+package study.datajpa.querycache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 직렬화한 결과를 direct ByteBuffer 하나에 원형으로 이어 쓰는 L2 계층
+ * 공간이 모자라면 가장 오래 쓴 항목부터 버린다(FIFO). 힙 밖에 있으므로 GC 가 훑을 객체 수를 늘리지 않는다.
+ * Serializable 이 아닌 결과(인터페이스 프로젝션 등)는 저장하지 않는다.
+ */
+class OffHeapTier {
+
+    private final ByteBuffer buffer;
+    /**
+     * 버퍼에 쓴 순서 (같은 키로 다시 쓰여 무효가 된 자리도 덮어쓸 때까지 남는다)
+     */
+    private final ArrayDeque<Slot> ring = new ArrayDeque<>();
+    private final Map<QueryCacheKey, Slot> index = new HashMap<>();
+    private int head;
+    private long evictions;
+
+    OffHeapTier(int capacityBytes) {
+        this.buffer = ByteBuffer.allocateDirect(capacityBytes);
+    }
+
+    synchronized Object get(QueryCacheKey key, long[] generations, long now) {
+        Slot slot = index.get(key);
+        if (slot == null) {
+            return null;
+        }
+        if (slot.expiresAt <= now || !Arrays.equals(slot.generations, generations)) {
+            index.remove(key);
+            return null;
+        }
+        byte[] bytes = new byte[slot.length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(slot.offset);
+        view.get(bytes);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            index.remove(key);
+            return null;
+        }
+    }
+
+    synchronized void put(QueryCacheKey key, Object value, long[] generations, long expiresAt) {
+        if (!(value instanceof Serializable)) {
+            return;
+        }
+        byte[] bytes;
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+                oos.writeObject(value);
+            }
+            bytes = out.toByteArray();
+        } catch (IOException e) {
+            // 내부에 직렬화할 수 없는 값이 있다.
+            return;
+        }
+        if (bytes.length > buffer.capacity()) {
+            return;
+        }
+
+        if (head + bytes.length > buffer.capacity()) {
+            // 끝에 남은 자리는 버리고 처음으로 돌아간다. 그 뒤쪽 항목이 가장 오래된 것이다.
+            int oldHead = head;
+            evictWhile(slot -> slot.offset >= oldHead);
+            head = 0;
+        }
+        int start = head;
+        int end = head + bytes.length;
+        evictWhile(slot -> slot.offset < end && slot.offset + slot.length > start);
+
+        ByteBuffer view = buffer.duplicate();
+        view.position(start);
+        view.put(bytes);
+        Slot slot = new Slot(key, start, bytes.length, generations, expiresAt);
+        ring.addLast(slot);
+        index.put(key, slot);
+        head = end;
+    }
+
+    synchronized long getEvictions() {
+        return evictions;
+    }
+
+    synchronized int size() {
+        return index.size();
+    }
+
+    private void evictWhile(Predicate<Slot> condition) {
+        while (!ring.isEmpty() && condition.test(ring.peekFirst())) {
+            Slot oldest = ring.pollFirst();
+            if (index.get(oldest.key) == oldest) {
+                index.remove(oldest.key);
+                evictions++;
+            }
+        }
+    }
+
+    private static final class Slot {
+
+        private final QueryCacheKey key;
+        private final int offset;
+        private final int length;
+        private final long[] generations;
+        private final long expiresAt;
+
+        Slot(QueryCacheKey key, int offset, int length, long[] generations, long expiresAt) {
+            this.key = key;
+            this.offset = offset;
+            this.length = length;
+            this.generations = generations;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
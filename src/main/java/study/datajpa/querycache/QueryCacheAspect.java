@@ -0,0 +1,90 @@
+package study.datajpa.querycache;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.tenant.TenantContext;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class QueryCacheAspect {
+
+    private final QueryResultCache cache;
+    private final QueryCacheInvalidator invalidator;
+
+    @Around("execution(* study.datajpa.repository..*(..))")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+
+        CachedQuery cached = method.getAnnotation(CachedQuery.class);
+        if (cached != null) {
+            return cached(joinPoint, method, cached);
+        }
+
+        EvictsQueryCache evicts = method.getAnnotation(EvictsQueryCache.class);
+        if (evicts != null) {
+            return invalidating(joinPoint, evicts.value());
+        }
+        if (method.isAnnotationPresent(Modifying.class)) {
+            Class<?> domainType = ResolvableType.forClass(method.getDeclaringClass()).as(Repository.class).resolveGeneric(0);
+            if (domainType != null) {
+                return invalidating(joinPoint, domainType);
+            }
+        }
+        return joinPoint.proceed();
+    }
+
+    private Object cached(ProceedingJoinPoint joinPoint, Method method, CachedQuery cached) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return joinPoint.proceed();
+        }
+        QueryCacheKey key = new QueryCacheKey(TenantContext.current(), method, joinPoint.getArgs());
+        // 조회 전에 세대를 읽는다. 조회 도중에 쓰기가 있었다면 이 항목은 처음부터 무효다.
+        long[] generations = generations(cached.invalidateOn());
+        Object value = cache.get(key, generations);
+        if (value != null) {
+            return value;
+        }
+        value = joinPoint.proceed();
+        if (value != null) {
+            cache.put(key, value, generations, TimeUnit.SECONDS.toMillis(cached.ttlSeconds()));
+        }
+        return value;
+    }
+
+    /**
+     * 호출 전후로 무효화한다. 호출 도중(커밋 전)에 다른 스레드가 옛 값을 캐시에 넣었더라도 끝난 뒤에 버려진다.
+     */
+    private Object invalidating(ProceedingJoinPoint joinPoint, Class<?>... entityTypes) throws Throwable {
+        for (Class<?> entityType : entityTypes) {
+            invalidator.invalidate(entityType);
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            for (Class<?> entityType : entityTypes) {
+                invalidator.invalidate(entityType);
+            }
+        }
+    }
+
+    private long[] generations(Class<?>[] entityTypes) {
+        long[] generations = new long[entityTypes.length];
+        for (int i = 0; i < entityTypes.length; i++) {
+            generations[i] = invalidator.generation(entityTypes[i]);
+        }
+        return generations;
+    }
+}
@@ -0,0 +1,51 @@
+package study.datajpa.querycache;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.io.Serializable;
+
+/**
+ * 엔티티 쓰기가 flush 될 때와 그 트랜잭션이 끝날 때 해당 엔티티 타입의 캐시 세대를 올리고, 바뀐 id 를 기록한다.
+ */
+public class QueryCacheInvalidationListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final QueryCacheInvalidator invalidator;
+
+    public QueryCacheInvalidationListener(QueryCacheInvalidator invalidator) {
+        this.invalidator = invalidator;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        invalidate(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        invalidate(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        invalidate(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void invalidate(EventSource session, EntityPersister persister, Serializable id) {
+        Class<?> entityType = persister.getMappedClass();
+        invalidator.bump(entityType, id);
+        session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> invalidator.bump(entityType, id));
+    }
+}
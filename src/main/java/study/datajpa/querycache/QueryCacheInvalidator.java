@@ -0,0 +1,122 @@
+package study.datajpa.querycache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+
+/**
+ * 엔티티 타입별 세대 번호. 캐시 항목은 만들 때의 세대를 기억하고, 조회 시 세대가 바뀌었으면 버린다.
+ * 쓰기 시점과 커밋 이후에 한 번씩 올린다. 커밋 전에 다른 트랜잭션이 옛 값을 읽어 캐시에 넣어도 커밋 후에 무효가 된다.
+ *
+ * 최근 쓰기는 (타입, id) 로도 RECENT_CHANGES 개까지 기억한다. (changedSince)
+ * 세대 전체 대신 자기가 담은 행이 바뀌었는지만 보고 싶은 캐시가 쓴다. id 를 모르는 쓰기(벌크, JDBC)는 그 타입 전체가 바뀐 것으로 본다.
+ */
+@Component
+public class QueryCacheInvalidator {
+
+    static final int RECENT_CHANGES = 4096;
+
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final Class<?>[] recentTypes = new Class<?>[RECENT_CHANGES];
+    private final Object[] recentIds = new Object[RECENT_CHANGES];
+    /**
+     * 지금까지 기록한 쓰기 수 (recentTypes/recentIds 의 다음 위치, this 로 보호)
+     */
+    private long changeSequence;
+
+    public long generation(Class<?> entityType) {
+        return counter(entityType).get();
+    }
+
+    public void invalidate(Class<?> entityType) {
+        invalidateOne(entityType, null);
+    }
+
+    /**
+     * JDBC 로 직접 쓴 행들. id 별로 기록한다.
+     */
+    public void invalidate(Class<?> entityType, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        counter(entityType).incrementAndGet();
+        ids.forEach(id -> record(entityType, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    counter(entityType).incrementAndGet();
+                    ids.forEach(id -> record(entityType, id));
+                }
+            });
+        }
+    }
+
+    private void invalidateOne(Class<?> entityType, Object id) {
+        bump(entityType, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bump(entityType, id);
+                }
+            });
+        }
+    }
+
+    /**
+     * Hibernate 이벤트 리스너용. 커밋 이후 처리는 세션의 after-transaction 콜백으로 한다.
+     *
+     * @param id null 이면 그 타입 전체
+     */
+    void bump(Class<?> entityType, Object id) {
+        counter(entityType).incrementAndGet();
+        record(entityType, id);
+    }
+
+    /**
+     * changedSince 의 기준점. 읽기 전에 받아 두어야 읽는 도중의 쓰기도 놓치지 않는다.
+     */
+    public synchronized long changeSequence() {
+        return changeSequence;
+    }
+
+    /**
+     * sequence 이후 entityType 의 쓰기 중 affects 에 걸리는 id 가 있었는지.
+     * id 없는 쓰기가 있었거나 기록이 밀려나 알 수 없으면 true 이다.
+     */
+    public synchronized boolean changedSince(long sequence, Class<?> entityType, LongPredicate affects) {
+        if (changeSequence - sequence > RECENT_CHANGES) {
+            return true;
+        }
+        for (long s = sequence; s < changeSequence; s++) {
+            int slot = (int) (s % RECENT_CHANGES);
+            if (recentTypes[slot] != entityType) {
+                continue;
+            }
+            Object id = recentIds[slot];
+            if (!(id instanceof Number) || affects.test(((Number) id).longValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void record(Class<?> entityType, Object id) {
+        int slot = (int) (changeSequence % RECENT_CHANGES);
+        recentTypes[slot] = entityType;
+        recentIds[slot] = id;
+        changeSequence++;
+    }
+
+    private AtomicLong counter(Class<?> entityType) {
+        return generations.computeIfAbsent(entityType, type -> new AtomicLong());
+    }
+}
@@ -0,0 +1,46 @@
+package study.datajpa.querycache;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 테넌트 + 메서드 + 인자. Pageable(PageRequest)과 Sort 는 값으로 비교된다.
+ * 같은 조회라도 테넌트마다 결과가 다르므로 테넌트별로 따로 캐시된다.
+ */
+final class QueryCacheKey {
+
+    private final String tenant;
+    private final Method method;
+    private final Object[] args;
+    private final int hash;
+
+    QueryCacheKey(String tenant, Method method, Object[] args) {
+        this.tenant = tenant;
+        this.method = method;
+        this.args = args.clone();
+        this.hash = 31 * (31 * Objects.hashCode(tenant) + method.hashCode()) + Arrays.deepHashCode(this.args);
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QueryCacheKey)) {
+            return false;
+        }
+        QueryCacheKey other = (QueryCacheKey) o;
+        return hash == other.hash && Objects.equals(tenant, other.tenant) && method.equals(other.method)
+                && Arrays.deepEquals(args, other.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,143 @@
+package study.datajpa.querycache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.QueryCacheMethodStats;
+import study.datajpa.dto.QueryCacheStats;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * L1: 힙, 항목 수 기준 LRU
+ * L2: (선택) OffHeapTier. L1 에서 밀려난 항목을 옮겨 두지 않고, 저장할 때 두 계층에 함께 쓴다.
+ */
+@Component
+public class QueryResultCache {
+
+    private final int maxEntries;
+    private final OffHeapTier offHeap;
+    private final Map<QueryCacheKey, Entry> heap;
+    private final Map<Method, Counters> counters = new ConcurrentHashMap<>();
+    private final LongAdder heapEvictions = new LongAdder();
+
+    public QueryResultCache(@Value("${query-cache.l1.max-entries:10000}") int maxEntries,
+                            @Value("${query-cache.l2.enabled:false}") boolean offHeapEnabled,
+                            @Value("${query-cache.l2.capacity-mb:64}") int offHeapMegabytes) {
+        this.maxEntries = maxEntries;
+        this.offHeap = offHeapEnabled ? new OffHeapTier(offHeapMegabytes * 1024 * 1024) : null;
+        this.heap = new LinkedHashMap<QueryCacheKey, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<QueryCacheKey, Entry> eldest) {
+                if (size() > QueryResultCache.this.maxEntries) {
+                    heapEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return 캐시된 결과, 없으면 null
+     */
+    Object get(QueryCacheKey key, long[] generations) {
+        Counters c = counters(key.getMethod());
+        long now = System.currentTimeMillis();
+        Entry entry;
+        synchronized (heap) {
+            entry = heap.get(key);
+            if (entry != null && (entry.expiresAt <= now || !Arrays.equals(entry.generations, generations))) {
+                heap.remove(key);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            c.l1Hits.increment();
+            return entry.value;
+        }
+        if (offHeap != null) {
+            Object value = offHeap.get(key, generations, now);
+            if (value != null) {
+                // L1 에서 밀려난 항목이다. 매번 역직렬화한 새 객체를 돌려준다.
+                c.l2Hits.increment();
+                return value;
+            }
+        }
+        c.misses.increment();
+        return null;
+    }
+
+    void put(QueryCacheKey key, Object value, long[] generations, long ttlMillis) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        synchronized (heap) {
+            heap.put(key, new Entry(value, generations, expiresAt));
+        }
+        if (offHeap != null) {
+            offHeap.put(key, value, generations, expiresAt);
+        }
+    }
+
+    public void clear() {
+        synchronized (heap) {
+            heap.clear();
+        }
+    }
+
+    public QueryCacheStats snapshot() {
+        List<QueryCacheMethodStats> methods = new ArrayList<>();
+        counters.forEach((method, c) -> {
+            QueryCacheMethodStats stats = new QueryCacheMethodStats();
+            stats.setMethod(method.getDeclaringClass().getSimpleName() + "." + method.getName());
+            stats.setL1Hits(c.l1Hits.sum());
+            stats.setL2Hits(c.l2Hits.sum());
+            stats.setMisses(c.misses.sum());
+            long total = stats.getL1Hits() + stats.getL2Hits() + stats.getMisses();
+            stats.setHitRatio(total == 0 ? 0 : (stats.getL1Hits() + stats.getL2Hits()) / (double) total);
+            methods.add(stats);
+        });
+        methods.sort(Comparator.comparing(QueryCacheMethodStats::getMethod));
+
+        QueryCacheStats stats = new QueryCacheStats();
+        synchronized (heap) {
+            stats.setL1Entries(heap.size());
+        }
+        stats.setL1Evictions(heapEvictions.sum());
+        stats.setL2Enabled(offHeap != null);
+        stats.setL2Entries(offHeap == null ? 0 : offHeap.size());
+        stats.setL2Evictions(offHeap == null ? 0 : offHeap.getEvictions());
+        stats.setMethods(methods);
+        return stats;
+    }
+
+    private Counters counters(Method method) {
+        return counters.computeIfAbsent(method, m -> new Counters());
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long[] generations;
+        private final long expiresAt;
+
+        Entry(Object value, long[] generations, long expiresAt) {
+            this.value = value;
+            this.generations = generations;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Counters {
+
+        private final LongAdder l1Hits = new LongAdder();
+        private final LongAdder l2Hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+}
@@ -0,0 +1,74 @@
+package study.datajpa.queryplan;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.query.spi.QueryPlanCache;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.QueryPlanCacheStats;
+import study.datajpa.dto.QueryPlanStatsDto;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Hibernate Statistics(hibernate.generate_statistics) 기반 쿼리 플랜 캐시 지표
+ * 통계는 기본으로 꺼져 있다. 꺼져 있으면 statisticsEnabled=false 만 돌려준다.
+ *
+ * Hibernate 는 플랜 캐시의 히트/미스만 세고 퇴출 수는 세지 않는다.
+ * 같은 쿼리가 두 번 이상 미스 난 것(recompilations)은 퇴출되었거나 여러 스레드가 동시에 처음 컴파일한 것이다.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryPlanMetrics {
+
+    private final EntityManagerFactory emf;
+
+    public QueryPlanCacheStats snapshot() {
+        SessionFactory sessionFactory = emf.unwrap(SessionFactory.class);
+        Statistics statistics = sessionFactory.getStatistics();
+
+        QueryPlanCacheStats stats = new QueryPlanCacheStats();
+        stats.setStatisticsEnabled(statistics.isStatisticsEnabled());
+        stats.setMaxSize(ConfigurationHelper.getInt(AvailableSettings.QUERY_PLAN_CACHE_MAX_SIZE,
+                sessionFactory.getProperties(), QueryPlanCache.DEFAULT_QUERY_PLAN_MAX_COUNT));
+        if (!statistics.isStatisticsEnabled()) {
+            stats.setQueries(new ArrayList<>());
+            return stats;
+        }
+
+        List<QueryPlanStatsDto> queries = new ArrayList<>();
+        long recompilations = 0;
+        for (String query : statistics.getQueries()) {
+            QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+
+            QueryPlanStatsDto dto = new QueryPlanStatsDto();
+            dto.setQuery(query);
+            dto.setPlanCacheHits(queryStatistics.getPlanCacheHitCount());
+            dto.setPlanCacheMisses(queryStatistics.getPlanCacheMissCount());
+            dto.setRecompilations(Math.max(0, queryStatistics.getPlanCacheMissCount() - 1));
+            dto.setCompileMicros(queryStatistics.getPlanCompilationTotalMicroseconds());
+            dto.setExecutions(queryStatistics.getExecutionCount());
+            dto.setExecutionAvgMillis(queryStatistics.getExecutionAvgTime());
+            dto.setExecutionMaxMillis(queryStatistics.getExecutionMaxTime());
+            queries.add(dto);
+            recompilations += dto.getRecompilations();
+        }
+        queries.sort(Comparator.comparingLong(QueryPlanStatsDto::getPlanCacheMisses).reversed());
+
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long misses = statistics.getQueryPlanCacheMissCount();
+
+        stats.setHits(hits);
+        stats.setMisses(misses);
+        stats.setHitRatio(hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+        stats.setRecompilations(recompilations);
+        stats.setQueries(queries);
+        return stats;
+    }
+}
@@ -0,0 +1,154 @@
+package study.datajpa.queryplan;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.query.DerivedQueryCriteria;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.NamedQuery;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.metamodel.EntityType;
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 기동 직후 모든 리포지토리의 @Query, countQuery, 네임드 쿼리, 파생 쿼리를 미리 컴파일하여 쿼리 플랜 캐시를 채운다.
+ * 배포 직후 첫 요청들이 HQL 파싱 비용을 내지 않도록 하기 위함이다.
+ * 네이티브 쿼리는 파라미터 메타데이터 캐시만 채워진다.
+ * 파생 쿼리는 메서드 이름(PartTree)으로 CriteriaQuery 를 만들어 컴파일하며, 리포지토리를 호출하지도 SQL 을 실행하지도 않는다.
+ * 삭제 메서드는 건너뛴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "query-plan.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryPlanWarmup implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final EntityManagerFactory emf;
+    private final ListableBeanFactory beanFactory;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        long start = System.nanoTime();
+        int compiled = 0;
+        int failed = 0;
+        int skipped = 0;
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            Set<String> namedQueries = new HashSet<>();
+            Repositories repositories = new Repositories(beanFactory);
+            for (EntityType<?> entity : em.getMetamodel().getEntities()) {
+                for (NamedQuery namedQuery : entity.getJavaType().getAnnotationsByType(NamedQuery.class)) {
+                    namedQueries.add(namedQuery.name());
+                }
+            }
+
+            for (Class<?> domainType : repositories) {
+                RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+                for (Method method : information.getQueryMethods()) {
+                    Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+                    if (query == null) {
+                        // 같은 이름의 네임드 쿼리가 있으면 스프링 데이터는 그것을 쓴다. (아래에서 컴파일)
+                        if (!namedQueries.contains(domainType.getSimpleName() + "." + method.getName())) {
+                            Boolean result = compileDerived(em, method, information);
+                            if (result == null) {
+                                skipped++;
+                            } else if (result) {
+                                compiled++;
+                            } else {
+                                failed++;
+                            }
+                        }
+                        continue;
+                    }
+                    for (String queryString : new String[]{query.value(), query.countQuery()}) {
+                        if (!StringUtils.hasText(queryString)) {
+                            continue;
+                        }
+                        if (compile(em, queryString, query.nativeQuery())) {
+                            compiled++;
+                        } else {
+                            failed++;
+                        }
+                    }
+                }
+            }
+
+            for (EntityType<?> entity : em.getMetamodel().getEntities()) {
+                for (NamedQuery namedQuery : entity.getJavaType().getAnnotationsByType(NamedQuery.class)) {
+                    if (compile(em, namedQuery.query(), false)) {
+                        compiled++;
+                    } else {
+                        failed++;
+                    }
+                }
+            }
+        } finally {
+            em.close();
+        }
+        log.info("query plan warm-up: compiled={}, failed={}, skipped={}, elapsed={}ms",
+                compiled, failed, skipped, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * PartTree 로 스프링 데이터와 같은 CriteriaQuery 를 만들어 컴파일한다. (Page 메서드는 count 쿼리까지)
+     * 하이버네이트는 CriteriaQuery 를 JPQL 로 렌더링하여 플랜 캐시에서 찾으므로, 실제 호출도 같은 캐시 항목을 쓴다.
+     *
+     * @return 조회 메서드가 아니면 null
+     */
+    private Boolean compileDerived(EntityManager em, Method method, RepositoryInformation information) {
+        if (method.isAnnotationPresent(Modifying.class)) {
+            return null;
+        }
+        List<CriteriaQuery<?>> queries;
+        try {
+            if (new PartTree(method.getName(), information.getDomainType()).isDelete()) {
+                return null;
+            }
+            queries = DerivedQueryCriteria.of(method, information, em);
+        } catch (RuntimeException e) {
+            log.warn("query plan warm-up failed: {}", method, e);
+            return false;
+        }
+        boolean compiled = true;
+        for (CriteriaQuery<?> query : queries) {
+            try {
+                em.createQuery(query);
+            } catch (RuntimeException e) {
+                log.warn("query plan warm-up failed: {}", method, e);
+                compiled = false;
+            }
+        }
+        return compiled;
+    }
+
+    private boolean compile(EntityManager em, String queryString, boolean nativeQuery) {
+        try {
+            if (nativeQuery) {
+                em.createNativeQuery(queryString);
+            } else {
+                em.createQuery(queryString);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("query plan warm-up failed: {}", queryString, e);
+            return false;
+        }
+    }
+}
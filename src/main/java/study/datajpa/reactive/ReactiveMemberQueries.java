@@ -0,0 +1,74 @@
+package study.datajpa.reactive;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.tenant.TenantContext;
+
+import java.util.List;
+
+/**
+ * 블로킹 JPA 위에 얹은 리액티브 조회 파사드
+ * 구독자의 요청(demand)이 있을 때만 chunkSize 건씩 id 순으로 가져오고, 청크마다 짧은 읽기 전용 트랜잭션을 사용한다.
+ * JDBC 호출은 크기가 제한된 전용 워커 풀에서 실행되므로 호출 스레드(이벤트 루프)를 막지 않는다.
+ * 워커 스레드에는 테넌트가 없으므로 호출(조립) 시점의 테넌트를 잡아 두고 그 테넌트로 실행한다.
+ */
+@Component
+public class ReactiveMemberQueries implements DisposableBean {
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final Scheduler jdbcScheduler;
+    private final int chunkSize;
+
+    public ReactiveMemberQueries(MemberRepository memberRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${reactive-member.pool-size:4}") int poolSize,
+                                 @Value("${reactive-member.chunk-size:100}") int chunkSize) {
+        this.memberRepository = memberRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.jdbcScheduler = Schedulers.newBoundedElastic(poolSize, 1000, "member-jdbc");
+        this.chunkSize = chunkSize;
+    }
+
+    public Flux<MemberDto> findAll() {
+        String tenant = TenantContext.current();
+        Flux<List<MemberDto>> chunks = Flux.generate(() -> 0L, (afterId, sink) -> {
+            List<MemberDto> chunk = TenantContext.callAs(tenant, () -> readOnlyTx.execute(status ->
+                    memberRepository.findMemberDtoChunk(afterId, PageRequest.of(0, chunkSize))));
+            if (chunk.isEmpty()) {
+                sink.complete();
+                return afterId;
+            }
+            sink.next(chunk);
+            return chunk.get(chunk.size() - 1).getId();
+        });
+
+        // 다음 청크는 현재 청크가 모두 소비될 때 요청된다. (prefetch 1)
+        return chunks
+                .subscribeOn(jdbcScheduler)
+                .concatMapIterable(chunk -> chunk, 1);
+    }
+
+    public Mono<MemberDto> findById(Long id) {
+        String tenant = TenantContext.current();
+        return Mono.fromCallable(() -> TenantContext.callAs(tenant, () -> readOnlyTx.execute(status ->
+                        memberRepository.findById(id).map(MemberDto::new).orElse(null))))
+                .subscribeOn(jdbcScheduler);
+    }
+
+    @Override
+    public void destroy() {
+        jdbcScheduler.dispose();
+    }
+}
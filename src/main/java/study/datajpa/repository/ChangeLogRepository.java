@@ -0,0 +1,46 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import study.datajpa.domain.ChangeLog;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ChangeLogRepository extends JpaRepository<ChangeLog, Long> {
+
+    /**
+     * commit_seq 인덱스 범위 조회이므로 비용은 테이블 크기가 아닌 변경 건수에 비례한다.
+     */
+    List<ChangeLog> findByCommitSeqGreaterThanOrderByCommitSeqAsc(Long commitSeq, Pageable pageable);
+
+    /**
+     * 커밋되었지만 아직 순번이 없는 이력 (ChangeLogSequencer)
+     */
+    List<ChangeLog> findByCommitSeqIsNullOrderByIdAsc(Pageable pageable);
+
+    @Query("select min(c.commitSeq) from ChangeLog c where c.changedAt >= :changedAt")
+    Optional<Long> findFirstCommitSeqSince(@Param("changedAt") LocalDateTime changedAt);
+
+    @Query("select coalesce(max(c.commitSeq), 0) from ChangeLog c")
+    long findLatestCommitSeq();
+
+    /**
+     * changed_at 구간을 id 순으로 나눠 읽는다. (id 는 커밋 순서가 아니므로 구간은 시간으로 자른다)
+     */
+    List<ChangeLog> findByChangedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(LocalDateTime changedAt, Long id, Pageable pageable);
+
+    @Query("select coalesce(max(c.id), 0) from ChangeLog c")
+    long findLatestId();
+
+    /**
+     * 보관 기간이 지난 이력은 changed_at 인덱스를 타고 시간 구간 단위로 삭제한다.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("delete from ChangeLog c where c.changedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
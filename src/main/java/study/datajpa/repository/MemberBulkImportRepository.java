@@ -0,0 +1,33 @@
+package study.datajpa.repository;
+
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.dto.BulkImportResult;
+import study.datajpa.querycache.EvictsQueryCache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.LongConsumer;
+
+/**
+ * 엔티티를 만들지 않고 CSV 를 member/team 테이블에 바로 넣는 fragment
+ * 로더 스레드가 각자 커넥션과 트랜잭션을 가지므로 호출자 트랜잭션에는 참여하지 않는다.
+ */
+public interface MemberBulkImportRepository {
+
+    /**
+     * @param csv 헤더 한 줄 + "username,age,teamName" (teamName 은 비워둘 수 있다)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @EvictsQueryCache({Member.class, Team.class})
+    BulkImportResult importCsv(Path csv) throws IOException;
+
+    /**
+     * @param progress 지금까지 커밋된 회원 수를 member-import.progress-every 건마다 받는다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @EvictsQueryCache({Member.class, Team.class})
+    BulkImportResult importCsv(Path csv, LongConsumer progress) throws IOException;
+}
@@ -0,0 +1,333 @@
+package study.datajpa.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import study.datajpa.dto.BulkImportResult;
+import study.datajpa.teamstats.TeamAgeStatsSql;
+import study.datajpa.tenant.TenantFilters;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * 호출 스레드가 CSV 를 읽어 팀 이름을 id 로 바꾸고 batch-rows 건씩 큐에 넣으면,
+ * parallelism 개의 로더 스레드가 한 번에 batch-rows 건을 넣는 다중 행 INSERT 를 실행하고 바로 커밋한다.
+ *
+ * 하이버네이트를 거치지 않으므로 change_log/outbox 이벤트가 남지 않는다.
+ * team_age_stats 는 배치마다 그 배치의 (팀, 나이)별 건수를 같은 트랜잭션에서 더하므로, 커밋된 회원과 통계가 어긋나지 않는다.
+ * 로더끼리 같은 통계 행을 서로 다른 순서로 잠그지 않도록 (팀, 나이) 순으로 갱신한다.
+ * last_modified_date 는 적재 시각으로 채우므로 MemberReadIndex 는 다음 갱신에서 새 회원을 읽는다.
+ * 회원과 새 팀은 호출 스레드의 테넌트(TenantFilters.currentOrDefault)로 넣고, 팀 이름도 그 테넌트의 팀에서만 찾는다.
+ * 중간에 실패하면 이미 커밋된 배치는 남는다.
+ */
+@Slf4j
+public class MemberBulkImportRepositoryImpl implements MemberBulkImportRepository {
+
+    private static final String IMPORTED_BY = "bulk-import";
+    private static final String MEMBER_COLUMNS =
+            "insert into member (member_id, username, age, team_id, create_date, last_modified_date, created_by, last_modified_by, tenant_id) values ";
+    private static final String MEMBER_VALUES = "(next value for hibernate_sequence, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final List<Object[]> END = Collections.emptyList();
+
+    private final DataSource dataSource;
+    private final int parallelism;
+    private final int batchRows;
+    private final long progressEvery;
+
+    public MemberBulkImportRepositoryImpl(DataSource dataSource,
+                                          @Value("${member-import.parallelism:4}") int parallelism,
+                                          @Value("${member-import.batch-rows:500}") int batchRows,
+                                          @Value("${member-import.progress-every:100000}") long progressEvery) {
+        this.dataSource = dataSource;
+        this.parallelism = parallelism;
+        this.batchRows = batchRows;
+        this.progressEvery = progressEvery;
+    }
+
+    @Override
+    public BulkImportResult importCsv(Path csv) throws IOException {
+        return importCsv(csv, count -> log.info("member import {}: {} rows", csv.getFileName(), count));
+    }
+
+    @Override
+    public BulkImportResult importCsv(Path csv, LongConsumer progress) throws IOException {
+        long start = System.currentTimeMillis();
+        BlockingQueue<List<Object[]>> queue = new ArrayBlockingQueue<>(parallelism * 2);
+        AtomicLong imported = new AtomicLong();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // 로더 스레드에는 TenantContext 가 없으므로 여기서 정한다.
+        String tenant = TenantFilters.currentOrDefault();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> new Thread(r, "member-import-" + threadNumber.incrementAndGet()));
+        List<Future<?>> loaders = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            loaders.add(pool.submit(() -> {
+                load(queue, now, tenant, imported, progress);
+                return null;
+            }));
+        }
+
+        TeamResolver teams = new TeamResolver(tenant);
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            reader.readLine();  // header
+            List<Object[]> chunk = new ArrayList<>(batchRows);
+            String line;
+            long lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                chunk.add(parse(line, lineNumber, teams, connection));
+                if (chunk.size() == batchRows) {
+                    offer(queue, chunk, loaders);
+                    chunk = new ArrayList<>(batchRows);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                offer(queue, chunk, loaders);
+            }
+            for (int i = 0; i < parallelism; i++) {
+                offer(queue, END, loaders);
+            }
+            awaitLoaders(loaders);
+        } catch (SQLException e) {
+            throw new IllegalStateException("member import failed: " + csv, e);
+        } finally {
+            pool.shutdownNow();
+        }
+        return new BulkImportResult(imported.get(), teams.created, System.currentTimeMillis() - start);
+    }
+
+    private Object[] parse(String line, long lineNumber, TeamResolver teams, Connection connection) throws SQLException {
+        List<String> fields = splitCsv(line);
+        if (fields.size() < 2) {
+            throw new IllegalArgumentException("line " + lineNumber + ": expected username,age[,teamName]");
+        }
+        int age;
+        try {
+            age = Integer.parseInt(fields.get(1).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("line " + lineNumber + ": invalid age " + fields.get(1));
+        }
+        String teamName = fields.size() > 2 ? fields.get(2) : "";
+        Long teamId = teamName.isEmpty() ? null : teams.resolve(connection, teamName);
+        return new Object[]{fields.get(0), age, teamId};
+    }
+
+    private void load(BlockingQueue<List<Object[]>> queue, Timestamp now, String tenant, AtomicLong imported, LongConsumer progress)
+            throws InterruptedException, SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            PreparedStatement full = connection.prepareStatement(insertSql(batchRows));
+            try {
+                List<Object[]> chunk;
+                while ((chunk = queue.take()) != END) {
+                    PreparedStatement statement = chunk.size() == batchRows ? full : connection.prepareStatement(insertSql(chunk.size()));
+                    try {
+                        bind(statement, chunk, now, tenant);
+                        statement.executeUpdate();
+                        applyAgeStats(connection, chunk);
+                        connection.commit();
+                    } finally {
+                        if (statement != full) {
+                            statement.close();
+                        }
+                    }
+                    long before = imported.getAndAdd(chunk.size());
+                    if ((before + chunk.size()) / progressEvery > before / progressEvery) {
+                        progress.accept(before + chunk.size());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                full.close();
+            }
+        }
+    }
+
+    /**
+     * 배치에 들어간 회원의 (팀, 나이)별 건수를 team_age_stats 에 더한다.
+     */
+    private static void applyAgeStats(Connection connection, List<Object[]> chunk) throws SQLException {
+        Map<Long, Map<Integer, Long>> counts = new TreeMap<>();
+        for (Object[] row : chunk) {
+            if (row[2] != null) {
+                counts.computeIfAbsent((Long) row[2], id -> new TreeMap<>()).merge((Integer) row[1], 1L, Long::sum);
+            }
+        }
+        for (Map.Entry<Long, Map<Integer, Long>> team : counts.entrySet()) {
+            for (Map.Entry<Integer, Long> age : team.getValue().entrySet()) {
+                TeamAgeStatsSql.apply(connection, team.getKey(), age.getKey(), age.getValue());
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement statement, List<Object[]> chunk, Timestamp now, String tenant) throws SQLException {
+        int index = 1;
+        for (Object[] row : chunk) {
+            statement.setString(index++, (String) row[0]);
+            statement.setInt(index++, (Integer) row[1]);
+            if (row[2] == null) {
+                statement.setNull(index++, Types.BIGINT);
+            } else {
+                statement.setLong(index++, (Long) row[2]);
+            }
+            statement.setTimestamp(index++, now);
+            statement.setTimestamp(index++, now);
+            statement.setString(index++, IMPORTED_BY);
+            statement.setString(index++, IMPORTED_BY);
+            statement.setString(index++, tenant);
+        }
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(MEMBER_COLUMNS.length() + rows * (MEMBER_VALUES.length() + 2));
+        sql.append(MEMBER_COLUMNS);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(MEMBER_VALUES);
+        }
+        return sql.toString();
+    }
+
+    private static void offer(BlockingQueue<List<Object[]>> queue, List<Object[]> chunk, List<Future<?>> loaders) {
+        try {
+            // 로더가 모두 실패하면 큐가 비지 않으므로 기다리는 동안 로더 상태를 확인한다.
+            while (!queue.offer(chunk, 1, TimeUnit.SECONDS)) {
+                for (Future<?> loader : loaders) {
+                    if (loader.isDone()) {
+                        awaitLoaders(Collections.singletonList(loader));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("member import interrupted", e);
+        }
+    }
+
+    private static void awaitLoaders(List<Future<?>> loaders) {
+        for (Future<?> loader : loaders) {
+            try {
+                loader.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("member import failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("member import interrupted", e);
+            }
+        }
+    }
+
+    /**
+     * 따옴표로 감싼 필드("a,b", "" 이스케이프)를 지원한다. 필드 안의 줄바꿈은 지원하지 않는다.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * 팀 이름 -> id 캐시. 없는 팀은 만들고 바로 커밋해서 로더 트랜잭션이 외래 키를 확인할 수 있게 한다.
+     */
+    private static class TeamResolver {
+
+        private final String tenant;
+        private final Map<String, Long> ids = new HashMap<>();
+        private long created;
+
+        TeamResolver(String tenant) {
+            this.tenant = tenant;
+        }
+
+        Long resolve(Connection connection, String name) throws SQLException {
+            Long id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            try (PreparedStatement select = connection.prepareStatement("select min(team_id) from team where name = ? and tenant_id = ?")) {
+                select.setString(1, name);
+                select.setString(2, tenant);
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    long found = rs.getLong(1);
+                    id = rs.wasNull() ? null : found;
+                }
+            }
+            if (id == null) {
+                try (PreparedStatement sequence = connection.prepareStatement("select next value for hibernate_sequence");
+                     ResultSet rs = sequence.executeQuery()) {
+                    rs.next();
+                    id = rs.getLong(1);
+                }
+                try (PreparedStatement insert = connection.prepareStatement("insert into team (team_id, name, tenant_id) values (?, ?, ?)")) {
+                    insert.setLong(1, id);
+                    insert.setString(2, name);
+                    insert.setString(3, tenant);
+                    insert.executeUpdate();
+                }
+                created++;
+            }
+            ids.put(name, id);
+            return id;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package study.datajpa.repository;
 
 import org.springframework.stereotype.Repository;
 import study.datajpa.domain.Member;
+import study.datajpa.querycache.EvictsQueryCache;
+import study.datajpa.tenant.TenantFilters;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -70,11 +72,16 @@ public class MemberJpaRepository {
                 .getSingleResult();
     }
 
+    /**
+     * 하이버네이트 필터는 벌크 연산에 걸리지 않으므로 테넌트 조건을 직접 넣는다.
+     */
+    @EvictsQueryCache(Member.class)
     public int bulkAgePlus(int age) {
         return em.createQuery(
                         "update Member m set m.age = m.age + 1 " +
-                                "where m.age >= :age")
+                                "where m.age >= :age and m.tenantId = :tenantId")
                 .setParameter("age", age)
+                .setParameter("tenantId", TenantFilters.currentOrDefault())
                 .executeUpdate();
     }
 }
@@ -0,0 +1,35 @@
+package study.datajpa.repository;
+
+import study.datajpa.dto.MemberDto;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 자주 불리는 회원 조회 fragment
+ * member-index.enabled 이면 프로세스 내 읽기 인덱스(MemberReadIndex)에서 답하고, 아니면 DB 에서 같은 조건으로 조회한다.
+ * 인덱스는 refresh-interval 만큼 늦을 수 있고 기본 테넌트의 회원만 담으므로, 다른 테넌트는 항상 DB 에서 조회한다.
+ *
+ * 기존 findByUsername, findByUsernameAndAgeGreaterThan, findTop3HelloBy 는 인덱스로 돌리지 않는다.
+ * 그 메서드들은 영속성 컨텍스트에 올라간 Member 엔티티(변경 감지, 지연 로딩, 락)를 돌려줘야 하는데,
+ * 인덱스에는 DTO 필드만 있어 결국 행마다 DB 에서 엔티티를 다시 읽어야 하기 때문이다. 읽기 전용 호출부는 lookup* 을 쓴다.
+ */
+public interface MemberLookupRepository {
+
+    Optional<String> lookupUsername(Long id);
+
+    /**
+     * findByUsername (age, id 순, 일치하는 모든 행)
+     */
+    List<MemberDto> lookupByUsername(String username);
+
+    /**
+     * findByUsernameAndAgeGreaterThan (age, id 순, 일치하는 모든 행)
+     */
+    List<MemberDto> lookupByUsernameAndAgeGreaterThan(String username, int age);
+
+    /**
+     * findTop3HelloBy (id 순)
+     */
+    List<MemberDto> lookupTop3();
+}
@@ -0,0 +1,111 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.memoryindex.MemberIndexSnapshot;
+import study.datajpa.memoryindex.MemberReadIndex;
+import study.datajpa.tenant.TenantContext;
+import study.datajpa.tenant.TenantFilters;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 인덱스로 답하는 경로는 트랜잭션(커넥션) 없이 끝난다.
+ * DB 로 가는 경로만 읽기 전용 트랜잭션으로 감싼다. 테넌트 필터는 트랜잭션을 시작할 때 걸리기 때문이다.
+ */
+public class MemberLookupRepositoryImpl implements MemberLookupRepository {
+
+    private static final String SELECT_DTO =
+            "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t ";
+
+    private final EntityManager em;
+    private final ObjectProvider<MemberReadIndex> memberReadIndex;
+    private final TransactionTemplate readOnlyTx;
+
+    public MemberLookupRepositoryImpl(EntityManager em, ObjectProvider<MemberReadIndex> memberReadIndex,
+                                      PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.memberReadIndex = memberReadIndex;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @Override
+    public Optional<String> lookupUsername(Long id) {
+        MemberIndexSnapshot snapshot = snapshot();
+        if (snapshot != null) {
+            int row = snapshot.rowOf(id);
+            if (row >= 0) {
+                return Optional.ofNullable(snapshot.getUsername(row));
+            }
+            // 아직 인덱스에 반영되지 않은 새 회원일 수 있다.
+        }
+        return readOnlyTx.execute(status -> Optional.ofNullable(em.find(Member.class, id)).map(Member::getUsername));
+    }
+
+    @Override
+    public List<MemberDto> lookupByUsername(String username) {
+        MemberIndexSnapshot snapshot = snapshot();
+        if (snapshot != null) {
+            int[] rows = new int[snapshot.countByUsername(username)];
+            return toDtos(snapshot, rows, snapshot.findByUsername(username, rows));
+        }
+        return readOnlyTx.execute(status -> em.createQuery(SELECT_DTO + "where m.username = :username order by m.age, m.id", MemberDto.class)
+                .setParameter("username", username)
+                .getResultList());
+    }
+
+    @Override
+    public List<MemberDto> lookupByUsernameAndAgeGreaterThan(String username, int age) {
+        MemberIndexSnapshot snapshot = snapshot();
+        if (snapshot != null) {
+            int[] rows = new int[snapshot.countByUsernameAndAgeGreaterThan(username, age)];
+            return toDtos(snapshot, rows, snapshot.findByUsernameAndAgeGreaterThan(username, age, rows));
+        }
+        return readOnlyTx.execute(status -> em.createQuery(SELECT_DTO + "where m.username = :username and m.age > :age order by m.age, m.id", MemberDto.class)
+                .setParameter("username", username)
+                .setParameter("age", age)
+                .getResultList());
+    }
+
+    @Override
+    public List<MemberDto> lookupTop3() {
+        MemberIndexSnapshot snapshot = snapshot();
+        if (snapshot != null) {
+            int[] rows = new int[3];
+            return toDtos(snapshot, rows, snapshot.findTop(rows));
+        }
+        return readOnlyTx.execute(status -> em.createQuery(SELECT_DTO + "order by m.id", MemberDto.class)
+                .setMaxResults(3)
+                .getResultList());
+    }
+
+    /**
+     * @return 인덱스를 쓸 수 없으면 null
+     */
+    private MemberIndexSnapshot snapshot() {
+        String tenant = TenantContext.current();
+        if (tenant != null && !TenantFilters.DEFAULT_TENANT.equals(tenant)) {
+            return null;
+        }
+        MemberReadIndex index = memberReadIndex.getIfAvailable();
+        return index == null ? null : index.snapshot();
+    }
+
+    private static List<MemberDto> toDtos(MemberIndexSnapshot snapshot, int[] rows, int count) {
+        List<MemberDto> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            long teamId = snapshot.getTeamId(row);
+            result.add(new MemberDto(snapshot.getId(row), snapshot.getUsername(row),
+                    teamId == MemberIndexSnapshot.NO_TEAM ? null : snapshot.getTeamName(teamId)));
+        }
+        return result;
+    }
+}
@@ -2,18 +2,27 @@ package study.datajpa.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import study.datajpa.dbbudget.QueryTimeout;
 import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.memoryindex.MemberIndexRow;
+import study.datajpa.querycache.CachedQuery;
+import study.datajpa.scroll.MemberScrollRow;
+import study.datajpa.tenant.TenantFilters;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, JpaSpecificationExecutor<Member> {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, MemberBulkImportRepository, MemberSearchRepository,
+        MemberLookupRepository, JpaSpecificationExecutor<Member> {
 
     List<Member> findByUsernameAndAgeGreaterThan(String username, int age);
 
@@ -24,9 +33,11 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select m from Member m where m.username = :username and m.age = :age")
     List<Member> findMember(@Param("username") String username, @Param("age") int age);
 
+    @CachedQuery(invalidateOn = Member.class)
     @Query("select m.username from Member m")
     List<String> findUsernameList();
 
+    @CachedQuery(invalidateOn = {Member.class, Team.class})
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
@@ -43,6 +54,18 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     // Slice
 //    Slice<Member> findByAge(int age, Pageable pageable);
 
+    /**
+     * count 쿼리 없이 size + 1 건을 읽어 다음 슬라이스 여부만 판단한다.
+     */
+    Slice<Member> findSliceBy(Pageable pageable);
+
+    /**
+     * 무한 스크롤 (member_id 커서). OFFSET 이 없으므로 뒤로 갈수록 느려지지 않는다.
+     */
+    @Query("select new study.datajpa.scroll.MemberScrollRow(m.id, m.username, t.id, t.name) from Member m left join m.team t " +
+            "where m.id > :afterId order by m.id")
+    Slice<MemberScrollRow> findScrollSlice(@Param("afterId") Long afterId, Pageable pageable);
+
     /**
      * Count Query
      * 쿼리가 복잡해질 경우 카운트 쿼리를 별도로 만들어서 관리해야한다.
@@ -54,9 +77,10 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     /**
      * 변경감지를 위해 @Modifying을 꼭 넣어줘야 한다.
      * clearAutomatically 는 em.clear를 별도로 붙이지 않아도 자동적으로 그 매커니즘을 실행시켜 준다.
+     * 하이버네이트 필터는 벌크 연산에 걸리지 않으므로 테넌트 조건을 직접 넣는다.
      */
     @Modifying(clearAutomatically = true)
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
+    @Query("update Member m set m.age = m.age + 1 where m.age >= :age and m.tenantId = " + TenantFilters.CURRENT_TENANT)
     int bulkAgePlus(@Param("age") int age);
 
     @Query("select m from Member m left join fetch m.team")
@@ -87,12 +111,42 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      */
     <T> List<T> findProjections2ByUsername(@Param("username") String username, Class<T> type);
 
-    @Query(value = "select * from member where username = ?", nativeQuery = true)
-    Member findByNativeQuery(String name);
+    @Query(value = "select * from member where username = :name and tenant_id = " + TenantFilters.CURRENT_TENANT, nativeQuery = true)
+    Member findByNativeQuery(@Param("name") String name);
 
+    @QueryTimeout(1000)
+    @CachedQuery(invalidateOn = {Member.class, Team.class})
     @Query(value = "select m.member_id as id, m.username, t.name as teamName " +
-            "from member m left join team t",
-            countQuery = "select count(*) from member",
+            "from member m left join team t on t.team_id = m.team_id where m.tenant_id = " + TenantFilters.CURRENT_TENANT,
+            countQuery = "select count(*) from member where tenant_id = " + TenantFilters.CURRENT_TENANT,
             nativeQuery = true)
     Page<MemberProjection> findByNativeProjection(Pageable pageable);
+
+    /**
+     * member_id 구간 스캔
+     * (afterId, lastId] 범위를 PK 순으로 잘라 가져오므로 OFFSET 없이 청크 단위로 이어서 읽을 수 있다.
+     */
+    @Query("select m from Member m where m.id > :afterId and m.id <= :lastId order by m.id")
+    List<Member> findIdRangeChunk(@Param("afterId") Long afterId, @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("select min(m.id) from Member m")
+    Long findMinId();
+
+    @Query("select max(m.id) from Member m")
+    Long findMaxId();
+
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t " +
+            "where m.id > :afterId order by m.id")
+    List<MemberDto> findMemberDtoChunk(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 읽기 인덱스는 기본 테넌트의 회원만 담는다. (스케줄러 스레드에는 테넌트 필터가 없으므로 직접 건다)
+     */
+    @Query("select new study.datajpa.memoryindex.MemberIndexRow(m.id, m.username, m.age, t.id) " +
+            "from Member m left join m.team t where m.id > :afterId and m.tenantId = '" + TenantFilters.DEFAULT_TENANT + "' order by m.id")
+    List<MemberIndexRow> findIndexRowChunk(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select new study.datajpa.memoryindex.MemberIndexRow(m.id, m.username, m.age, t.id) " +
+            "from Member m left join m.team t where m.lastModifiedDate >= :since and m.tenantId = '" + TenantFilters.DEFAULT_TENANT + "'")
+    List<MemberIndexRow> findIndexRowsModifiedSince(@Param("since") LocalDateTime since);
 }
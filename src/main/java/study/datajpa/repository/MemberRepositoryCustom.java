@@ -1,10 +1,15 @@
 package study.datajpa.repository;
 
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.domain.Member;
 
 import java.util.List;
 
 public interface MemberRepositoryCustom {
 
+    /**
+     * 사용자 정의 구현은 SimpleJpaRepository 의 readOnly 트랜잭션을 물려받지 않으므로 직접 선언한다. (테넌트 필터는 트랜잭션 시작 때 걸린다)
+     */
+    @Transactional(readOnly = true)
     List<Member> findMemberCustom();
 }
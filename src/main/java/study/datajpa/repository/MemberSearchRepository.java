@@ -0,0 +1,21 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.dto.MemberDto;
+
+import java.util.List;
+
+/**
+ * username 부분 검색/자동완성 fragment (대소문자 무시)
+ * member-index.enabled 이면 프로세스 내 검색 인덱스를 쓰고, 아니면 DB 에 LIKE 로 조회한다.
+ */
+public interface MemberSearchRepository {
+
+    /**
+     * 완전 일치, 접두어, 단어 시작, 부분 문자열 순으로 정렬한다. pageable 의 정렬은 무시한다.
+     */
+    Page<MemberDto> searchByUsername(String query, Pageable pageable);
+
+    List<String> autocompleteUsername(String prefix, int limit);
+}
@@ -0,0 +1,110 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.memoryindex.MemberIndexSnapshot;
+import study.datajpa.memoryindex.MemberUsernameSearch;
+import study.datajpa.memoryindex.UsernameSearchIndex;
+import study.datajpa.tenant.TenantContext;
+import study.datajpa.tenant.TenantFilters;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * DB 로 찾는 경로는 MemberLookupRepositoryImpl 처럼 읽기 전용 트랜잭션으로 감싸서 테넌트 필터가 걸리게 한다.
+ */
+public class MemberSearchRepositoryImpl implements MemberSearchRepository {
+
+    private final EntityManager em;
+    private final ObjectProvider<MemberUsernameSearch> usernameSearch;
+    private final TransactionTemplate readOnlyTx;
+
+    public MemberSearchRepositoryImpl(EntityManager em, ObjectProvider<MemberUsernameSearch> usernameSearch,
+                                      PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.usernameSearch = usernameSearch;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @Override
+    public Page<MemberDto> searchByUsername(String query, Pageable pageable) {
+        MemberUsernameSearch search = usernameSearch();
+        if (search == null) {
+            return readOnlyTx.execute(status -> searchInDatabase(query, pageable));
+        }
+        UsernameSearchIndex index = search.index();
+        MemberIndexSnapshot snapshot = index.getSnapshot();
+        int[] rows = index.search(query);
+
+        List<MemberDto> content = new ArrayList<>();
+        long from = pageable.isPaged() ? pageable.getOffset() : 0;
+        long to = pageable.isPaged() ? Math.min(rows.length, from + pageable.getPageSize()) : rows.length;
+        for (long i = from; i < to; i++) {
+            int row = rows[(int) i];
+            long teamId = snapshot.getTeamId(row);
+            content.add(new MemberDto(snapshot.getId(row), snapshot.getUsername(row),
+                    teamId == MemberIndexSnapshot.NO_TEAM ? null : snapshot.getTeamName(teamId)));
+        }
+        return new PageImpl<>(content, pageable, rows.length);
+    }
+
+    @Override
+    public List<String> autocompleteUsername(String prefix, int limit) {
+        MemberUsernameSearch search = usernameSearch();
+        if (search != null) {
+            return search.index().autocomplete(prefix, limit);
+        }
+        return readOnlyTx.execute(status -> em.createQuery("select distinct m.username from Member m" +
+                " where lower(m.username) like :prefix escape '\\' order by m.username", String.class)
+                .setParameter("prefix", escapeLike(prefix.toLowerCase(Locale.ROOT)) + "%")
+                .setMaxResults(limit)
+                .getResultList());
+    }
+
+    /**
+     * 메모리 인덱스는 기본 테넌트의 회원만 담고 있으므로, 다른 테넌트는 (테넌트 필터가 걸리는) DB 에서 찾는다.
+     */
+    private MemberUsernameSearch usernameSearch() {
+        String tenant = TenantContext.current();
+        return tenant == null || TenantFilters.DEFAULT_TENANT.equals(tenant) ? usernameSearch.getIfAvailable() : null;
+    }
+
+    /**
+     * 인덱스를 쓸 수 없는 '%x%' 조회다. 회원 수가 많으면 member-index.enabled 를 켜야 한다.
+     * 일치 정도 대신 길이 순으로만 정렬한다. (완전 일치가 가장 짧으므로 맨 앞에 온다)
+     * 메모리 인덱스(UsernameSearchIndex.search)와 같은 결과가 나오도록 빈 검색어는 결과가 없고,
+     * SHORT_QUERY_LENGTH 보다 짧은 검색어는 접두어로만 찾는다.
+     */
+    private Page<MemberDto> searchInDatabase(String query, Pageable pageable) {
+        String q = query.toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) {
+            return new PageImpl<>(new ArrayList<>(), pageable, 0);
+        }
+        String pattern = (q.length() < UsernameSearchIndex.SHORT_QUERY_LENGTH ? "" : "%") + escapeLike(q) + "%";
+        List<MemberDto> content = em.createQuery(
+                "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t" +
+                        " where lower(m.username) like :pattern escape '\\'" +
+                        " order by length(m.username), m.username, m.id", MemberDto.class)
+                .setParameter("pattern", pattern)
+                .setFirstResult(pageable.isPaged() ? (int) pageable.getOffset() : 0)
+                .setMaxResults(pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE)
+                .getResultList();
+        Long total = em.createQuery("select count(m) from Member m where lower(m.username) like :pattern escape '\\'", Long.class)
+                .setParameter("pattern", pattern)
+                .getSingleResult();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
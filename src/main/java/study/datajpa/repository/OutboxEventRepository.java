@@ -0,0 +1,27 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import study.datajpa.domain.OutboxEvent;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * lock.timeout = -2 는 Hibernate 의 LockOptions.SKIP_LOCKED 이다.
+     * 지원하는 DB(PostgreSQL, MySQL 8, Oracle)에서는 FOR UPDATE SKIP LOCKED 로 나가서 여러 노드가 서로 다른 행을 가져간다.
+     * H2 는 SKIP LOCKED 를 지원하지 않으므로 일반 FOR UPDATE 로 동작한다.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select o from OutboxEvent o where o.dispatchedAt is null order by o.id")
+    List<OutboxEvent> findPendingForDispatch(Pageable pageable);
+
+    long countByDispatchedAtIsNull();
+}
@@ -0,0 +1,36 @@
+package study.datajpa.repository;
+
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 애스펙트가 호출 대상을 "Owner.method" 로 기록할 때 쓰는 이름 (DbBudgetAspect, AllocationProfilingAspect)
+ */
+public final class RepositoryNames {
+
+    private static final String REPOSITORY_PACKAGE = RepositoryNames.class.getPackage().getName() + ".";
+
+    private static final Map<Class<?>, String> OWNER_NAMES = new ConcurrentHashMap<>();
+
+    private RepositoryNames() {
+    }
+
+    /**
+     * Spring Data 리포지토리는 JDK 프록시라서 선언 타입(CrudRepository 등) 대신 우리 리포지토리 인터페이스 이름을 쓴다.
+     */
+    public static String ownerName(Object target) {
+        return OWNER_NAMES.computeIfAbsent(ClassUtils.getUserClass(target), type -> {
+            if (Proxy.isProxyClass(type)) {
+                for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+                    if (ifc.getName().startsWith(REPOSITORY_PACKAGE)) {
+                        return ifc.getSimpleName();
+                    }
+                }
+            }
+            return type.getSimpleName();
+        });
+    }
+}
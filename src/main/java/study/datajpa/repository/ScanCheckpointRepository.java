@@ -0,0 +1,18 @@
+package study.datajpa.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import study.datajpa.domain.ScanCheckpoint;
+
+import java.util.List;
+
+public interface ScanCheckpointRepository extends JpaRepository<ScanCheckpoint, Long> {
+
+    List<ScanCheckpoint> findByJobNameOrderByRangeStart(String jobName);
+
+    @Modifying
+    @Query("delete from ScanCheckpoint c where c.jobName = :jobName")
+    int deleteByJobName(@Param("jobName") String jobName);
+}
@@ -1,8 +1,56 @@
 package study.datajpa.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.domain.Team;
+import study.datajpa.dto.TeamAgeCount;
+import study.datajpa.dto.TeamAggregate;
+import study.datajpa.memoryindex.TeamIndexRow;
+import study.datajpa.tenant.TenantFilters;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface TeamRepository extends JpaRepository<Team, Long> {
 
+    @Query("select new study.datajpa.memoryindex.TeamIndexRow(t.id, t.name) from Team t" +
+            " where t.tenantId = '" + TenantFilters.DEFAULT_TENANT + "'")
+    List<TeamIndexRow> findIndexRows();
+
+    @Query("select new study.datajpa.memoryindex.TeamIndexRow(t.id, t.name) from Team t" +
+            " where t.id in :ids and t.tenantId = '" + TenantFilters.DEFAULT_TENANT + "'")
+    List<TeamIndexRow> findIndexRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new study.datajpa.dto.TeamAgeCount(s.id.age, s.memberCount) from TeamAgeStats s" +
+            " where s.id.teamId = :teamId and s.memberCount > 0 order by s.id.age")
+    List<TeamAgeCount> findAgeCounts(@Param("teamId") Long teamId);
+
+    /**
+     * member 테이블을 읽지 않고 team_age_stats 만으로 만든다.
+     */
+    default TeamAggregate findAggregate(Long teamId) {
+        return TeamAggregate.of(teamId, findAgeCounts(teamId));
+    }
+
+    @Modifying
+    @Query(value = "delete from team_age_stats where age >= :age", nativeQuery = true)
+    int deleteAgeStatsFrom(@Param("age") int age);
+
+    @Modifying
+    @Query(value = "insert into team_age_stats (team_id, age, member_count)" +
+            " select team_id, age, count(*) from member where team_id is not null and age >= :age group by team_id, age",
+            nativeQuery = true)
+    int insertAgeStatsFrom(@Param("age") int age);
+
+    /**
+     * 전체 재계산 (기존 데이터에 처음 적용할 때)
+     */
+    @Transactional
+    default void rebuildAggregates() {
+        deleteAgeStatsFrom(Integer.MIN_VALUE);
+        insertAgeStatsFrom(Integer.MIN_VALUE);
+    }
 }
@@ -0,0 +1,154 @@
+package study.datajpa.scan;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.ScanCheckpoint;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.ScanCheckpointRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * member 테이블 전체를 대상으로 하는 작업을 member_id 구간으로 나누어 병렬로 처리한다.
+ * 각 구간은 chunkSize 건마다 별도 트랜잭션으로 커밋되고, 커밋과 함께 체크포인트가 갱신된다.
+ * 같은 jobName 으로 다시 실행하면 완료되지 않은 구간의 마지막 체크포인트부터 재개한다.
+ *
+ * 동시에 parallelism 개의 커넥션을 사용하므로 커넥션 풀 크기보다 작게 설정해야 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberScanExecutor {
+
+    private final MemberRepository memberRepository;
+    private final ScanCheckpointRepository scanCheckpointRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${member-scan.parallelism:4}")
+    private int parallelism;
+
+    @Value("${member-scan.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * id 가 고르게 분포하지 않으므로 스레드 수보다 많은 구간으로 나누어 먼저 끝난 스레드가 다음 구간을 가져가게 한다.
+     */
+    @Value("${member-scan.ranges-per-thread:4}")
+    private int rangesPerThread;
+
+    public ScanResult run(String jobName, Consumer<Member> action) {
+        long start = System.currentTimeMillis();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        List<ScanCheckpoint> ranges = tx.execute(status -> prepareRanges(jobName));
+        List<Long> pending = ranges.stream()
+                .filter(r -> !r.isCompleted())
+                .map(ScanCheckpoint::getId)
+                .collect(Collectors.toList());
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, threadFactory(jobName));
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (Long checkpointId : pending) {
+                futures.add(pool.submit(() -> scanRange(tx, checkpointId, action)));
+            }
+
+            long processed = 0;
+            Throwable failure = null;
+            for (Future<Long> future : futures) {
+                try {
+                    processed += future.get();
+                } catch (ExecutionException e) {
+                    failure = failure == null ? e.getCause() : failure;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ScanFailedException("scan interrupted: " + jobName, e);
+                }
+            }
+            if (failure != null) {
+                throw new ScanFailedException("scan failed, rerun to resume: " + jobName, failure);
+            }
+            return new ScanResult(jobName, ranges.size(), processed, System.currentTimeMillis() - start);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 체크포인트를 지워 다음 실행이 처음부터 시작하게 한다.
+     */
+    public void reset(String jobName) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> scanCheckpointRepository.deleteByJobName(jobName));
+    }
+
+    private List<ScanCheckpoint> prepareRanges(String jobName) {
+        List<ScanCheckpoint> existing = scanCheckpointRepository.findByJobNameOrderByRangeStart(jobName);
+        if (!existing.isEmpty()) {
+            return existing;
+        }
+
+        Long minId = memberRepository.findMinId();
+        Long maxId = memberRepository.findMaxId();
+        if (minId == null) {
+            return Collections.emptyList();
+        }
+
+        long lowerBound = minId - 1;
+        int count = parallelism * rangesPerThread;
+        long width = Math.max(1, (maxId - lowerBound + count - 1) / count);
+
+        List<ScanCheckpoint> ranges = new ArrayList<>();
+        for (long rangeStart = lowerBound; rangeStart < maxId; rangeStart += width) {
+            ranges.add(new ScanCheckpoint(jobName, rangeStart, Math.min(rangeStart + width, maxId)));
+        }
+        return scanCheckpointRepository.saveAll(ranges);
+    }
+
+    private long scanRange(TransactionTemplate tx, Long checkpointId, Consumer<Member> action) {
+        long processed = 0;
+        Integer count;
+        do {
+            count = tx.execute(status -> processChunk(checkpointId, action));
+            processed += count;
+        } while (count == chunkSize);
+        return processed;
+    }
+
+    private int processChunk(Long checkpointId, Consumer<Member> action) {
+        ScanCheckpoint checkpoint = scanCheckpointRepository.findById(checkpointId).get();
+        List<Member> chunk = memberRepository.findIdRangeChunk(
+                checkpoint.getLastProcessedId(), checkpoint.getRangeEnd(), PageRequest.of(0, chunkSize));
+
+        chunk.forEach(action);
+
+        long lastProcessedId = chunk.isEmpty() ? checkpoint.getLastProcessedId() : chunk.get(chunk.size() - 1).getId();
+        checkpoint.advance(lastProcessedId, chunk.size(), chunk.size() < chunkSize);
+        return chunk.size();
+    }
+
+    private static ThreadFactory threadFactory(String jobName) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "member-scan-" + jobName + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
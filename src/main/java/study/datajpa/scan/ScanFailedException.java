@@ -0,0 +1,8 @@
+package study.datajpa.scan;
+
+public class ScanFailedException extends RuntimeException {
+
+    public ScanFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpa.scan;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class ScanResult {
+
+    private final String jobName;
+    private final int ranges;
+    private final long processed;
+    private final long elapsedMillis;
+
+    public ScanResult(String jobName, int ranges, long processed, long elapsedMillis) {
+        this.jobName = jobName;
+        this.ranges = ranges;
+        this.processed = processed;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? processed : processed * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.scroll;
+
+import lombok.Getter;
+import study.datajpa.dto.MemberDto;
+
+/**
+ * 스크롤 슬라이스 조회용 프로젝션 (JPQL 생성자 표현식)
+ * 응답에는 없는 팀 id 를 함께 읽어, 선읽기한 슬라이스가 어떤 팀 변경에 영향을 받는지 판단한다.
+ */
+@Getter
+public class MemberScrollRow {
+
+    private final Long id;
+    private final String username;
+    private final Long teamId;
+    private final String teamName;
+
+    public MemberScrollRow(Long id, String username, Long teamId, String teamName) {
+        this.id = id;
+        this.username = username;
+        this.teamId = teamId;
+        this.teamName = teamName;
+    }
+
+    MemberDto toDto() {
+        return new MemberDto(id, username, teamName);
+    }
+}
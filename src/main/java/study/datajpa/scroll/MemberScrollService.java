@@ -0,0 +1,260 @@
+package study.datajpa.scroll;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberScroll;
+import study.datajpa.dto.ScrollPrefetchStats;
+import study.datajpa.querycache.QueryCacheInvalidator;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.tenant.TenantContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * member_id 커서 기반 무한 스크롤
+ * 슬라이스를 돌려줄 때 다음 슬라이스를 백그라운드에서 미리 읽어 (cursor, size) 별 버퍼에 잠깐 둔다.
+ * 클라이언트가 그 커서로 다시 요청하면 DB 를 거치지 않고 버퍼에서 응답한다.
+ * 아직 읽는 중이면 prefetch-wait-ms 까지만 기다리고, 그래도 안 끝났으면 직접 읽는다.
+ *
+ * 선읽기 전에 QueryCacheInvalidator 의 쓰기 기록 위치를 받아 두고, 그 뒤에 이 슬라이스에 닿는 쓰기가 있었으면 버리고 다시 읽는다.
+ * 슬라이스에 닿는 쓰기는 (afterId, 마지막 id] 범위의 회원(마지막 슬라이스면 그 뒤 전부)과 슬라이스에 든 회원의 팀에 대한 쓰기이다.
+ * 읽어 둔 슬라이스는 한 번만 쓰고, prefetch-ttl-ms 가 지나면 버린다.
+ * 버퍼는 테넌트별로 나뉘고, 선읽기도 요청한 테넌트로 실행한다.
+ */
+@Slf4j
+@Component
+public class MemberScrollService implements DisposableBean {
+
+    private final MemberRepository memberRepository;
+    private final QueryCacheInvalidator invalidator;
+    private final ThreadPoolExecutor prefetchPool;
+    private final boolean prefetch;
+    private final long ttlMillis;
+    private final long waitMillis;
+    private final int maxBuffered;
+
+    private final Map<String, Prefetched> buffer = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder prefetches = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    public MemberScrollService(MemberRepository memberRepository,
+                               QueryCacheInvalidator invalidator,
+                               @Value("${member-scroll.prefetch:true}") boolean prefetch,
+                               @Value("${member-scroll.prefetch-pool-size:2}") int poolSize,
+                               @Value("${member-scroll.prefetch-ttl-ms:30000}") long ttlMillis,
+                               @Value("${member-scroll.prefetch-wait-ms:50}") long waitMillis,
+                               @Value("${member-scroll.max-buffered:1000}") int maxBuffered) {
+        this.memberRepository = memberRepository;
+        this.invalidator = invalidator;
+        this.prefetch = prefetch;
+        this.ttlMillis = ttlMillis;
+        this.waitMillis = waitMillis;
+        this.maxBuffered = maxBuffered;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        // 밀리면 선읽기를 포기한다. (다음 요청이 직접 읽는다)
+        this.prefetchPool = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(poolSize * 16), r -> {
+            Thread thread = new Thread(r, "member-scroll-prefetch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param cursor 이전 응답의 nextCursor, 처음이면 null
+     */
+    public MemberScroll scroll(Long cursor, int size) {
+        requests.increment();
+        long afterId = cursor == null ? 0 : cursor;
+
+        Loaded loaded = takePrefetched(afterId, size);
+        if (loaded != null) {
+            hits.increment();
+        } else {
+            loaded = load(afterId, size);
+        }
+        MemberScroll scroll = loaded.scroll;
+        if (prefetch && scroll.isHasNext()) {
+            prefetch(scroll.getNextCursor(), size);
+        }
+        return scroll;
+    }
+
+    private Loaded load(long afterId, int size) {
+        Slice<MemberScrollRow> slice = memberRepository.findScrollSlice(afterId, PageRequest.of(0, size));
+        List<MemberScrollRow> rows = slice.getContent();
+        List<MemberDto> content = new ArrayList<>(rows.size());
+        Set<Long> teamIds = new HashSet<>();
+        for (MemberScrollRow row : rows) {
+            content.add(row.toDto());
+            if (row.getTeamId() != null) {
+                teamIds.add(row.getTeamId());
+            }
+        }
+        Long nextCursor = slice.hasNext() ? content.get(content.size() - 1).getId() : null;
+        // 마지막 슬라이스는 뒤에 새로 들어오는 회원도 담아야 하므로 범위 끝을 열어 둔다.
+        long lastId = slice.hasNext() ? nextCursor : Long.MAX_VALUE;
+        return new Loaded(new MemberScroll(content, nextCursor, slice.hasNext()), afterId, lastId, teamIds);
+    }
+
+    private void prefetch(long afterId, int size) {
+        String tenant = TenantContext.current();
+        String key = key(afterId, size);
+        if (buffer.containsKey(key)) {
+            return;
+        }
+        if (buffer.size() >= maxBuffered) {
+            evictExpired();
+            if (buffer.size() >= maxBuffered) {
+                return;
+            }
+        }
+
+        // 조회 전에 쓰기 기록 위치를 읽는다. 조회 도중의 쓰기도 꺼낼 때 검사된다.
+        long changeSequence = invalidator.changeSequence();
+        CompletableFuture<Loaded> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> TenantContext.callAs(tenant, () -> load(afterId, size)), prefetchPool);
+        } catch (RejectedExecutionException e) {
+            return;
+        }
+        Prefetched prefetched = new Prefetched(future, changeSequence, System.currentTimeMillis() + ttlMillis);
+        if (buffer.putIfAbsent(key, prefetched) == null) {
+            prefetches.increment();
+        } else {
+            future.cancel(false);
+        }
+    }
+
+    private Loaded takePrefetched(long afterId, int size) {
+        Prefetched prefetched = buffer.remove(key(afterId, size));
+        if (prefetched == null) {
+            return null;
+        }
+        if (prefetched.isExpired(System.currentTimeMillis())) {
+            discard(prefetched);
+            return null;
+        }
+        try {
+            // 선읽기가 밀려 있으면 오래 기다리지 않고 직접 읽는다.
+            Loaded loaded = prefetched.future.get(waitMillis, TimeUnit.MILLISECONDS);
+            if (!isStale(loaded, prefetched.changeSequence)) {
+                return loaded;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | CancellationException e) {
+            log.debug("member scroll prefetch unusable: afterId={}, size={}", afterId, size, e);
+        }
+        discard(prefetched);
+        return null;
+    }
+
+    private boolean isStale(Loaded loaded, long changeSequence) {
+        return invalidator.changedSince(changeSequence, Member.class, id -> id > loaded.afterId && id <= loaded.lastId)
+                || invalidator.changedSince(changeSequence, Team.class, loaded.teamIds::contains);
+    }
+
+    @Scheduled(fixedDelayString = "${member-scroll.prefetch-ttl-ms:30000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        buffer.forEach((key, prefetched) -> {
+            if (prefetched.isExpired(now) && buffer.remove(key, prefetched)) {
+                discard(prefetched);
+            }
+        });
+    }
+
+    public ScrollPrefetchStats stats() {
+        ScrollPrefetchStats stats = new ScrollPrefetchStats();
+        stats.setRequests(requests.sum());
+        stats.setHits(hits.sum());
+        stats.setPrefetches(prefetches.sum());
+        stats.setDiscarded(discarded.sum());
+        stats.setBuffered(buffer.size());
+        stats.setHitRatio(stats.getRequests() == 0 ? 0 : stats.getHits() / (double) stats.getRequests());
+        return stats;
+    }
+
+    /**
+     * 테스트용. 그 슬라이스의 선읽기가 끝날 때까지 기다린다.
+     */
+    void awaitPrefetched(long afterId, int size) {
+        Prefetched prefetched = buffer.get(key(afterId, size));
+        if (prefetched != null) {
+            prefetched.future.handle((loaded, e) -> null).join();
+        }
+    }
+
+    private void discard(Prefetched prefetched) {
+        prefetched.future.cancel(false);
+        discarded.increment();
+    }
+
+    private static String key(long afterId, int size) {
+        return TenantContext.current() + ":" + afterId + ":" + size;
+    }
+
+    @Override
+    public void destroy() {
+        prefetchPool.shutdownNow();
+    }
+
+    private static class Loaded {
+
+        private final MemberScroll scroll;
+        private final long afterId;
+        private final long lastId;
+        private final Set<Long> teamIds;
+
+        Loaded(MemberScroll scroll, long afterId, long lastId, Set<Long> teamIds) {
+            this.scroll = scroll;
+            this.afterId = afterId;
+            this.lastId = lastId;
+            this.teamIds = teamIds;
+        }
+    }
+
+    private static class Prefetched {
+
+        private final CompletableFuture<Loaded> future;
+        private final long changeSequence;
+        private final long expiresAt;
+
+        Prefetched(CompletableFuture<Loaded> future, long changeSequence, long expiresAt) {
+            this.future = future;
+            this.changeSequence = changeSequence;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
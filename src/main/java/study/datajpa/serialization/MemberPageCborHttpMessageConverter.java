@@ -0,0 +1,126 @@
+package study.datajpa.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberPage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MemberPage 를 CBOR 로 직접 쓴다. (application/cbor)
+ * 회원 한 명은 필드 이름 없이 [id, username, teamName] 배열로 쓰고, 중간 트리 없이 응답 스트림에 바로 쓴다.
+ */
+@Component
+public class MemberPageCborHttpMessageConverter extends AbstractHttpMessageConverter<MemberPage> {
+
+    public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+    public static final MediaType APPLICATION_CBOR = MediaType.parseMediaType(APPLICATION_CBOR_VALUE);
+
+    private final CBORFactory factory = new CBORFactory();
+
+    public MemberPageCborHttpMessageConverter() {
+        super(APPLICATION_CBOR);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return MemberPage.class == clazz;
+    }
+
+    @Override
+    protected void writeInternal(MemberPage page, HttpOutputMessage outputMessage) throws IOException {
+        write(page, outputMessage.getBody());
+    }
+
+    @Override
+    protected MemberPage readInternal(Class<? extends MemberPage> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return read(inputMessage.getBody());
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+        }
+    }
+
+    public void write(MemberPage page, OutputStream out) throws IOException {
+        // 응답 스트림은 컨테이너가 닫는다.
+        try (JsonGenerator generator = factory.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartObject();
+            generator.writeNumberField("page", page.getPage());
+            generator.writeNumberField("size", page.getSize());
+            generator.writeNumberField("totalElements", page.getTotalElements());
+            generator.writeFieldName("content");
+            List<MemberDto> content = page.getContent();
+            generator.writeStartArray(content.size());
+            for (MemberDto member : content) {
+                generator.writeStartArray(3);
+                if (member.getId() == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(member.getId());
+                }
+                generator.writeString(member.getUsername());
+                generator.writeString(member.getTeamName());
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    public MemberPage read(InputStream in) throws IOException {
+        try (JsonParser parser = factory.createParser(in)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            int number = 0;
+            int size = 0;
+            long totalElements = 0;
+            List<MemberDto> content = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "page":
+                        number = parser.getIntValue();
+                        break;
+                    case "size":
+                        size = parser.getIntValue();
+                        break;
+                    case "totalElements":
+                        totalElements = parser.getLongValue();
+                        break;
+                    case "content":
+                        expect(value, JsonToken.START_ARRAY);
+                        while (parser.nextToken() == JsonToken.START_ARRAY) {
+                            Long id = parser.nextToken() == JsonToken.VALUE_NULL ? null : parser.getLongValue();
+                            String username = parser.nextTextValue();
+                            String teamName = parser.nextTextValue();
+                            expect(parser.nextToken(), JsonToken.END_ARRAY);
+                            content.add(new MemberDto(id, username, teamName));
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return new MemberPage(content, number, size, totalElements);
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw new IllegalArgumentException("expected " + expected + " but was " + actual);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package study.datajpa.sharding;
+
+import lombok.Getter;
+import study.datajpa.dto.MemberDto;
+
+/**
+ * 샤드에서 읽은 회원 한 건. 병합 정렬에 쓰는 age 를 MemberDto 와 함께 들고 있다.
+ */
+@Getter
+class ShardMemberRow {
+
+    private final long id;
+    private final String username;
+    private final int age;
+    private final String teamName;
+
+    ShardMemberRow(long id, String username, int age, String teamName) {
+        this.id = id;
+        this.username = username;
+        this.age = age;
+        this.teamName = teamName;
+    }
+
+    MemberDto toDto() {
+        return new MemberDto(id, username, teamName);
+    }
+}
@@ -0,0 +1,30 @@
+package study.datajpa.sharding;
+
+/**
+ * 샤드 번호를 id 의 하위 자리에 넣는다. (id = sequence * shardCount + shard)
+ * 팀은 자기 id 의 샤드에, 회원은 소속 팀의 샤드에 저장되므로 id 만으로 샤드를 찾을 수 있다.
+ * 샤드 수를 바꾸면 기존 id 의 위치가 바뀌므로 재배치 없이 늘릴 수 없다.
+ */
+public class ShardRouter {
+
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardOf(long id) {
+        return (int) Math.floorMod(id, (long) shardCount);
+    }
+
+    public long idFor(int shard, long sequence) {
+        return sequence * shardCount + shard;
+    }
+}
@@ -0,0 +1,308 @@
+package study.datajpa.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import study.datajpa.dto.MemberDto;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * team_id 로 샤딩된 member/team 저장소 (샤드마다 DataSource 하나)
+ * JPA 리포지토리 아래에 놓인 계층이 아니라 shard_member/shard_team 테이블을 JDBC 로 직접 다루는 별도 저장소다.
+ * MemberRepository, TeamRepository 는 여전히 기본 DataSource 의 member/team 만 사용한다.
+ *
+ * 리포지토리 아래에서 DataSource 를 고르는 방식(AbstractRoutingDataSource)은 범위에서 뺐다.
+ * 1. 커넥션은 트랜잭션이 시작될 때 잡히므로 team_id 가 없는 조회(findAll, findByUsername, JPQL 조인)는 어차피 리포지토리 위에서 흩뿌려야 한다.
+ * 2. ConfigurableIdGenerator 는 시퀀스 블록을 DB 가 아닌 생성기 단위로 메모리에 들고 있어, 샤드마다 시퀀스를 두면 id 가 겹친다.
+ * 3. change_log, outbox_event, team_age_stats 와 이를 읽는 ChangeLogSequencer, MemberReadIndex, MemberWriteBehind 가 DB 하나를 전제로 한다.
+ * 그래서 샤딩은 이 저장소(/sharded/*)로만 제공하고, 기존 리포지토리를 샤드로 옮기는 일은 위 세 가지를 먼저 풀어야 한다.
+ * 회원/팀 id 로 찾는 조회는 샤드 하나에서 끝나고, 목록/카운트 조회는 모든 샤드에 병렬로 보낸 뒤 병합한다.
+ *
+ * 넘겨받은 DataSource 의 소유권을 가지므로 close() 에서 함께 닫는다.
+ *
+ * 페이지 조회는 샤드마다 offset + size 건을 정렬해서 가져와 병합하므로 뒤쪽 페이지일수록 비싸다.
+ * 깊은 페이지가 필요하면 정렬 키 기준 keyset 조회를 써야 한다.
+ */
+@Slf4j
+public class ShardedMemberStore implements AutoCloseable {
+
+    private static final Map<String, String> SORT_COLUMNS = new HashMap<>();
+
+    static {
+        SORT_COLUMNS.put("id", "m.member_id");
+        SORT_COLUMNS.put("username", "m.username");
+        SORT_COLUMNS.put("age", "m.age");
+    }
+
+    private static final String SELECT_MEMBER = "select m.member_id, m.username, m.age, t.name as team_name" +
+            " from shard_member m left join shard_team t on t.team_id = m.team_id";
+
+    private static final RowMapper<ShardMemberRow> ROW_MAPPER = (rs, rowNum) ->
+            new ShardMemberRow(rs.getLong("member_id"), rs.getString("username"), rs.getInt("age"), rs.getString("team_name"));
+
+    private final List<DataSource> dataSources;
+    private final List<NamedParameterJdbcTemplate> shards;
+    private final ShardRouter router;
+    private final ExecutorService pool;
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    public ShardedMemberStore(List<DataSource> dataSources) {
+        this.dataSources = new ArrayList<>(dataSources);
+        this.shards = dataSources.stream().map(NamedParameterJdbcTemplate::new).collect(Collectors.toList());
+        this.router = new ShardRouter(dataSources.size());
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(dataSources.size(), r -> {
+            Thread thread = new Thread(r, "shard-query-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void createSchema() {
+        for (NamedParameterJdbcTemplate shard : shards) {
+            JdbcTemplate jdbc = shard.getJdbcTemplate();
+            jdbc.execute("create sequence if not exists shard_id_seq");
+            jdbc.execute("create table if not exists shard_team (team_id bigint primary key, name varchar(255))");
+            jdbc.execute("create table if not exists shard_member (member_id bigint primary key, username varchar(255)," +
+                    " age int not null, team_id bigint references shard_team(team_id))");
+            jdbc.execute("create index if not exists idx_shard_member_username on shard_member(username)");
+            jdbc.execute("create index if not exists idx_shard_member_team on shard_member(team_id)");
+        }
+    }
+
+    public int getShardCount() {
+        return router.getShardCount();
+    }
+
+    public long saveTeam(String name) {
+        int shard = Math.floorMod(nextShard.getAndIncrement(), router.getShardCount());
+        long id = nextId(shard);
+        shards.get(shard).update("insert into shard_team (team_id, name) values (:id, :name)",
+                new MapSqlParameterSource("id", id).addValue("name", name));
+        return id;
+    }
+
+    /**
+     * @param teamId 없으면 샤드를 돌아가며 배정한다.
+     */
+    public long saveMember(String username, int age, Long teamId) {
+        int shard = teamId == null
+                ? Math.floorMod(nextShard.getAndIncrement(), router.getShardCount())
+                : router.shardOf(teamId);
+        long id = nextId(shard);
+        shards.get(shard).update("insert into shard_member (member_id, username, age, team_id) values (:id, :username, :age, :teamId)",
+                new MapSqlParameterSource("id", id)
+                        .addValue("username", username)
+                        .addValue("age", age)
+                        .addValue("teamId", teamId));
+        return id;
+    }
+
+    public Optional<MemberDto> findById(long memberId) {
+        List<ShardMemberRow> rows = shards.get(router.shardOf(memberId))
+                .query(SELECT_MEMBER + " where m.member_id = :id", new MapSqlParameterSource("id", memberId), ROW_MAPPER);
+        return rows.stream().findFirst().map(ShardMemberRow::toDto);
+    }
+
+    public List<MemberDto> findByTeamId(long teamId) {
+        return shards.get(router.shardOf(teamId))
+                .query(SELECT_MEMBER + " where m.team_id = :teamId order by m.member_id",
+                        new MapSqlParameterSource("teamId", teamId), ROW_MAPPER)
+                .stream()
+                .map(ShardMemberRow::toDto)
+                .collect(Collectors.toList());
+    }
+
+    public List<MemberDto> findByNames(Collection<String> names) {
+        if (names.isEmpty()) {
+            return new ArrayList<>();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("names", names);
+        List<List<ShardMemberRow>> results = scatter(shard ->
+                shard.query(SELECT_MEMBER + " where m.username in (:names) order by m.member_id", params, ROW_MAPPER));
+        return merge(results, Comparator.comparingLong(ShardMemberRow::getId), 0, Integer.MAX_VALUE);
+    }
+
+    public long count() {
+        return scatter(shard -> shard.getJdbcTemplate().queryForObject("select count(*) from shard_member", Long.class))
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    public Page<MemberDto> findAll(Pageable pageable) {
+        String orderBy = orderBy(pageable.getSort());
+        Comparator<ShardMemberRow> comparator = comparator(pageable.getSort());
+        if (pageable.isUnpaged()) {
+            List<List<ShardMemberRow>> results = scatter(shard ->
+                    shard.query(SELECT_MEMBER + " order by " + orderBy, ROW_MAPPER));
+            return new PageImpl<>(merge(results, comparator, 0, Integer.MAX_VALUE));
+        }
+
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        // 카운트와 내용을 샤드마다 한 작업에서 읽는다. (작업 안에서 풀에 다시 제출하면 풀이 막힐 수 있다)
+        List<ShardPage> results = scatter(shard -> new ShardPage(
+                shard.query(SELECT_MEMBER + " order by " + orderBy + " limit :limit", params, ROW_MAPPER),
+                shard.getJdbcTemplate().queryForObject("select count(*) from shard_member", Long.class)));
+        List<MemberDto> content = merge(results.stream().map(r -> r.rows).collect(Collectors.toList()),
+                comparator, pageable.getOffset(), pageable.getPageSize());
+        long total = results.stream().mapToLong(r -> r.count).sum();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) dataSource).close();
+                } catch (Exception e) {
+                    log.warn("shard data source close failed: {}", dataSource, e);
+                }
+            }
+        }
+    }
+
+    private long nextId(int shard) {
+        Long sequence = shards.get(shard).getJdbcTemplate().queryForObject("select next value for shard_id_seq", Long.class);
+        return router.idFor(shard, sequence);
+    }
+
+    private <T> List<T> scatter(Function<NamedParameterJdbcTemplate, T> query) {
+        List<CompletableFuture<T>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), pool))
+                .collect(Collectors.toList());
+        return futures.stream().map(ShardedMemberStore::join).collect(Collectors.toList());
+    }
+
+    /**
+     * 샤드별로 정렬된 결과를 k-way 병합해서 offset 부터 size 건을 돌려준다.
+     */
+    private static List<MemberDto> merge(List<List<ShardMemberRow>> sorted, Comparator<ShardMemberRow> comparator,
+                                         long offset, int size) {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>((a, b) -> comparator.compare(a.current, b.current));
+        for (List<ShardMemberRow> rows : sorted) {
+            Iterator<ShardMemberRow> iterator = rows.iterator();
+            if (iterator.hasNext()) {
+                queue.add(new Cursor(iterator));
+            }
+        }
+        List<MemberDto> content = new ArrayList<>();
+        long skipped = 0;
+        while (!queue.isEmpty() && content.size() < size) {
+            Cursor cursor = queue.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                content.add(cursor.current.toDto());
+            }
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+        return content;
+    }
+
+    private static String orderBy(Sort sort) {
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("unsupported sort property: " + order.getProperty());
+            }
+            orders.add(column + (order.isAscending() ? " asc" : " desc"));
+        }
+        // 샤드 간 병합 순서가 SQL 정렬과 같도록 항상 id 로 동점을 없앤다.
+        orders.add("m.member_id asc");
+        return String.join(", ", orders);
+    }
+
+    private static Comparator<ShardMemberRow> comparator(Sort sort) {
+        Comparator<ShardMemberRow> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<ShardMemberRow> next;
+            switch (order.getProperty()) {
+                case "id":
+                    next = Comparator.comparingLong(ShardMemberRow::getId);
+                    break;
+                case "username":
+                    // H2 의 기본 정렬과 같게 null 을 앞에 둔다.
+                    next = Comparator.comparing(ShardMemberRow::getUsername, Comparator.nullsFirst(Comparator.naturalOrder()));
+                    break;
+                case "age":
+                    next = Comparator.comparingInt(ShardMemberRow::getAge);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unsupported sort property: " + order.getProperty());
+            }
+            comparator = comparator.thenComparing(order.isAscending() ? next : next.reversed());
+        }
+        return comparator.thenComparingLong(ShardMemberRow::getId);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static class ShardPage {
+
+        private final List<ShardMemberRow> rows;
+        private final long count;
+
+        ShardPage(List<ShardMemberRow> rows, long count) {
+            this.rows = rows;
+            this.count = count;
+        }
+    }
+
+    private static class Cursor {
+
+        private final Iterator<ShardMemberRow> iterator;
+        private ShardMemberRow current;
+
+        Cursor(Iterator<ShardMemberRow> iterator) {
+            this.iterator = iterator;
+            this.current = iterator.next();
+        }
+
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            current = iterator.next();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package study.datajpa.sharding;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * sharding.enabled 는 별도 저장소 ShardedMemberStore 와 /sharded/* 만 켠다. MemberRepository, TeamRepository 는 샤딩되지 않는다. (ShardedMemberStore 참고)
+ * 샤드 DataSource 는 빈으로 등록하지 않는다. (등록하면 JPA 가 쓰는 기본 DataSource 자동 설정이 꺼진다)
+ * 대신 ShardedMemberStore 가 커넥션 풀을 소유하고, 빈이 내려갈 때 close() 에서 함께 닫는다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ShardedMemberStore shardedMemberStore(@Value("${sharding.urls}") String[] urls,
+                                                 @Value("${sharding.username:sa}") String username,
+                                                 @Value("${sharding.password:}") String password) {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (String url : urls) {
+            dataSources.add(DataSourceBuilder.create()
+                    .url(url.trim())
+                    .username(username)
+                    .password(password)
+                    .build());
+        }
+        ShardedMemberStore store = new ShardedMemberStore(dataSources);
+        try {
+            store.createSchema();
+        } catch (RuntimeException e) {
+            store.close();
+            throw e;
+        }
+        return store;
+    }
+}
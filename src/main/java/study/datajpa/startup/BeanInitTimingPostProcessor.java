@@ -0,0 +1,44 @@
+package study.datajpa.startup;
+
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 빈 생성 시작(인스턴스화 직전)부터 초기화 완료까지의 시간을 기록한다.
+ * 의존 빈의 생성 시간이 포함된(inclusive) 값이다.
+ */
+@Component
+public class BeanInitTimingPostProcessor implements InstantiationAwareBeanPostProcessor {
+
+    private final Map<String, Long> started = new ConcurrentHashMap<>();
+    private final Map<String, Long> elapsedNanos = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+        started.putIfAbsent(beanName, System.nanoTime());
+        return null;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Long start = started.remove(beanName);
+        if (start != null) {
+            elapsedNanos.put(beanName, System.nanoTime() - start);
+        }
+        return bean;
+    }
+
+    public Map<String, Long> slowestMillis(int limit) {
+        return elapsedNanos.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue() / 1_000_000,
+                        (a, b) -> a, LinkedHashMap::new));
+    }
+}
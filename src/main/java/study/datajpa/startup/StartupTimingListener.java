@@ -0,0 +1,68 @@
+package study.datajpa.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.*;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 기동 단계별 소요 시간과 가장 느린 빈을 ApplicationReadyEvent 시점에 로그로 남긴다.
+ * ApplicationStartingEvent 를 받아야 하므로 빈이 아니라 SpringApplication 에 직접 등록한다.
+ */
+@Slf4j
+public class StartupTimingListener implements ApplicationListener<SpringApplicationEvent> {
+
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private long last = System.nanoTime();
+
+    @Override
+    public void onApplicationEvent(SpringApplicationEvent event) {
+        String phase = phaseOf(event);
+        if (phase == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        phases.put(phase, (now - last) / 1_000_000);
+        last = now;
+
+        if (event instanceof ApplicationReadyEvent) {
+            report((ApplicationReadyEvent) event);
+        }
+    }
+
+    private void report(ApplicationReadyEvent event) {
+        StringBuilder report = new StringBuilder("startup timing (ms)");
+        phases.forEach((phase, millis) -> report.append("\n  ").append(phase).append(" = ").append(millis));
+
+        event.getApplicationContext().getBeanProvider(BeanInitTimingPostProcessor.class).ifAvailable(timings -> {
+            report.append("\n  slowest beans (inclusive)");
+            timings.slowestMillis(10).forEach((bean, millis) -> report.append("\n    ").append(bean).append(" = ").append(millis));
+        });
+        log.info(report.toString());
+    }
+
+    private static String phaseOf(ApplicationEvent event) {
+        if (event instanceof ApplicationStartingEvent) {
+            return "starting";
+        }
+        if (event instanceof ApplicationEnvironmentPreparedEvent) {
+            return "environment";
+        }
+        if (event instanceof ApplicationContextInitializedEvent) {
+            return "context initialized";
+        }
+        if (event instanceof ApplicationPreparedEvent) {
+            return "context prepared";
+        }
+        if (event instanceof ApplicationStartedEvent) {
+            return "context refresh";
+        }
+        if (event instanceof ApplicationReadyEvent) {
+            return "runners";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,115 @@
+package study.datajpa.teamstats;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * team_age_stats 증분 갱신 (flush 도중에 호출되므로 JDBC 로 직접 쓴다)
+ */
+public final class TeamAgeStatsSql {
+
+    private static final String UPDATE_SQL =
+            "update team_age_stats set member_count = member_count + ? where team_id = ? and age = ?";
+    private static final String INSERT_SQL =
+            "insert into team_age_stats (team_id, age, member_count) values (?, ?, ?)";
+    private static final String DELETE_TEAM_SQL = "delete from team_age_stats where team_id = ?";
+    private static final String TENANT_TEAMS = "team_id in (select team_id from team where tenant_id = ?)";
+    private static final String SELECT_FROM_AGE_SQL = "select team_id, age, member_count from team_age_stats" +
+            " where age >= ? and " + TENANT_TEAMS + " order by team_id, age desc for update";
+    private static final String SHIFT_SQL = "update team_age_stats set age = age + 1 where team_id = ? and age = ?";
+    private static final String DELETE_SQL = "delete from team_age_stats where team_id = ? and age = ?";
+    private static final String INSERT_TEAM_SQL = "insert into team_age_stats (team_id, age, member_count)" +
+            " select team_id, age, count(*) from member where team_id = ? group by team_id, age";
+
+    private TeamAgeStatsSql() {
+    }
+
+    /**
+     * 키 충돌(unique/primary key 위반)
+     */
+    private static final String DUPLICATE_KEY = "23505";
+
+    public static void apply(Connection connection, long teamId, int age, long delta) throws SQLException {
+        if (update(connection, teamId, age, delta)) {
+            return;
+        }
+        // (팀, 나이) 조합의 첫 회원. 다른 트랜잭션이 같은 조합을 먼저 만들었다면 키 충돌이 나므로 그 행에 더한다.
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+            insert.setLong(1, teamId);
+            insert.setInt(2, age);
+            insert.setLong(3, delta);
+            insert.executeUpdate();
+        } catch (SQLException e) {
+            if (!DUPLICATE_KEY.equals(e.getSQLState()) || !update(connection, teamId, age, delta)) {
+                throw e;
+            }
+        }
+    }
+
+    private static boolean update(Connection connection, long teamId, int age, long delta) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_SQL)) {
+            update.setLong(1, delta);
+            update.setLong(2, teamId);
+            update.setInt(3, age);
+            return update.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * bulkAgePlus(age) 반영: 그 테넌트 팀의 age 이상인 행의 나이를 하나씩 올린다.
+     * member 를 다시 집계하지 않고 team_age_stats 의 해당 행만 잠근 뒤 옮기므로, 동시에 들어온 증분과 서로 덮어쓰지 않는다.
+     * 범위로 지우지 않으므로 잠근 뒤에 다른 트랜잭션이 넣은 (팀, 나이) 행은 그대로 남는다.
+     */
+    public static void shiftAgesFrom(Connection connection, int age, String tenant) throws SQLException {
+        List<long[]> rows = new ArrayList<>();
+        try (PreparedStatement select = connection.prepareStatement(SELECT_FROM_AGE_SQL)) {
+            select.setInt(1, age);
+            select.setString(2, tenant);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new long[]{rs.getLong(1), rs.getInt(2), rs.getLong(3)});
+                }
+            }
+        }
+        // 잠근 행만 옮긴다. 팀마다 나이가 큰 행부터 제자리에서 age + 1 로 바꾸므로 옮길 자리는 이미 비어 있다.
+        // 잠근 뒤에 다른 트랜잭션이 (팀, age + 1) 행을 새로 만들었으면 그 행에 건수를 더하고 이 행을 지운다.
+        for (long[] row : rows) {
+            long teamId = row[0];
+            int rowAge = (int) row[1];
+            try (PreparedStatement shift = connection.prepareStatement(SHIFT_SQL)) {
+                shift.setLong(1, teamId);
+                shift.setInt(2, rowAge);
+                shift.executeUpdate();
+            } catch (SQLException e) {
+                if (!DUPLICATE_KEY.equals(e.getSQLState())) {
+                    throw e;
+                }
+                apply(connection, teamId, rowAge + 1, row[2]);
+                try (PreparedStatement delete = connection.prepareStatement(DELETE_SQL)) {
+                    delete.setLong(1, teamId);
+                    delete.setInt(2, rowAge);
+                    delete.executeUpdate();
+                }
+            }
+        }
+    }
+
+    public static void deleteTeam(Connection connection, long teamId) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement(DELETE_TEAM_SQL)) {
+            delete.setLong(1, teamId);
+            delete.executeUpdate();
+        }
+    }
+
+    public static void rebuildTeam(Connection connection, long teamId) throws SQLException {
+        deleteTeam(connection, teamId);
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_TEAM_SQL)) {
+            insert.setLong(1, teamId);
+            insert.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package study.datajpa.teamstats;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.Session;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.outbox.BulkAgeOutboxAspect;
+import study.datajpa.tenant.TenantFilters;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * bulkAgePlus 는 엔티티 이벤트가 없으므로 같은 트랜잭션에서 age 이상인 team_age_stats 행의 나이를 하나씩 올린다.
+ * bulkAgePlus 와 같은 테넌트(TenantFilters.currentOrDefault)의 팀만 옮긴다.
+ * member 를 GROUP BY 로 다시 집계해 덮어쓰면 그 사이 커밋된 증분이 사라지므로, 통계 행만 잠그고 옮긴다.
+ *
+ * BulkAgeOutboxAspect 안쪽에서 돈다. (바깥 advice 가 연 트랜잭션에 참여하고, 벌크 갱신 직후 통계를 옮긴다)
+ */
+@Aspect
+@Component
+@Order(TeamStatsBulkAspect.ORDER)
+@RequiredArgsConstructor
+public class TeamStatsBulkAspect {
+
+    public static final int ORDER = BulkAgeOutboxAspect.ORDER + 1;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Around("execution(int study.datajpa.repository.MemberRepository.bulkAgePlus(int))" +
+            " || execution(int study.datajpa.repository.MemberJpaRepository.bulkAgePlus(int))")
+    public Object refreshAgeStats(ProceedingJoinPoint joinPoint) {
+        int age = (int) joinPoint.getArgs()[0];
+        String tenant = TenantFilters.currentOrDefault();
+        return transactionTemplate.execute(status -> {
+            int updated = proceed(joinPoint);
+            if (updated > 0) {
+                em.unwrap(Session.class).doWork(connection -> TeamAgeStatsSql.shiftAgesFrom(connection, age, tenant));
+            }
+            return updated;
+        });
+    }
+
+    private static int proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return (int) joinPoint.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // bulkAgePlus 는 checked 예외를 선언하지 않는다.
+            throw new IllegalStateException(e);
+        }
+    }
+}
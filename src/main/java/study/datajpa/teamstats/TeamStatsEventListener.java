@@ -0,0 +1,97 @@
+package study.datajpa.teamstats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+
+import java.util.Objects;
+
+/**
+ * Member 저장/팀 변경/나이 변경/삭제를 team_age_stats 에 같은 트랜잭션으로 반영한다.
+ */
+@Slf4j
+public class TeamStatsEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Object[] state = event.getState();
+            EntityPersister persister = event.getPersister();
+            apply(event.getSession(), teamId(persister, state), age(persister, state), 1);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        Long toTeamId = teamId(persister, event.getState());
+        int toAge = age(persister, event.getState());
+        if (event.getOldState() == null) {
+            // 이전 상태 없이 갱신된 경우(분리된 엔티티를 update 로 재부착 등)는 새 팀만 다시 계산한다.
+            log.warn("member {} updated without old state; rebuilding stats of team {} only", event.getId(), toTeamId);
+            if (toTeamId != null) {
+                event.getSession().doWork(connection -> TeamAgeStatsSql.rebuildTeam(connection, toTeamId));
+            }
+            return;
+        }
+        Long fromTeamId = teamId(persister, event.getOldState());
+        int fromAge = age(persister, event.getOldState());
+        if (Objects.equals(fromTeamId, toTeamId) && fromAge == toAge) {
+            return;
+        }
+        apply(event.getSession(), fromTeamId, fromAge, -1);
+        apply(event.getSession(), toTeamId, toAge, 1);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        EntityPersister persister = event.getPersister();
+        if (event.getEntity() instanceof Member) {
+            apply(event.getSession(), teamId(persister, event.getDeletedState()), age(persister, event.getDeletedState()), -1);
+        } else if (event.getEntity() instanceof Team) {
+            long teamId = (Long) event.getId();
+            event.getSession().doWork(connection -> TeamAgeStatsSql.deleteTeam(connection, teamId));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private static void apply(EventSource session, Long teamId, int age, long delta) {
+        if (teamId != null) {
+            session.doWork(connection -> TeamAgeStatsSql.apply(connection, teamId, age, delta));
+        }
+    }
+
+    private static int age(EntityPersister persister, Object[] state) {
+        return (Integer) state[persister.getEntityMetamodel().getPropertyIndex("age")];
+    }
+
+    /**
+     * 프록시를 초기화하지 않고 식별자만 꺼낸다.
+     */
+    private static Long teamId(EntityPersister persister, Object[] state) {
+        Team team = (Team) state[persister.getEntityMetamodel().getPropertyIndex("team")];
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return team.getId();
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpa.tenant;
+
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+
+/**
+ * 트랜잭션을 시작할 때 현재 테넌트로 하이버네이트 필터를 건다.
+ * 리포지토리 메서드는 모두 (readOnly 포함) 트랜잭션 안에서 실행되므로 여기 한 곳이면 된다.
+ * 사용자 정의 구현(fragment)은 리포지토리 트랜잭션을 물려받지 않으므로, DB 를 읽는 곳에서 직접 트랜잭션을 연다.
+ * (MemberLookupRepositoryImpl, MemberSearchRepositoryImpl, MemberRepositoryCustom)
+ */
+class TenantAwareJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        TenantFilters.enable(entityManager.unwrap(Session.class));
+        return transactionData;
+    }
+}
@@ -0,0 +1,42 @@
+package study.datajpa.tenant;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드의 테넌트. 웹 요청은 TenantFilter 가 채운다.
+ * 비어 있으면(스케줄러, 배치, 테스트) 테넌트 필터와 제한을 적용하지 않는다.
+ * (필터가 걸리지 않는 네이티브 쿼리와 벌크 연산은 기본 테넌트로 본다. TenantFilters.currentOrDefault)
+ * 다른 스레드로 작업을 넘길 때는 callAs 로 테넌트를 옮겨야 한다.
+ */
+public final class TenantContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    /**
+     * @return 현재 테넌트, 없으면 null
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T callAs(String tenant, Supplier<T> action) {
+        String previous = CURRENT.get();
+        set(tenant);
+        try {
+            return action.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    static void set(String tenant) {
+        if (tenant == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(tenant);
+        }
+    }
+}
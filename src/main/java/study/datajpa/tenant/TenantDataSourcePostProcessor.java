@@ -0,0 +1,64 @@
+package study.datajpa.tenant;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import study.datajpa.dbbudget.DbBudgetDataSourcePostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * JPA 가 쓰는 기본 DataSource 빈만 TenantPartitionedDataSource 로 감싼다. (다른 DataSource 빈은 그대로 둔다)
+ * 테넌트 제한(tenant.max-connections, tenant.rate-per-second)이 모두 꺼져 있으면 감싸지 않는다.
+ * DB 예산 래퍼보다 먼저(안쪽에) 감싸므로, 테넌트 몫을 기다린 시간도 요청의 DB 예산에서 차감된다.
+ */
+@Component
+public class TenantDataSourcePostProcessor implements BeanPostProcessor, BeanFactoryAware, Ordered {
+
+    public static final int ORDER = DbBudgetDataSourcePostProcessor.ORDER - 1;
+
+    /**
+     * DataSourceAutoConfiguration 이 등록하는 빈 이름
+     */
+    private static final String PRIMARY_DATA_SOURCE = "dataSource";
+
+    private final ObjectProvider<TenantLimiter> limiter;
+    private ConfigurableListableBeanFactory beanFactory;
+
+    public TenantDataSourcePostProcessor(ObjectProvider<TenantLimiter> limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof TenantPartitionedDataSource) && isPrimary(beanName)) {
+            TenantLimiter tenantLimiter = limiter.getObject();
+            if (tenantLimiter.isEnabled()) {
+                return new TenantPartitionedDataSource((DataSource) bean, tenantLimiter);
+            }
+        }
+        return bean;
+    }
+
+    private boolean isPrimary(String beanName) {
+        if (beanFactory.containsBeanDefinition(beanName) && beanFactory.getBeanDefinition(beanName).isPrimary()) {
+            return true;
+        }
+        return PRIMARY_DATA_SOURCE.equals(beanName);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,66 @@
+package study.datajpa.tenant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * 요청 헤더(tenant.header)에서 테넌트를 읽는다. 헤더가 없으면 기본 테넌트(TenantFilters.DEFAULT_TENANT)다.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TenantFilter extends OncePerRequestFilter {
+
+    private static final Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final String header;
+
+    public TenantFilter(@Value("${tenant.header:X-Tenant-Id}") String header) {
+        this.header = header;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String tenant = request.getHeader(header);
+        if (!StringUtils.hasText(tenant)) {
+            tenant = TenantFilters.DEFAULT_TENANT;
+        } else if (!TENANT_ID.matcher(tenant).matches()) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "invalid " + header);
+            return;
+        }
+        TenantContext.set(tenant);
+        try {
+            chain.doFilter(request, response);
+        } catch (ServletException | RuntimeException e) {
+            // 커넥션 획득 중에 던져지면 트랜잭션 매니저/하이버네이트 예외로 감싸져 올라온다.
+            TenantThrottledException throttled = findThrottled(e);
+            if (throttled == null || response.isCommitted()) {
+                throw e;
+            }
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), throttled.getMessage());
+        } finally {
+            TenantContext.set(null);
+        }
+    }
+
+    private static TenantThrottledException findThrottled(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TenantThrottledException) {
+                return (TenantThrottledException) cause;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,45 @@
+package study.datajpa.tenant;
+
+import org.hibernate.Session;
+
+/**
+ * Member/Team 의 tenant_id 구분자와 하이버네이트 필터 정의
+ * 필터는 JPQL/Criteria 조회에만 적용된다. find(id) 는 TenantGuardListener 가, 네이티브 쿼리와 벌크 연산은 각 쿼리가 직접 막아야 한다.
+ */
+public final class TenantFilters {
+
+    public static final String NAME = "tenant";
+    public static final String PARAM = "tenantId";
+    public static final String CONDITION = "tenant_id = :" + PARAM;
+    public static final String DEFAULT_TENANT = "default";
+    /**
+     * 네이티브 쿼리/벌크 연산의 @Query 에 넣는 현재 테넌트 파라미터 (SpEL, currentOrDefault)
+     * 예: "... and m.tenant_id = " + CURRENT_TENANT
+     */
+    public static final String CURRENT_TENANT = ":#{T(study.datajpa.tenant.TenantFilters).currentOrDefault()}";
+    /**
+     * JDBC 로 직접 넣는 행(벌크 적재, 부하 테스트 시드)은 기본 테넌트가 된다.
+     */
+    public static final String COLUMN_DEFINITION = "varchar(64) default '" + DEFAULT_TENANT + "' not null";
+
+    private TenantFilters() {
+    }
+
+    /**
+     * 필터가 걸리지 않는 곳(네이티브 쿼리, 벌크 연산, JDBC)에서 쓰는 테넌트. 테넌트가 없으면 기본 테넌트로 본다.
+     */
+    public static String currentOrDefault() {
+        String tenant = TenantContext.current();
+        return tenant != null ? tenant : DEFAULT_TENANT;
+    }
+
+    /**
+     * 현재 테넌트가 있으면 세션에 필터를 건다. 이미 걸려 있으면 파라미터만 다시 설정된다.
+     */
+    static void enable(Session session) {
+        String tenant = TenantContext.current();
+        if (tenant != null) {
+            session.enableFilter(NAME).setParameter(PARAM, tenant);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package study.datajpa.tenant;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+
+/**
+ * 필터는 find(id)/getReference, 지연 로딩된 연관 엔티티에는 적용되지 않는다.
+ * 로딩된 Member/Team 의 tenant_id 가 현재 테넌트와 다르면 예외로 막는다.
+ */
+public class TenantGuardListener implements PostLoadEventListener {
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        String tenant = TenantContext.current();
+        if (tenant == null) {
+            return;
+        }
+        Object entity = event.getEntity();
+        String owner;
+        if (entity instanceof Member) {
+            owner = ((Member) entity).getTenantId();
+        } else if (entity instanceof Team) {
+            owner = ((Team) entity).getTenantId();
+        } else {
+            return;
+        }
+        if (!tenant.equals(owner)) {
+            throw new TenantMismatchException(event.getPersister().getEntityName() + "#" + event.getId() + " not found");
+        }
+    }
+}
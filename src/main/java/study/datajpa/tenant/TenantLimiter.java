@@ -0,0 +1,116 @@
+package study.datajpa.tenant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.TenantStats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 테넌트별 DB 커넥션 몫(공유 풀의 파티션)과 커넥션 획득 토큰 버킷
+ * 한 테넌트가 풀을 전부 점유하지 못하므로, 나머지 커넥션은 다른 테넌트가 대기 없이 쓴다.
+ * max-connections, rate-per-second 가 0 이면 그 제한은 걸지 않는다. (기본값은 둘 다 0, 켜야 동작한다)
+ */
+@Component
+public class TenantLimiter {
+
+    private final int maxConnections;
+    private final long acquireTimeoutMillis;
+    private final double ratePerSecond;
+    private final double burst;
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+
+    public TenantLimiter(@Value("${tenant.max-connections:0}") int maxConnections,
+                         @Value("${tenant.acquire-timeout-ms:50}") long acquireTimeoutMillis,
+                         @Value("${tenant.rate-per-second:0}") double ratePerSecond,
+                         @Value("${tenant.burst:400}") double burst) {
+        this.maxConnections = maxConnections;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+    }
+
+    boolean isEnabled() {
+        return maxConnections > 0 || ratePerSecond > 0;
+    }
+
+    /**
+     * 커넥션을 받기 전에 호출한다. 성공하면 커넥션을 닫을 때 release 해야 한다.
+     */
+    void acquire(String tenant) {
+        Partition partition = partition(tenant);
+        if (partition.tokens != null && !partition.tokens.tryAcquire()) {
+            partition.throttled.increment();
+            throw new TenantThrottledException(tenant + ": db rate limit exceeded");
+        }
+        if (!tryAcquireConnection(partition)) {
+            partition.throttled.increment();
+            throw new TenantThrottledException(tenant + ": all " + maxConnections + " db connections in use");
+        }
+        partition.acquired.increment();
+    }
+
+    private boolean tryAcquireConnection(Partition partition) {
+        if (partition.connections == null) {
+            return true;
+        }
+        try {
+            return partition.connections.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    void release(String tenant) {
+        Partition partition = partition(tenant);
+        if (partition.connections != null) {
+            partition.connections.release();
+        }
+    }
+
+    public List<TenantStats> snapshot() {
+        List<TenantStats> result = new ArrayList<>();
+        partitions.forEach((tenant, partition) -> {
+            TenantStats stats = new TenantStats();
+            stats.setTenant(tenant);
+            stats.setActiveConnections(partition.connections == null ? 0 : maxConnections - partition.connections.availablePermits());
+            stats.setMaxConnections(maxConnections);
+            stats.setAcquired(partition.acquired.sum());
+            stats.setThrottled(partition.throttled.sum());
+            result.add(stats);
+        });
+        result.sort(Comparator.comparing(TenantStats::getTenant));
+        return result;
+    }
+
+    private Partition partition(String tenant) {
+        return partitions.computeIfAbsent(tenant, t -> new Partition(
+                maxConnections > 0 ? new Semaphore(maxConnections, true) : null,
+                ratePerSecond > 0 ? new TokenBucket(ratePerSecond, burst) : null));
+    }
+
+    private static class Partition {
+
+        private final Semaphore connections;
+        private final TokenBucket tokens;
+        private final LongAdder acquired = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+
+        /**
+         * @param connections 먼저 기다린 요청이 먼저 받도록 fair 세마포어, 제한이 없으면 null
+         * @param tokens 제한이 없으면 null
+         */
+        Partition(Semaphore connections, TokenBucket tokens) {
+            this.connections = connections;
+            this.tokens = tokens;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package study.datajpa.tenant;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 다른 테넌트의 엔티티를 읽으려 했다. 존재 여부도 드러내지 않도록 404 로 응답한다.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class TenantMismatchException extends RuntimeException {
+
+    public TenantMismatchException(String message) {
+        super(message);
+    }
+}
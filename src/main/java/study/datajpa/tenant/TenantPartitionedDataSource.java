@@ -0,0 +1,62 @@
+package study.datajpa.tenant;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 테넌트가 있는 스레드는 TenantLimiter 에서 몫을 받은 뒤에만 커넥션을 얻고, 커넥션을 닫을 때 돌려준다.
+ * OSIV 에서는 요청의 첫 조회부터 요청이 끝날 때까지 커넥션 하나를 쥐고 있으므로, 몫은 곧 테넌트의 동시 요청 수다.
+ */
+class TenantPartitionedDataSource extends DelegatingDataSource {
+
+    private final TenantLimiter limiter;
+
+    TenantPartitionedDataSource(DataSource target, TenantLimiter limiter) {
+        super(target);
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String tenant = TenantContext.current();
+        if (tenant == null) {
+            return super.getConnection();
+        }
+        limiter.acquire(tenant);
+        Connection connection;
+        try {
+            connection = super.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            limiter.release(tenant);
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            if (released.compareAndSet(false, true)) {
+                                limiter.release(tenant);
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,15 @@
+package study.datajpa.tenant;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 테넌트의 DB 커넥션 몫이나 토큰을 다 썼다. 다른 테넌트를 기다리게 하지 않도록 바로 실패한다.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TenantThrottledException extends RuntimeException {
+
+    public TenantThrottledException(String message) {
+        super(message);
+    }
+}
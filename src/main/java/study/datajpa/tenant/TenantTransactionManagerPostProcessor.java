@@ -0,0 +1,21 @@
+package study.datajpa.tenant;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * JpaTransactionManager 의 JpaDialect 를 TenantAwareJpaDialect 로 바꾼다.
+ * afterPropertiesSet 이 EntityManagerFactory 의 dialect 로 덮어쓰므로 초기화가 끝난 뒤에 바꾼다.
+ */
+@Component
+public class TenantTransactionManagerPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof JpaTransactionManager) {
+            ((JpaTransactionManager) bean).setJpaDialect(new TenantAwareJpaDialect());
+        }
+        return bean;
+    }
+}
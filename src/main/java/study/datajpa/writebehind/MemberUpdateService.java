@@ -0,0 +1,48 @@
+package study.datajpa.writebehind;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.tenant.TenantFilters;
+
+import javax.persistence.EntityNotFoundException;
+
+/**
+ * 회원 username/age 수정
+ * write-behind.enabled 이면 MemberWriteBehind 버퍼를 거치고, 아니면 JPA 변경 감지로 바로 수정한다.
+ * 버퍼는 기본 테넌트만 다루므로 다른 테넌트의 요청은 JPA 로 수정한다. (테넌트 필터/TenantGuardListener 가 막는다)
+ * 트랜잭션 밖에서 호출해야 버퍼를 거친다. (호출자 트랜잭션 안이면 MemberWriteBehind 가 그 트랜잭션에서 바로 쓴다)
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberUpdateService {
+
+    private final MemberRepository memberRepository;
+    private final ObjectProvider<MemberWriteBehind> memberWriteBehind;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * @param username null 이면 바꾸지 않는다
+     * @param age      null 이면 바꾸지 않는다
+     */
+    public void update(Long memberId, String username, Integer age) {
+        MemberWriteBehind writeBehind = memberWriteBehind.getIfAvailable();
+        if (writeBehind != null && TenantFilters.DEFAULT_TENANT.equals(TenantFilters.currentOrDefault())) {
+            writeBehind.update(memberId, username, age);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = memberRepository.findById(memberId)
+                    .orElseThrow(() -> new EntityNotFoundException("member not found: " + memberId));
+            if (username != null) {
+                member.setUsername(username);
+            }
+            if (age != null) {
+                member.setAge(age);
+            }
+        });
+    }
+}
@@ -0,0 +1,470 @@
+package study.datajpa.writebehind;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.domain.ChangeType;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.OutboxEventType;
+import study.datajpa.querycache.QueryCacheInvalidator;
+import study.datajpa.teamstats.TeamAgeStatsSql;
+import study.datajpa.tenant.TenantFilters;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 같은 회원에 대한 잦은 age/username 변경을 버퍼에 모아 두었다가 flush-interval-ms 마다 한 번의 JDBC 배치로 반영한다.
+ * 같은 회원의 변경은 필드별로 마지막 값만 남는다.
+ *
+ * 회원 수정(MemberUpdateService, PATCH /members/{id})은 write-behind.enabled 일 때 이 버퍼를 거친다.
+ * 읽기 인덱스처럼 기본 테넌트의 회원만 다룬다. (다른 테넌트의 회원은 찾지 못한 것으로 실패한다)
+ *
+ * 배치는 하나의 트랜잭션으로 커밋하며, 하이버네이트를 거치지 않으므로 엔티티 리스너가 하던 부수 효과를 같은 트랜잭션에서 직접 처리한다.
+ * (team_age_stats 증분, change_log UPDATE, outbox MEMBER_UPDATED, last_modified_date/last_modified_by)
+ *
+ * 호출 스레드에 트랜잭션이 있으면 FLUSHED 응답을 기다리지 않고 그 트랜잭션 안에서 바로 쓴다.
+ * 호출자 트랜잭션이 같은 회원 행을 잠그고 있으면 배치가 그 잠금을 기다리느라 ack-timeout-ms 까지 응답이 묶이기 때문이다.
+ * 이때 버퍼에 남아 있거나 이미 배치로 넘어간 같은 회원의 변경도 함께 가져와 쓰고, 그 ack 는 호출자 트랜잭션의 커밋/롤백을 따른다.
+ *
+ * 주의: 버퍼에 있는 동안 JPA 로 같은 회원을 읽으면 이전 값이 보이고, 그 사이 JPA 로 같은 필드를 바꾸면 flush 시점에 덮어쓴다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "write-behind.enabled", havingValue = "true")
+public class MemberWriteBehind {
+
+    private static final String SELECT_SQL = "select member_id, username, age, team_id from member" +
+            " where member_id in (%s) and tenant_id = '" + TenantFilters.DEFAULT_TENANT + "' for update";
+    private static final String UPDATE_SQL = "update member set username = coalesce(?, username), age = coalesce(?, age)," +
+            " last_modified_date = ?, last_modified_by = ? where member_id = ?";
+    private static final String CHANGE_LOG_SQL =
+            "insert into change_log (entity_name, entity_id, change_type, changed_at) values (?, ?, ?, ?)";
+    private static final String OUTBOX_SQL =
+            "insert into outbox_event (aggregate_type, aggregate_id, event_type, payload, created_at) values (?, ?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+    private final AuditorAware<String> auditorAware;
+    private final QueryCacheInvalidator queryCacheInvalidator;
+    private final WriteBehindMetrics metrics;
+    private final int maxPending;
+    private final int batchSize;
+    private final WriteAck defaultAck;
+    private final long ackTimeoutMillis;
+
+    private final Object bufferLock = new Object();
+    private final Object flushLock = new Object();
+    @PersistenceContext
+    private EntityManager em;
+
+    private Map<Long, Pending> pending = new LinkedHashMap<>();
+    /**
+     * 버퍼에서 꺼내 지금 쓰고 있는 배치 (bufferLock)
+     */
+    private Map<Long, Pending> inFlight = Collections.emptyMap();
+
+    public MemberWriteBehind(DataSource dataSource,
+                             AuditorAware<String> auditorAware,
+                             QueryCacheInvalidator queryCacheInvalidator,
+                             WriteBehindMetrics metrics,
+                             @Value("${write-behind.max-pending:10000}") int maxPending,
+                             @Value("${write-behind.batch-size:500}") int batchSize,
+                             @Value("${write-behind.ack:flushed}") String defaultAck,
+                             @Value("${write-behind.ack-timeout-ms:5000}") long ackTimeoutMillis) {
+        this.dataSource = dataSource;
+        this.auditorAware = auditorAware;
+        this.queryCacheInvalidator = queryCacheInvalidator;
+        this.metrics = metrics;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.defaultAck = WriteAck.valueOf(defaultAck.toUpperCase());
+        this.ackTimeoutMillis = ackTimeoutMillis;
+    }
+
+    /**
+     * write-behind.ack 설정대로 응답한다.
+     */
+    public void update(Long memberId, String username, Integer age) {
+        update(memberId, username, age, defaultAck);
+    }
+
+    public void updateAge(Long memberId, int age) {
+        update(memberId, null, age, defaultAck);
+    }
+
+    public void updateUsername(Long memberId, String username) {
+        update(memberId, username, null, defaultAck);
+    }
+
+    /**
+     * @param username null 이면 바꾸지 않는다
+     * @param age      null 이면 바꾸지 않는다
+     */
+    public void update(Long memberId, String username, Integer age, WriteAck ack) {
+        if (ack == WriteAck.FLUSHED && TransactionSynchronizationManager.isActualTransactionActive()) {
+            writeInCurrentTransaction(memberId, username, age);
+            return;
+        }
+        CompletableFuture<Void> flushed = submit(memberId, username, age);
+        if (ack == WriteAck.NONE) {
+            return;
+        }
+        try {
+            flushed.get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for write-behind flush: " + memberId, e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("write-behind flush timed out: " + memberId, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("write-behind flush failed: " + memberId, e.getCause());
+        }
+    }
+
+    /**
+     * 버퍼에 넣는다. 돌려받은 future 는 이 변경이 포함된 배치가 커밋되면 완료된다.
+     */
+    public CompletableFuture<Void> submit(Long memberId, String username, Integer age) {
+        if (memberId == null) {
+            throw new IllegalArgumentException("memberId");
+        }
+        CompletableFuture<Void> flushed = new CompletableFuture<>();
+        int size;
+        String modifiedBy = auditorAware.getCurrentAuditor().orElse(null);
+        synchronized (bufferLock) {
+            pending.computeIfAbsent(memberId, id -> new Pending()).merge(username, age, modifiedBy, flushed);
+            size = pending.size();
+        }
+        metrics.recordSubmit();
+        if (size >= maxPending) {
+            // 스케줄러가 따라오지 못하면 호출 스레드가 직접 비운다.
+            flush();
+        }
+        return flushed;
+    }
+
+    public int pendingCount() {
+        synchronized (bufferLock) {
+            return pending.size();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${write-behind.flush-interval-ms:200}")
+    public void flush() {
+        // 같은 회원이 연속된 두 배치에 들어갈 수 있으므로 배치는 하나씩 순서대로 커밋한다.
+        synchronized (flushLock) {
+            Map<Long, Pending> batch;
+            synchronized (bufferLock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                inFlight = batch;
+            }
+            try {
+                write(batch);
+            } finally {
+                synchronized (bufferLock) {
+                    inFlight = Collections.emptyMap();
+                }
+            }
+        }
+    }
+
+    /**
+     * 호출자 트랜잭션의 커넥션으로 바로 쓴다. 같은 회원의 아직 쓰지 않은 변경을 먼저 합친다.
+     * 이미 배치로 넘어간 변경은 배치에서 빼고(superseded) 여기서 함께 쓰므로, 배치가 나중에 이전 값으로 덮어쓰지 않는다.
+     * (배치가 이 회원 행을 먼저 잠갔다면 여기서 그 커밋을 기다린 뒤 새 값으로 쓴다)
+     */
+    private void writeInCurrentTransaction(Long memberId, String username, Integer age) {
+        if (memberId == null) {
+            throw new IllegalArgumentException("memberId");
+        }
+        Pending merged = new Pending();
+        synchronized (bufferLock) {
+            Pending flushing = inFlight.get(memberId);
+            if (flushing != null) {
+                flushing.superseded = true;
+                merged.absorb(flushing);
+            }
+            Pending buffered = pending.remove(memberId);
+            if (buffered != null) {
+                merged.absorb(buffered);
+            }
+        }
+        merged.merge(username, age, auditorAware.getCurrentAuditor().orElse(null), null);
+        if (em.isJoinedToTransaction()) {
+            // 같은 트랜잭션에서 아직 flush 하지 않은 JPA 변경(새 회원 등)이 먼저 보이게 한다.
+            em.flush();
+        }
+
+        Map<Long, Pending> batch = Collections.singletonMap(memberId, merged);
+        List<Long> ids = Collections.singletonList(memberId);
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            Map<Long, Current> found = select(connection, ids);
+            if (found.isEmpty()) {
+                throw new EntityNotFoundException("member not found: " + memberId);
+            }
+            writeChunk(connection, ids, batch, found);
+            queryCacheInvalidator.invalidate(Member.class, ids);
+        } catch (SQLException e) {
+            merged.fail(e);
+            throw new IllegalStateException("write-behind synchronous write failed: " + memberId, e);
+        } catch (RuntimeException e) {
+            merged.fail(e);
+            throw e;
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+        metrics.recordSubmit();
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    merged.complete();
+                } else {
+                    merged.fail(new IllegalStateException("caller transaction rolled back: " + memberId));
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    private void write(Map<Long, Pending> batch) {
+        long start = System.nanoTime();
+        long updates = 0;
+        for (Pending p : batch.values()) {
+            updates += p.updates;
+        }
+
+        Map<Long, Current> found = new HashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                List<Long> ids = new ArrayList<>(batch.keySet());
+                for (int from = 0; from < ids.size(); from += batchSize) {
+                    List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+                    found.putAll(select(connection, chunk));
+                    writeChunk(connection, chunk, batch, found);
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.warn("write-behind flush failed: rows={}, updates={}", batch.size(), updates, e);
+            metrics.recordFailure(updates);
+            for (Pending p : batch.values()) {
+                if (!p.superseded) {
+                    p.fail(e);
+                }
+            }
+            return;
+        }
+
+        queryCacheInvalidator.invalidate(Member.class, found.keySet());
+        metrics.recordFlush(updates, found.size(), batch.size() - found.size(), System.nanoTime() - start);
+        for (Map.Entry<Long, Pending> entry : batch.entrySet()) {
+            if (entry.getValue().superseded) {
+                // ack 는 호출자 트랜잭션이 끝날 때 정해진다.
+                continue;
+            }
+            if (found.containsKey(entry.getKey())) {
+                entry.getValue().complete();
+            } else {
+                entry.getValue().fail(new EntityNotFoundException("member not found: " + entry.getKey()));
+            }
+        }
+    }
+
+    private Map<Long, Current> select(Connection connection, List<Long> ids) throws SQLException {
+        String sql = String.format(SELECT_SQL, String.join(",", Collections.nCopies(ids.size(), "?")));
+        Map<Long, Current> rows = new HashMap<>();
+        try (PreparedStatement select = connection.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                select.setLong(i + 1, ids.get(i));
+            }
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    long teamId = rs.getLong(4);
+                    rows.put(rs.getLong(1), new Current(rs.getString(2), rs.getInt(3), rs.wasNull() ? null : teamId));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private void writeChunk(Connection connection, List<Long> ids, Map<Long, Pending> batch,
+                            Map<Long, Current> found) throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Map<Long, Map<Integer, Long>> ageDeltas = new HashMap<>();
+
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_SQL);
+             PreparedStatement changeLog = connection.prepareStatement(CHANGE_LOG_SQL);
+             PreparedStatement outbox = connection.prepareStatement(OUTBOX_SQL)) {
+            for (Long id : ids) {
+                Current current = found.get(id);
+                Pending p = batch.get(id);
+                if (current == null || p.superseded) {
+                    continue;
+                }
+                update.setString(1, p.username);
+                if (p.age == null) {
+                    update.setNull(2, Types.INTEGER);
+                } else {
+                    update.setInt(2, p.age);
+                }
+                update.setTimestamp(3, now);
+                update.setString(4, p.modifiedBy);
+                update.setLong(5, id);
+                update.addBatch();
+
+                changeLog.setString(1, Member.class.getSimpleName());
+                changeLog.setString(2, String.valueOf(id));
+                changeLog.setString(3, ChangeType.UPDATE.name());
+                changeLog.setTimestamp(4, now);
+                changeLog.addBatch();
+
+                String username = p.username != null ? p.username : current.username;
+                int age = p.age != null ? p.age : current.age;
+                if (current.teamId != null && age != current.age) {
+                    Map<Integer, Long> team = ageDeltas.computeIfAbsent(current.teamId, t -> new HashMap<>());
+                    team.merge(current.age, -1L, Long::sum);
+                    team.merge(age, 1L, Long::sum);
+                }
+
+                outbox.setString(1, Member.class.getSimpleName());
+                outbox.setString(2, String.valueOf(id));
+                outbox.setString(3, OutboxEventType.MEMBER_UPDATED.name());
+                outbox.setString(4, String.format("{\"memberId\":%d,\"username\":%s,\"age\":%d}", id, quote(username), age));
+                outbox.setTimestamp(5, now);
+                outbox.addBatch();
+            }
+            update.executeBatch();
+            changeLog.executeBatch();
+            outbox.executeBatch();
+        }
+
+        for (Map.Entry<Long, Map<Integer, Long>> team : ageDeltas.entrySet()) {
+            for (Map.Entry<Integer, Long> age : team.getValue().entrySet()) {
+                if (age.getValue() != 0) {
+                    TeamAgeStatsSql.apply(connection, team.getKey(), age.getKey(), age.getValue());
+                }
+            }
+        }
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * 한 회원에 대해 병합된 변경
+     */
+    private static class Pending {
+
+        private String username;
+        private Integer age;
+        private String modifiedBy;
+        private long updates;
+        /**
+         * 호출자 트랜잭션에서 더 새 값과 함께 이미 쓰였다. 배치는 이 회원을 건너뛴다.
+         */
+        private volatile boolean superseded;
+        private final List<CompletableFuture<Void>> waiters = new ArrayList<>(1);
+
+        void merge(String username, Integer age, String modifiedBy, CompletableFuture<Void> flushed) {
+            if (username != null) {
+                this.username = username;
+            }
+            if (age != null) {
+                this.age = age;
+            }
+            this.modifiedBy = modifiedBy;
+            updates++;
+            if (flushed != null) {
+                waiters.add(flushed);
+            }
+        }
+
+        /**
+         * 먼저 들어온 변경을 합친다. (이후 merge 가 덮어쓴다)
+         */
+        void absorb(Pending earlier) {
+            if (earlier.username != null) {
+                this.username = earlier.username;
+            }
+            if (earlier.age != null) {
+                this.age = earlier.age;
+            }
+            this.modifiedBy = earlier.modifiedBy;
+            this.updates += earlier.updates;
+            this.waiters.addAll(earlier.waiters);
+        }
+
+        void complete() {
+            for (CompletableFuture<Void> waiter : waiters) {
+                waiter.complete(null);
+            }
+        }
+
+        void fail(Throwable cause) {
+            for (CompletableFuture<Void> waiter : waiters) {
+                waiter.completeExceptionally(cause);
+            }
+        }
+    }
+
+    private static class Current {
+
+        private final String username;
+        private final int age;
+        private final Long teamId;
+
+        Current(String username, int age, Long teamId) {
+            this.username = username;
+            this.age = age;
+            this.teamId = teamId;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package study.datajpa.writebehind;
+
+/**
+ * 쓰기 지연 갱신을 언제 돌려줄지
+ */
+public enum WriteAck {
+
+    /**
+     * 배치가 커밋될 때까지 기다린다. 실패하면 예외가 호출자에게 전달된다.
+     */
+    FLUSHED,
+
+    /**
+     * 버퍼에 넣고 바로 돌아간다. 커밋 전에 프로세스가 죽으면 유실되고, 실패는 로그와 지표로만 남는다.
+     */
+    NONE
+}
@@ -0,0 +1,55 @@
+package study.datajpa.writebehind;
+
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.WriteBehindStats;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class WriteBehindMetrics {
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder flushedUpdates = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final LongAccumulator maxBatchRows = new LongAccumulator(Math::max, 0);
+    private final LongAdder missing = new LongAdder();
+    private final LongAdder failedUpdates = new LongAdder();
+
+    void recordSubmit() {
+        submitted.increment();
+    }
+
+    void recordFlush(long updates, int rows, int missingRows, long nanos) {
+        flushes.increment();
+        flushedUpdates.add(updates);
+        flushedRows.add(rows);
+        maxBatchRows.accumulate(rows);
+        missing.add(missingRows);
+        flushNanos.add(nanos);
+    }
+
+    void recordFailure(long updates) {
+        failedUpdates.add(updates);
+    }
+
+    public WriteBehindStats snapshot() {
+        long updates = flushedUpdates.sum();
+        long rows = flushedRows.sum();
+        long flushCount = flushes.sum();
+
+        WriteBehindStats stats = new WriteBehindStats();
+        stats.setSubmitted(submitted.sum());
+        stats.setFlushedUpdates(updates);
+        stats.setFlushedRows(rows);
+        stats.setCoalescingRatio(rows == 0 ? 0 : updates / (double) rows);
+        stats.setFlushes(flushCount);
+        stats.setAvgFlushMillis(flushCount == 0 ? 0 : flushNanos.sum() / 1_000_000.0 / flushCount);
+        stats.setMaxBatchRows(maxBatchRows.get());
+        stats.setMissing(missing.sum());
+        stats.setFailedUpdates(failedUpdates.sum());
+        return stats;
+    }
+}
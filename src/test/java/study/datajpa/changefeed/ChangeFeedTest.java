@@ -0,0 +1,146 @@
+package study.datajpa.changefeed;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.domain.ChangeType;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.dto.ChangeBatch;
+import study.datajpa.dto.ChangeLogDto;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * commit_seq 는 커밋된 행에만 붙으므로 @Transactional 없이 실행하고, 만든 행은 직접 지운다.
+ */
+@SpringBootTest
+class ChangeFeedTest {
+
+    @Autowired
+    ChangeFeed changeFeed;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    String prefix = UUID.randomUUID().toString().substring(0, 8);
+    long lastOutboxEventId;
+
+    @BeforeEach
+    public void rememberOutbox() {
+        lastOutboxEventId = jdbcTemplate.queryForObject("select coalesce(max(outbox_event_id), 0) from outbox_event", Long.class);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("delete from change_log where entity_id like ?", prefix + "%");
+        jdbcTemplate.update("delete from change_log where entity_name = 'Member' and entity_id in" +
+                " (select cast(member_id as varchar) from member where username like ?)", prefix + "%");
+        jdbcTemplate.update("delete from member where username like ?", prefix + "%");
+        jdbcTemplate.update("delete from team_age_stats where team_id in (select team_id from team where name like ?)", prefix + "%");
+        jdbcTemplate.update("delete from change_log where entity_name = 'Team' and entity_id in" +
+                " (select cast(team_id as varchar) from team where name like ?)", prefix + "%");
+        jdbcTemplate.update("delete from team where name like ?", prefix + "%");
+        jdbcTemplate.update("delete from outbox_event where outbox_event_id > ?", lastOutboxEventId);
+    }
+
+    @Test
+    public void changesSinceWatermark() {
+        // given
+        long watermark = changeFeed.latestWatermark();
+
+        Team teamA = teamRepository.save(new Team(prefix + "-teamA"));
+        Member member1 = memberRepository.save(new Member(prefix + "-member1", 10, teamA));
+
+        member1.setAge(20);
+        memberRepository.save(member1);
+
+        // when
+        ChangeBatch first = changeFeed.changesSince(watermark, 2);
+        ChangeBatch second = changeFeed.changesSince(first.getNextWatermark(), 2);
+
+        // then
+        assertThat(first.getChanges()).extracting(ChangeLogDto::getEntityName)
+                .containsExactly("Team", "Member");
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(second.getChanges()).extracting(ChangeLogDto::getChangeType)
+                .containsExactly(ChangeType.UPDATE);
+        assertThat(second.isHasMore()).isFalse();
+    }
+
+    @Test
+    public void lateCommitIsNotSkipped() throws SQLException {
+        // given
+        long watermark = changeFeed.latestWatermark();
+
+        try (Connection early = dataSource.getConnection(); Connection late = dataSource.getConnection()) {
+            early.setAutoCommit(false);
+            late.setAutoCommit(false);
+            // early 가 먼저 id 를 받지만 late 보다 늦게 커밋한다.
+            insertChangeLog(early, prefix + "-early");
+            insertChangeLog(late, prefix + "-late");
+            late.commit();
+
+            ChangeBatch beforeEarlyCommit = changeFeed.changesSince(watermark, 100);
+
+            early.commit();
+
+            // when
+            ChangeBatch afterEarlyCommit = changeFeed.changesSince(beforeEarlyCommit.getNextWatermark(), 100);
+
+            // then
+            assertThat(beforeEarlyCommit.getChanges()).extracting(ChangeLogDto::getEntityId)
+                    .containsExactly(prefix + "-late");
+            assertThat(afterEarlyCommit.getChanges()).extracting(ChangeLogDto::getEntityId)
+                    .containsExactly(prefix + "-early");
+            assertThat(afterEarlyCommit.getChanges().get(0).getId())
+                    .isLessThan(beforeEarlyCommit.getChanges().get(0).getId());
+        }
+    }
+
+    @Test
+    public void bulkAgePlusIsRecorded() {
+        // given
+        Team team = teamRepository.save(new Team(prefix + "-team"));
+        Member member = memberRepository.save(new Member(prefix + "-member", 900, team));
+        long watermark = changeFeed.latestWatermark();
+
+        // when
+        memberRepository.bulkAgePlus(900);
+        ChangeBatch batch = changeFeed.changesSince(watermark, 100);
+
+        // then
+        assertThat(batch.getChanges())
+                .filteredOn(c -> c.getEntityId().equals(String.valueOf(member.getId())))
+                .extracting(ChangeLogDto::getEntityName, ChangeLogDto::getChangeType)
+                .containsExactly(tuple("Member", ChangeType.UPDATE));
+    }
+
+    private static void insertChangeLog(Connection connection, String entityId) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into change_log (entity_name, entity_id, change_type, changed_at) values ('Team', ?, 'INSERT', ?)")) {
+            ps.setString(1, entityId);
+            ps.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.config;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * hibernate.temp.use_jdbc_metadata_defaults=false 처럼 JDBC 메타데이터를 읽지 않는 설정은
+ * 드라이버가 배치를 지원하지 않는다고 보고 hibernate.jdbc.batch_size 를 조용히 0 으로 만든다.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.jdbc.batch_size=50")
+class HibernateSettingsTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    public void configuredJdbcBatchSizeIsKept() {
+        int batchSize = emf.unwrap(SessionFactoryImplementor.class).getSessionFactoryOptions().getJdbcBatchSize();
+
+        assertThat(batchSize).isEqualTo(50);
+    }
+}
@@ -0,0 +1,187 @@
+package study.datajpa.dbbudget;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "db-budget.enabled=true",
+        "db-budget.request-ms=0",
+        "db-budget.max-connections=2",
+        "db-budget.request-budgets=SlowController.perEndpoint=300",
+        "db-budget.query-timeouts=SlowController.configured=200,SlowController.annotated=60000"})
+@AutoConfigureMockMvc
+@Import(DbBudgetTest.SlowController.class)
+class DbBudgetTest {
+
+    /**
+     * rand() 때문에 H2 가 미리 계산하지 못하고 끝까지 돈다.
+     */
+    private static final String SLOW_SQL = "select max(rand()) from system_range(1, 2000000000)";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    public void slowStatementIsCancelledAtTimeout() {
+        // given
+        DbBudgetContext context = DbBudgetContext.open("test", 0);
+        context.pushTimeout(200);
+
+        // when
+        long start = System.currentTimeMillis();
+        try {
+            assertThatThrownBy(() -> jdbcTemplate.queryForObject(SLOW_SQL, Double.class))
+                    .isInstanceOf(QueryTimeoutException.class);
+        } finally {
+            context.close();
+        }
+
+        // then
+        assertThat(System.currentTimeMillis() - start).isLessThan(5_000);
+    }
+
+    @Test
+    public void exhaustedBudgetFailsFastWithoutExecuting() {
+        // given
+        DbBudgetContext context = DbBudgetContext.open("test", 1_000);
+        try {
+            jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+            context.charge(2_000_000_000L);
+
+            // when / then
+            assertThatThrownBy(() -> jdbcTemplate.queryForObject("select count(*) from member", Long.class))
+                    .isInstanceOf(DbBudgetExceededException.class);
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test
+    public void connectionWaitIsBoundedByRemainingBudget() throws Exception {
+        // given: 예산이 있는 요청의 커넥션 몫(2개)을 모두 쥔다.
+        DbBudgetContext context = DbBudgetContext.open("test", 300);
+        List<Connection> held = new ArrayList<>();
+        try {
+            held.add(dataSource.getConnection());
+            held.add(dataSource.getConnection());
+
+            // when / then
+            long start = System.currentTimeMillis();
+            assertThatThrownBy(dataSource::getConnection).isInstanceOf(DbBudgetExceededException.class);
+            assertThat(System.currentTimeMillis() - start).isLessThan(2_000);
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+            context.close();
+        }
+    }
+
+    @Test
+    public void noContextMeansNoLimit() throws Exception {
+        assertThat(DbBudgetContext.current()).isNull();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member", Long.class)).isNotNull();
+        try (Connection connection = dataSource.getConnection()) {
+            // 예산 밖에서는 문장마다 프록시를 거치지 않는다.
+            assertThat(Proxy.isProxyClass(connection.getClass())).isFalse();
+        }
+    }
+
+    @Test
+    public void annotatedQueryTimeoutWinsOverConfiguredTimeout() throws Exception {
+        assertServiceUnavailableQuickly("/test/db-budget/annotated");
+    }
+
+    @Test
+    public void configuredQueryTimeoutAppliesToEndpoint() throws Exception {
+        assertServiceUnavailableQuickly("/test/db-budget/configured");
+    }
+
+    @Test
+    public void perEndpointBudgetCancelsStatement() throws Exception {
+        assertServiceUnavailableQuickly("/test/db-budget/per-endpoint");
+    }
+
+    @Test
+    public void annotatedBudgetCancelsStatement() throws Exception {
+        assertServiceUnavailableQuickly("/test/db-budget/annotated-budget");
+    }
+
+    @Test
+    public void endpointWithoutLimitsIsNotCancelled() throws Exception {
+        mockMvc.perform(get("/test/db-budget/fast")).andExpect(status().isOk());
+    }
+
+    private void assertServiceUnavailableQuickly(String url) throws Exception {
+        // when
+        long start = System.currentTimeMillis();
+        mockMvc.perform(get(url)).andExpect(status().isServiceUnavailable());
+
+        // then
+        assertThat(System.currentTimeMillis() - start).isLessThan(5_000);
+        assertThat(DbBudgetContext.current()).isNull();
+    }
+
+    /**
+     * 애스펙트가 이름("SlowController.메서드")과 애너테이션으로 예산/타임아웃을 찾는지 확인하는 엔드포인트
+     */
+    @RestController
+    static class SlowController {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        SlowController(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @QueryTimeout(200)
+        @GetMapping("/test/db-budget/annotated")
+        public Double annotated() {
+            return jdbcTemplate.queryForObject(SLOW_SQL, Double.class);
+        }
+
+        @GetMapping("/test/db-budget/configured")
+        public Double configured() {
+            return jdbcTemplate.queryForObject(SLOW_SQL, Double.class);
+        }
+
+        @GetMapping("/test/db-budget/per-endpoint")
+        public Double perEndpoint() {
+            return jdbcTemplate.queryForObject(SLOW_SQL, Double.class);
+        }
+
+        @DbTimeBudget(300)
+        @GetMapping("/test/db-budget/annotated-budget")
+        public Double annotatedBudget() {
+            return jdbcTemplate.queryForObject(SLOW_SQL, Double.class);
+        }
+
+        @GetMapping("/test/db-budget/fast")
+        public Long fast() {
+            return jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package study.datajpa.domain;
+
+import org.hibernate.engine.spi.ManagedEntity;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * build.gradle 의 hibernate enhance 설정이 적용되었는지 확인한다. (-PnoEnhance 로 빌드하면 실패한다)
+ */
+class EntityEnhancementTest {
+
+    @Test
+    public void entitiesAreEnhanced() {
+        assertThat(ManagedEntity.class).isAssignableFrom(Member.class);
+        assertThat(SelfDirtinessTracker.class).isAssignableFrom(Member.class);
+        assertThat(SelfDirtinessTracker.class).isAssignableFrom(Team.class);
+    }
+
+    @Test
+    public void changeTeamKeepsSingleBackReference() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Member member = new Member("member1", 10, teamA);
+
+        member.changeTeam(teamB);
+
+        assertThat(teamB.getMembers()).containsExactly(member);
+    }
+}
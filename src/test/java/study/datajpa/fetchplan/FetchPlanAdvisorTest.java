@@ -0,0 +1,94 @@
+package study.datajpa.fetchplan;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.dto.FetchPlanAdvice;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"fetch-advisor.enabled=true", "fetch-advisor.sample-rate=1.0"})
+class FetchPlanAdvisorTest {
+
+    @Autowired
+    FetchPlanAdvisor advisor;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    EntityManager em;
+
+    List<Long> memberIds = new ArrayList<>();
+    List<Long> teamIds = new ArrayList<>();
+
+    @AfterEach
+    public void cleanUp() {
+        for (Long memberId : memberIds) {
+            jdbcTemplate.update("delete from member where member_id = ?", memberId);
+            jdbcTemplate.update("delete from change_log where entity_name = 'Member' and entity_id = ?", String.valueOf(memberId));
+        }
+        for (Long teamId : teamIds) {
+            jdbcTemplate.update("delete from team_age_stats where team_id = ?", teamId);
+            jdbcTemplate.update("delete from team where team_id = ?", teamId);
+            jdbcTemplate.update("delete from change_log where entity_name = 'Team' and entity_id = ?", String.valueOf(teamId));
+        }
+    }
+
+    @Test
+    public void recommendsEagerFetchWhenEveryTeamIsRead() {
+        // given
+        String username = "fetchPlanMember";
+        transactionTemplate.execute(status -> {
+            for (int i = 0; i < 3; i++) {
+                Team team = new Team("fetchPlanTeam" + i);
+                em.persist(team);
+                Member member = new Member(username, 10, team);
+                em.persist(member);
+                teamIds.add(team.getId());
+                memberIds.add(member.getId());
+            }
+            return null;
+        });
+
+        // when
+        transactionTemplate.execute(status -> {
+            List<Member> members = memberRepository.findByUsername(username);
+            members.forEach(member -> member.getTeam().getName());
+            return null;
+        });
+        transactionTemplate.execute(status -> memberRepository.findMemberFetchJoin());
+
+        // then
+        List<FetchPlanAdvice> advices = advisor.advise();
+        FetchPlanAdvice lazy = find(advices, "MemberRepository.findByUsername");
+        assertThat(lazy.isPrefetching()).isFalse();
+        assertThat(lazy.getAccessRatio()).isEqualTo(1.0);
+        assertThat(lazy.getRecommended()).isEqualTo(FetchStrategy.ENTITY_GRAPH);
+        assertThat(lazy.getStatementsPerCall()).isGreaterThan(lazy.getRecommendedStatementsPerCall());
+
+        FetchPlanAdvice fetchJoin = find(advices, "MemberRepository.findMemberFetchJoin");
+        assertThat(fetchJoin.isPrefetching()).isTrue();
+        assertThat(fetchJoin.getAccessRatio()).isNull();
+    }
+
+    private static FetchPlanAdvice find(List<FetchPlanAdvice> advices, String method) {
+        return advices.stream()
+                .filter(advice -> advice.getMethod().equals(method))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(method));
+    }
+}
@@ -0,0 +1,70 @@
+package study.datajpa.idgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    public void idsIncreaseAndEncodeTime() {
+        // given
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(7);
+        long before = System.currentTimeMillis();
+
+        // when
+        long previous = 0;
+        for (int i = 0; i < 100_000; i++) {
+            long id = generator.nextId();
+            // then
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+        assertThat(TimeOrderedIdGenerator.timestampOf(previous)).isBetween(before, System.currentTimeMillis());
+        assertThat((previous >>> TimeOrderedIdGenerator.SEQUENCE_BITS) & TimeOrderedIdGenerator.MAX_NODE).isEqualTo(7);
+    }
+
+    @Test
+    public void uniqueAcrossThreads() throws Exception {
+        // given
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(0);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+
+        // when
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            futures.add(pool.submit(() -> {
+                long[] ids = new long[20_000];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = generator.nextId();
+                }
+                return ids;
+            }));
+        }
+        Set<Long> all = new HashSet<>();
+        for (Future<long[]> future : futures) {
+            for (long id : future.get()) {
+                all.add(id);
+            }
+        }
+        pool.shutdown();
+
+        // then
+        assertThat(all).hasSize(16 * 20_000);
+    }
+
+    @Test
+    public void rejectsNodeOutOfRange() {
+        assertThatThrownBy(() -> new TimeOrderedIdGenerator(TimeOrderedIdGenerator.MAX_NODE + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,90 @@
+package study.datajpa.indexadvisor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSpec;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 조회 메서드가 전체 스캔으로 바뀌면 실패하는 회귀 테스트
+ */
+@SpringBootTest
+@Transactional
+class IndexAdvisorTest {
+
+    @Autowired
+    IndexAdvisor indexAdvisor;
+    @Autowired
+    MemberRepository memberRepository;
+    @PersistenceContext
+    EntityManager em;
+
+    @BeforeEach
+    public void setUp() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 20; i++) {
+            em.persist(new Member("member" + i, i, teamA));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    /**
+     * MemberRepository 에 인덱스를 타지 않는 파생 쿼리 메서드가 추가되면 실패한다.
+     */
+    @Test
+    public void derivedQueriesAreCovered() {
+        List<IndexSuggestion> suggestions = indexAdvisor.suggest(MemberRepository.class, Member.class);
+
+        assertThat(suggestions).isEmpty();
+    }
+
+    @Test
+    public void findByUsername() {
+        assertNoFullScan(indexAdvisor.explain(() -> memberRepository.findByUsername("member1")));
+    }
+
+    @Test
+    public void findByUsernameAndAgeGreaterThan() {
+        assertNoFullScan(indexAdvisor.explain(() -> memberRepository.findByUsernameAndAgeGreaterThan("member1", 0)));
+    }
+
+    @Test
+    public void findByNames() {
+        assertNoFullScan(indexAdvisor.explain(() -> memberRepository.findByNames(Arrays.asList("member1", "member2"))));
+    }
+
+    @Test
+    public void specTeamName() {
+        assertNoFullScan(indexAdvisor.explain(() -> memberRepository.findAll(MemberSpec.teamName("teamA"))));
+    }
+
+    @Test
+    public void suggestFromPlan() {
+        QueryPlan plan = indexAdvisor.explain("select * from member where age = 10");
+
+        assertThat(plan.getFullScans()).containsExactly("member");
+        assertThat(indexAdvisor.suggest(plan)).extracting(IndexSuggestion::getDdl)
+                .containsExactly("create index idx_member_age on member (age)");
+    }
+
+    private void assertNoFullScan(List<QueryPlan> plans) {
+        assertThat(plans).isNotEmpty();
+        for (QueryPlan plan : plans) {
+            assertThat(plan.isFullScan()).as(plan.getPlan()).isFalse();
+        }
+    }
+}
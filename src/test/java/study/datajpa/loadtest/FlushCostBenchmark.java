@@ -0,0 +1,73 @@
+package study.datajpa.loadtest;
+
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 50k 회원을 관리하는 상태에서 몇 건만 수정했을 때의 flush 비용 (gradle loadTest)
+ * 바이트코드 향상 없이 비교하려면 gradle loadTest -PnoEnhance
+ */
+@Tag("load")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:flushbench;DB_CLOSE_DELAY=-1",
+        "decorator.datasource.enabled=false",
+        "logging.level.org.hibernate.SQL=warn",
+        "outbox.dispatch.enabled=false",
+        "persistence-context.max-managed-entities=100000"
+})
+class FlushCostBenchmark {
+
+    private static final int ROWS = 50_000;
+    private static final int MODIFIED = 5;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void flushWithFewModifications() {
+        jdbcTemplate.update("insert into team (team_id, name) select x, 'team' || x from system_range(1, 100)");
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id, create_date, last_modified_date, created_by, last_modified_by) " +
+                "select x, 'user' || x, mod(x, 100), mod(x, 100) + 1, now(), now(), 'seed', 'seed' from system_range(1, ?)", ROWS);
+
+        boolean enhanced = SelfDirtinessTracker.class.isAssignableFrom(Member.class);
+        transactionTemplate.execute(status -> {
+            List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+            assertThat(members).hasSize(ROWS);
+
+            long totalNanos = 0;
+            long maxNanos = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                for (int i = 0; i < MODIFIED; i++) {
+                    Member member = members.get((round * 997 + i * 7919) % ROWS);
+                    member.setAge(member.getAge() + 1);
+                }
+                long start = System.nanoTime();
+                em.flush();
+                long elapsed = System.nanoTime() - start;
+                totalNanos += elapsed;
+                maxNanos = Math.max(maxNanos, elapsed);
+            }
+            System.out.printf("enhanced=%s managed=%d modified/flush=%d avg flush %.2f ms, max %.2f ms%n",
+                    enhanced, ROWS, MODIFIED, totalNanos / 1_000_000.0 / ROUNDS, maxNanos / 1_000_000.0);
+            status.setRollbackOnly();
+            return null;
+        });
+    }
+}
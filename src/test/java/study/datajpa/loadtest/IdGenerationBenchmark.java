@@ -0,0 +1,107 @@
+package study.datajpa.loadtest;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.domain.ScanCheckpoint;
+import study.datajpa.repository.ScanCheckpointRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 식별자 전략별 삽입 처리량 (gradle loadTest)
+ * 전략은 SessionFactory 를 만들 때 정해지므로 전략마다 컨텍스트를 새로 띄운다.
+ * Member/Team/Item 은 change_log 리스너가 행마다 한 줄을 더 쓰므로, DB 쓰기 리스너가 없는 ScanCheckpoint 를 넣어 식별자 생성 비용만 비교한다.
+ * (ScanCheckpoint 도 ConfigurableIdGenerator 를 쓴다)
+ * 모든 전략을 JDBC 배치(batch_size = ROWS_PER_TX)로 실행하며, 배치가 꺼져 있으면 측정하지 않고 실패한다.
+ */
+@Tag("load")
+class IdGenerationBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int ROWS_PER_THREAD = 5_000;
+    private static final int ROWS_PER_TX = 100;
+
+    @Test
+    public void insertsPerSecond() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add(run("sequence (increment 1)", "pooled-lo", "spring.jpa.properties.study.id.increment=1"));
+        lines.add(run("pooled-lo (50)", "pooled-lo", "spring.jpa.properties.study.id.increment=50"));
+        lines.add(run("pooled-lo (1000)", "pooled-lo", "spring.jpa.properties.study.id.increment=1000"));
+        lines.add(run("striped (1000)", "striped", "spring.jpa.properties.study.id.stripe-size=1000"));
+        lines.add(run("time-ordered", "time-ordered", "spring.jpa.properties.study.id.node-id=1"));
+
+        System.out.println(String.format("%-24s %8s %10s %12s", "strategy", "threads", "rows", "inserts/s"));
+        lines.forEach(System.out::println);
+    }
+
+    private String run(String name, String strategy, String option) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:idbench-" + strategy + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                        "decorator.datasource.enabled=false",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "outbox.dispatch.enabled=false",
+                        "query-plan.warmup.enabled=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + ROWS_PER_TX,
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "spring.jpa.properties.study.id.strategy=" + strategy,
+                        option)
+                .run()) {
+            int batchSize = context.getBean(EntityManagerFactory.class).unwrap(SessionFactoryImplementor.class)
+                    .getSessionFactoryOptions().getJdbcBatchSize();
+            assertThat(batchSize).as("effective hibernate.jdbc.batch_size").isEqualTo(ROWS_PER_TX);
+
+            ScanCheckpointRepository checkpointRepository = context.getBean(ScanCheckpointRepository.class);
+            TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    for (int from = 0; from < ROWS_PER_THREAD; from += ROWS_PER_TX) {
+                        List<ScanCheckpoint> checkpoints = new ArrayList<>(ROWS_PER_TX);
+                        for (int i = 0; i < ROWS_PER_TX; i++) {
+                            long rangeStart = from + i;
+                            checkpoints.add(new ScanCheckpoint("idbench-" + thread, rangeStart, rangeStart + 1));
+                        }
+                        tx.execute(status -> checkpointRepository.saveAll(checkpoints));
+                    }
+                    return null;
+                }));
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+            pool.shutdown();
+
+            long rows = (long) THREADS * ROWS_PER_THREAD;
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            assertThat(jdbcTemplate.queryForObject("select count(distinct scan_checkpoint_id) from scan_checkpoint", Long.class)).isEqualTo(rows);
+            assertThat(jdbcTemplate.queryForObject("select count(*) from change_log", Long.class)).isZero();
+            return String.format("%-24s %8d %10d %12.0f", name, THREADS, rows, rows / seconds);
+        }
+    }
+}
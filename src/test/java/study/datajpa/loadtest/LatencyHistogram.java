@@ -0,0 +1,54 @@
+package study.datajpa.loadtest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 로그 스케일 버킷(약 5% 오차) 지연 시간 히스토그램. 마이크로초 단위로 기록한다.
+ */
+class LatencyHistogram {
+
+    private static final double GROWTH = 1.05;
+    private static final int BUCKETS = 400;   // 1us ~ 약 300s
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    void record(long micros) {
+        counts.incrementAndGet(bucketOf(Math.max(1, micros)));
+    }
+
+    long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @return 백분위 지연 (밀리초)
+     */
+    double percentileMillis(double percentile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBoundMicros(i) / 1000.0;
+            }
+        }
+        return upperBoundMicros(BUCKETS - 1) / 1000.0;
+    }
+
+    private static int bucketOf(long micros) {
+        int bucket = (int) (Math.log(micros) / Math.log(GROWTH));
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    private static double upperBoundMicros(int bucket) {
+        return Math.pow(GROWTH, bucket + 1);
+    }
+}
@@ -0,0 +1,116 @@
+package study.datajpa.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 성능 기준선 (src/test/resources/loadtest/baseline-{rows}.json)
+ * 실제 loadTest 실행 결과로만 만든다. 시나리오별 최소 처리량, 최대 p99, 최대 오류율을 담고, tolerance 만큼의 편차는 허용한다.
+ * 측정한 환경(environment)을 함께 남겨, 다른 환경의 결과와는 비교하지 않는다.
+ * environment 가 "any" 인 기준선은 환경에 상관없이 비교한다. 이때는 환경을 타지 않는 항목(오류율)만 두고 나머지는 비워 둔다.
+ * 비어 있는(null) 항목은 비교하지 않는다.
+ */
+@Getter
+@Setter
+public class LoadBaseline {
+
+    static final String ANY_ENVIRONMENT = "any";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private double tolerance = 0.2;
+    private String environment;
+    private String recordedAt;
+    private Map<String, Threshold> scenarios = new LinkedHashMap<>();
+
+    /**
+     * 처리량, 지연에 영향을 주는 실행 환경 (코어 수, JVM, OS, 측정 시간)
+     */
+    static String currentEnvironment(Duration warmup, Duration duration) {
+        return String.format("cpus=%d, java=%s, os=%s %s, warmup=%ds, duration=%ds",
+                Runtime.getRuntime().availableProcessors(), System.getProperty("java.version"),
+                System.getProperty("os.name"), System.getProperty("os.arch"), warmup.getSeconds(), duration.getSeconds());
+    }
+
+    /**
+     * 이 기준선을 environment 에서 측정한 결과와 비교할 수 있는지
+     */
+    boolean appliesTo(String environment) {
+        return ANY_ENVIRONMENT.equals(this.environment) || environment.equals(this.environment);
+    }
+
+    @Getter
+    @Setter
+    public static class Threshold {
+        private Double minThroughput;
+        private Double maxP99Millis;
+        private Double maxErrorRate;
+    }
+
+    static LoadBaseline read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), LoadBaseline.class);
+    }
+
+    static LoadBaseline from(List<ScenarioResult> results, double tolerance, String environment) {
+        LoadBaseline baseline = new LoadBaseline();
+        baseline.setTolerance(tolerance);
+        baseline.setEnvironment(environment);
+        baseline.setRecordedAt(Instant.now().toString());
+        for (ScenarioResult result : results) {
+            Threshold threshold = new Threshold();
+            threshold.setMinThroughput(Math.floor(result.getThroughput()));
+            threshold.setMaxP99Millis(Math.ceil(result.getP99Millis()));
+            threshold.setMaxErrorRate(result.getErrorRate());
+            baseline.getScenarios().put(result.key(), threshold);
+        }
+        return baseline;
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), this);
+    }
+
+    static void writeResults(Path file, List<ScenarioResult> results) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), results);
+    }
+
+    /**
+     * @return 기준선을 벗어난 항목 설명 (없으면 빈 목록)
+     */
+    List<String> regressions(List<ScenarioResult> results) {
+        List<String> regressions = new ArrayList<>();
+        for (ScenarioResult result : results) {
+            Threshold threshold = scenarios.get(result.key());
+            if (threshold == null) {
+                continue;
+            }
+            if (threshold.getMinThroughput() != null && result.getThroughput() < threshold.getMinThroughput() * (1 - tolerance)) {
+                regressions.add(String.format("%s throughput %.1f/s < baseline %.1f/s",
+                        result.key(), result.getThroughput(), threshold.getMinThroughput()));
+            }
+            if (threshold.getMaxP99Millis() != null && result.getP99Millis() > threshold.getMaxP99Millis() * (1 + tolerance)) {
+                regressions.add(String.format("%s p99 %.1fms > baseline %.1fms",
+                        result.key(), result.getP99Millis(), threshold.getMaxP99Millis()));
+            }
+            if (threshold.getMaxErrorRate() != null && result.getErrorRate() > threshold.getMaxErrorRate()) {
+                regressions.add(String.format("%s error rate %.4f > baseline %.4f",
+                        result.key(), result.getErrorRate(), threshold.getMaxErrorRate()));
+            }
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,103 @@
+package study.datajpa.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 고정된 동시 사용자 수(closed model)로 warm-up 후 일정 시간 동안 요청을 보내고 처리량, 지연 분포, 오류율을 잰다.
+ */
+class LoadTestRunner {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Duration warmup;
+    private final Duration duration;
+
+    LoadTestRunner(Duration warmup, Duration duration) {
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    ScenarioResult run(String name, int concurrency, Supplier<URI> uris) throws Exception {
+        return run(name, concurrency, uris, new String[0]);
+    }
+
+    /**
+     * @param headers 모든 요청에 붙일 헤더 (이름, 값, 이름, 값 ...)
+     */
+    ScenarioResult run(String name, int concurrency, Supplier<URI> uris, String... headers) throws Exception {
+        drive(concurrency, uris, headers, warmup, new LatencyHistogram(), new LongAdder());
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        long start = System.nanoTime();
+        drive(concurrency, uris, headers, duration, histogram, errors);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        ScenarioResult result = new ScenarioResult();
+        result.setName(name);
+        result.setConcurrency(concurrency);
+        result.setRequests(histogram.count());
+        result.setErrors(errors.sum());
+        result.setThroughput(histogram.count() / seconds);
+        result.setErrorRate(histogram.count() == 0 ? 1.0 : (double) errors.sum() / histogram.count());
+        result.setP50Millis(histogram.percentileMillis(50));
+        result.setP90Millis(histogram.percentileMillis(90));
+        result.setP99Millis(histogram.percentileMillis(99));
+        result.setMaxBucketMillis(histogram.percentileMillis(100));
+        return result;
+    }
+
+    private void drive(int concurrency, Supplier<URI> uris, String[] headers, Duration length,
+                       LatencyHistogram histogram, LongAdder errors) throws Exception {
+        long deadline = System.nanoTime() + length.toNanos();
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(pool.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest.Builder builder = HttpRequest.newBuilder(uris.get())
+                                .timeout(Duration.ofSeconds(30))
+                                .GET();
+                        if (headers.length > 0) {
+                            builder.headers(headers);
+                        }
+                        HttpRequest request = builder.build();
+                        long begin = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        histogram.record((System.nanoTime() - begin) / 1000);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
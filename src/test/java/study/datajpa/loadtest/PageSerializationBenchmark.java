@@ -0,0 +1,73 @@
+package study.datajpa.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberPage;
+import study.datajpa.serialization.MemberPageCborHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * /members 응답 한 페이지(max-page-size 2000)의 직렬화 크기와 CPU 시간 비교 (gradle loadTest)
+ */
+@Tag("load")
+class PageSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 2000;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 500;
+
+    interface PageWriter {
+        void write(ByteArrayOutputStream out) throws IOException;
+    }
+
+    @Test
+    public void bytesAndCpuPerPage() throws Exception {
+        List<MemberDto> content = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            content.add(new MemberDto((long) i + 1, "user" + (i + 1), "team" + (i % 100 + 1)));
+        }
+        Page<MemberDto> page = new PageImpl<>(content, PageRequest.of(0, PAGE_SIZE, Sort.by("username")), 10_000);
+        MemberPage slim = MemberPage.of(page);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        MemberPageCborHttpMessageConverter cbor = new MemberPageCborHttpMessageConverter();
+
+        long pageJson = measure("Page<MemberDto> json", out -> objectMapper.writeValue(out, page));
+        long slimJson = measure("MemberPage json", out -> objectMapper.writeValue(out, slim));
+        long slimCbor = measure("MemberPage cbor", out -> cbor.write(slim, out));
+
+        assertThat(slimCbor).isLessThan(slimJson);
+        assertThat(slimJson).isLessThan(pageJson);
+    }
+
+    private static long measure(String name, PageWriter writer) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 * 1024);
+        for (int i = 0; i < WARMUP; i++) {
+            out.reset();
+            writer.write(out);
+        }
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            out.reset();
+            writer.write(out);
+        }
+        long cpuMicros = (threads.getCurrentThreadCpuTime() - cpuStart) / ITERATIONS / 1000;
+        System.out.printf("%-22s %8d bytes/page %6d us cpu/page%n", name, out.size(), cpuMicros);
+        return out.size();
+    }
+}
@@ -0,0 +1,123 @@
+package study.datajpa.loadtest;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * REST 엔드포인트 부하 테스트 (gradle loadTest)
+ * 임베디드 H2 에 loadtest.rows 건(기본 10k)을 넣고 동시 사용자 수를 늘려가며 처리량, 지연 분포, 오류율을 측정한다.
+ * 결과는 build/loadtest/results-{rows}.json 에 남고, src/test/resources/loadtest/baseline-{rows}.json 보다 나빠지면 실패한다.
+ * 저장소의 기준선은 환경을 타지 않는 오류율만 담는다("any"). 같은 환경에서 측정한 기준선으로 바꾸려면
+ * -Dloadtest.updateBaseline=true 로 실행해 기록한 파일을 커밋한다.
+ * 비교할 기준선이 없거나 다른 환경의 기준선이면 통과시키지 않고 건너뜀(assumption)으로 보고한다.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+        "decorator.datasource.enabled=false",
+        "logging.level.org.hibernate.SQL=warn",
+        "outbox.dispatch.enabled=false",
+        // 단일 테넌트의 처리량을 잰다. (테넌트별 제한은 TenantFairnessLoadTest)
+        "tenant.max-connections=0",
+        "tenant.rate-per-second=0"
+})
+class RestEndpointLoadTest {
+
+    private static final int ROWS = Integer.getInteger("loadtest.rows", 10_000);
+    private static final int TEAMS = 100;
+    private static final int PAGE_SIZE = 20;
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    public void seed() {
+        jdbcTemplate.update("insert into team (team_id, name) select x, 'team' || x from system_range(1, ?)", TEAMS);
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id, create_date, last_modified_date, created_by, last_modified_by) " +
+                "select x, 'user' || x, mod(x, 100), mod(x, ?) + 1, now(), now(), 'seed', 'seed' from system_range(1, ?)", TEAMS, ROWS);
+        jdbcTemplate.execute("alter sequence hibernate_sequence restart with " + (ROWS + TEAMS + 1));
+    }
+
+    @Test
+    public void endpoints() throws Exception {
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmupSeconds", 2));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.durationSeconds", 5));
+        LoadTestRunner runner = new LoadTestRunner(warmup, duration);
+
+        List<ScenarioResult> results = new ArrayList<>();
+        for (int concurrency : concurrencyLevels()) {
+            results.add(runner.run("hello", concurrency, fixed("/hello")));
+            results.add(runner.run("members-page", concurrency,
+                    () -> uri("/members?size=" + PAGE_SIZE + "&page=" + (ThreadLocalRandom.current().nextInt(ROWS / PAGE_SIZE) + 1))));
+            results.add(runner.run("member-by-id", concurrency, () -> uri("/members/" + randomId())));
+            results.add(runner.run("member2-by-id", concurrency, () -> uri("/members2/" + randomId())));
+        }
+
+        System.out.println(String.format("%-16s %5s %10s %9s %9s %9s %9s %8s",
+                "scenario", "conc", "requests", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "errors"));
+        for (ScenarioResult r : results) {
+            System.out.println(String.format("%-16s %5d %10d %9.1f %9.2f %9.2f %9.2f %8d",
+                    r.getName(), r.getConcurrency(), r.getRequests(), r.getThroughput(),
+                    r.getP50Millis(), r.getP90Millis(), r.getP99Millis(), r.getErrors()));
+        }
+        LoadBaseline.writeResults(Paths.get("build/loadtest/results-" + ROWS + ".json"), results);
+
+        Path baselineFile = Paths.get("src/test/resources/loadtest/baseline-" + ROWS + ".json");
+        String environment = LoadBaseline.currentEnvironment(warmup, duration);
+        LoadBaseline measured = LoadBaseline.from(results, 0.2, environment);
+        if (Boolean.getBoolean("loadtest.updateBaseline")) {
+            measured.write(baselineFile);
+            assumeTrue(false, "baseline recorded, not compared: " + baselineFile + " (" + environment + ")");
+        }
+        // 비교하지 못한 실행도 다음 기준선 후보로 남긴다.
+        measured.write(Paths.get("build/loadtest/baseline-" + ROWS + ".json"));
+        assumeTrue(Files.exists(baselineFile), "no baseline to compare with: " + baselineFile);
+        LoadBaseline baseline = LoadBaseline.read(baselineFile);
+        assumeTrue(baseline.appliesTo(environment),
+                "baseline was recorded on a different environment, not compared: " + baseline.getEnvironment());
+        assertThat(baseline.regressions(results)).isEmpty();
+    }
+
+    private static List<Integer> concurrencyLevels() {
+        String levels = System.getProperty("loadtest.concurrency", "1,4,16,32");
+        List<Integer> result = new ArrayList<>();
+        Arrays.stream(levels.split(",")).map(String::trim).map(Integer::valueOf).forEach(result::add);
+        return result;
+    }
+
+    private Supplier<URI> fixed(String path) {
+        URI uri = uri(path);
+        return () -> uri;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static long randomId() {
+        return 1 + ThreadLocalRandom.current().nextLong(ROWS);
+    }
+}
@@ -0,0 +1,26 @@
+package study.datajpa.loadtest;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class ScenarioResult {
+
+    private String name;
+    private int concurrency;
+    private long requests;
+    private long errors;
+    private double throughput;
+    private double errorRate;
+    private double p50Millis;
+    private double p90Millis;
+    private double p99Millis;
+    private double maxBucketMillis;
+
+    public String key() {
+        return name + "@" + concurrency;
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.loadtest;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DataJpaApplication;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 기동부터 첫 요청 응답까지 걸린 시간 (gradle loadTest)
+ * 리포지토리 bootstrap-mode 별로 컨텍스트를 새로 띄워 /members 가 처음 200 을 돌려줄 때까지 잰다.
+ * (deferred 는 리포지토리를 기동 뒤에 초기화하므로 첫 요청이 그 비용을 떠안을 수 있다)
+ */
+@Tag("load")
+class StartupTimeBenchmark {
+
+    private static final int RUNS = Integer.getInteger("loadtest.startupRuns", 3);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    public void timeToFirstRequest() throws Exception {
+        System.out.println(String.format("%-12s %10s %10s %10s", "bootstrap", "min(ms)", "median(ms)", "max(ms)"));
+        for (String mode : new String[]{"default", "deferred", "lazy"}) {
+            List<Long> millis = new ArrayList<>();
+            for (int i = 0; i < RUNS; i++) {
+                millis.add(measure(mode, i));
+            }
+            Collections.sort(millis);
+            System.out.println(String.format("%-12s %10d %10d %10d",
+                    mode, millis.get(0), millis.get(millis.size() / 2), millis.get(millis.size() - 1)));
+        }
+    }
+
+    private long measure(String mode, int run) throws Exception {
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:startup-" + mode + "-" + run + ";DB_CLOSE_DELAY=-1",
+                        "decorator.datasource.enabled=false",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "spring.data.jpa.repositories.bootstrap-mode=" + mode)
+                .run()) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/members?size=1"))
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            assertThat(response.statusCode()).isEqualTo(200);
+            return elapsed;
+        }
+    }
+}
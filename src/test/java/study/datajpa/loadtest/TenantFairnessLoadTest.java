@@ -0,0 +1,135 @@
+package study.datajpa.loadtest;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 테넌트 간 공정성 (gradle loadTest)
+ * heavy 테넌트가 큰 페이지 조회로 커넥션 풀을 몰아쳐도 light 테넌트의 p99 가 크게 나빠지지 않아야 한다.
+ * heavy 는 tenant.max-connections 개의 커넥션만 쥘 수 있고, 넘는 요청은 기다리지 않고 429 로 끝난다.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:tenantload;DB_CLOSE_DELAY=-1",
+        "decorator.datasource.enabled=false",
+        "logging.level.org.hibernate.SQL=warn",
+        "outbox.dispatch.enabled=false",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "tenant.max-connections=4",
+        "tenant.rate-per-second=5000",
+        "tenant.burst=5000"
+})
+class TenantFairnessLoadTest {
+
+    private static final int ROWS = Integer.getInteger("loadtest.rows", 10_000);
+    private static final int TEAMS = 100;
+    private static final int HEAVY_THREADS = Integer.getInteger("loadtest.heavyThreads", 16);
+    private static final String HEADER = "X-Tenant-Id";
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    public void seed() {
+        jdbcTemplate.update("insert into team (team_id, name, tenant_id) select x, 'team' || x, " +
+                "case when mod(x, 2) = 0 then 'heavy' else 'light' end from system_range(1, ?)", TEAMS);
+        // 팀과 같은 테넌트에 넣는다. (짝수 팀 = heavy)
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id, tenant_id, create_date, last_modified_date, created_by, last_modified_by) " +
+                "select x, 'user' || x, mod(x, 100), mod(x, ?) + 1, case when mod(mod(x, ?) + 1, 2) = 0 then 'heavy' else 'light' end, " +
+                "now(), now(), 'seed', 'seed' from system_range(1, ?)", TEAMS, TEAMS, ROWS);
+        jdbcTemplate.execute("alter sequence hibernate_sequence restart with " + (ROWS + TEAMS + 1));
+    }
+
+    @Test
+    public void lightTenantLatencyIsBoundedUnderHeavyTenantFlood() throws Exception {
+        LoadTestRunner runner = new LoadTestRunner(
+                Duration.ofSeconds(Long.getLong("loadtest.warmupSeconds", 2)),
+                Duration.ofSeconds(Long.getLong("loadtest.durationSeconds", 5)));
+        String[] light = {HEADER, "light"};
+
+        // given
+        ScenarioResult baseline = runner.run("light-alone", 2, this::lightPage, light);
+
+        // when
+        ScenarioResult flooded;
+        LongAdder heavyOk = new LongAdder();
+        LongAdder heavyThrottled = new LongAdder();
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        ExecutorService flood = Executors.newFixedThreadPool(HEAVY_THREADS);
+        try {
+            for (int i = 0; i < HEAVY_THREADS; i++) {
+                flood.submit(() -> floodHeavy(flooding, heavyOk, heavyThrottled));
+            }
+            flooded = runner.run("light-flooded", 2, this::lightPage, light);
+        } finally {
+            flooding.set(false);
+            flood.shutdown();
+            flood.awaitTermination(30, TimeUnit.SECONDS);
+        }
+
+        // then
+        System.out.println(String.format("%-16s %10s %9s %9s %9s %8s", "scenario", "requests", "p50(ms)", "p90(ms)", "p99(ms)", "errors"));
+        for (ScenarioResult r : new ScenarioResult[]{baseline, flooded}) {
+            System.out.println(String.format("%-16s %10d %9.2f %9.2f %9.2f %8d",
+                    r.getName(), r.getRequests(), r.getP50Millis(), r.getP90Millis(), r.getP99Millis(), r.getErrors()));
+        }
+        System.out.println(String.format("heavy: %d ok, %d throttled (429)", heavyOk.sum(), heavyThrottled.sum()));
+
+        assertThat(heavyOk.sum()).isPositive();
+        assertThat(flooded.getErrors()).isZero();
+        assertThat(flooded.getP99Millis())
+                .isLessThanOrEqualTo(Math.max(baseline.getP99Millis() * 3, baseline.getP99Millis() + 50));
+    }
+
+    private void floodHeavy(AtomicBoolean flooding, LongAdder ok, LongAdder throttled) {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        while (flooding.get()) {
+            HttpRequest request = HttpRequest.newBuilder(uri("/members?size=2000&page=" + ThreadLocalRandom.current().nextInt(3)))
+                    .header(HEADER, "heavy")
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 429) {
+                    throttled.increment();
+                } else if (status < 400) {
+                    ok.increment();
+                }
+            } catch (Exception e) {
+                // 종료 중
+            }
+        }
+    }
+
+    private URI lightPage() {
+        return uri("/members?size=20&page=" + ThreadLocalRandom.current().nextInt(ROWS / 2 / 20));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
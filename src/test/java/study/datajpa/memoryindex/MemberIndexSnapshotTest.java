@@ -0,0 +1,131 @@
+package study.datajpa.memoryindex;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberIndexSnapshotTest {
+
+    private final MemberIndexSnapshot snapshot = MemberIndexSnapshot.of(Arrays.asList(
+            new MemberIndexRow(3L, "AAA", 20, 1L),
+            new MemberIndexRow(1L, "AAA", 10, 1L),
+            new MemberIndexRow(2L, "BBB", 30, null),
+            new MemberIndexRow(4L, "AAA", 30, 2L),
+            new MemberIndexRow(5L, null, 0, null)
+    ), Collections.singletonMap(1L, "teamA"));
+
+    @Test
+    public void findByUsername() {
+        int[] rows = new int[10];
+
+        int count = snapshot.findByUsername("AAA", rows);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(snapshot.getId(rows[0])).isEqualTo(1L);
+        assertThat(snapshot.getAge(rows[2])).isEqualTo(30);
+        assertThat(snapshot.findByUsername("CCC", rows)).isEqualTo(0);
+        assertThat(snapshot.countByUsername("AAA")).isEqualTo(3);
+        assertThat(snapshot.countByUsername("CCC")).isEqualTo(0);
+    }
+
+    @Test
+    public void findByUsernameAndAgeGreaterThan() {
+        int[] rows = new int[10];
+
+        int count = snapshot.findByUsernameAndAgeGreaterThan("AAA", 15, rows);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(snapshot.getId(rows[0])).isEqualTo(3L);
+        assertThat(snapshot.getId(rows[1])).isEqualTo(4L);
+        assertThat(snapshot.countByUsernameAndAgeGreaterThan("AAA", 15)).isEqualTo(2);
+    }
+
+    @Test
+    public void findTop() {
+        int[] rows = new int[3];
+
+        int count = snapshot.findTop(rows);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(new long[]{snapshot.getId(rows[0]), snapshot.getId(rows[1]), snapshot.getId(rows[2])})
+                .containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    public void mergeChanges() {
+        Map<Long, MemberIndexRow> changed = new HashMap<>();
+        changed.put(1L, new MemberIndexRow(1L, "BBB", 11, 2L));
+        changed.put(6L, new MemberIndexRow(6L, "AAA", 40, null));
+
+        MemberIndexSnapshot merged = snapshot.merge(changed, new HashSet<>(Collections.singletonList(4L)),
+                Collections.singletonMap(2L, "teamB"), Collections.emptySet());
+
+        int[] rows = new int[10];
+        assertThat(merged.size()).isEqualTo(5);
+        assertThat(merged.rowOf(4L)).isEqualTo(-1);
+        assertThat(merged.getTeamId(merged.rowOf(6L))).isEqualTo(MemberIndexSnapshot.NO_TEAM);
+        assertThat(merged.findByUsernameAndAgeGreaterThan("BBB", 0, rows)).isEqualTo(2);
+        assertThat(merged.getId(rows[0])).isEqualTo(1L);
+        assertThat(merged.findByUsername("AAA", rows)).isEqualTo(2);
+        assertThat(merged.getTeamName(merged.getTeamId(merged.rowOf(1L)))).isEqualTo("teamB");
+        assertThat(merged.getTeamName(1L)).isEqualTo("teamA");
+    }
+
+    @Test
+    public void snapshotFileRoundTrip(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("members.snapshot");
+
+        MemberIndexSnapshotFile.write(file, snapshot, 1234L, 56L);
+        MemberIndexSnapshotFile.Loaded loaded = MemberIndexSnapshotFile.read(file);
+
+        MemberIndexSnapshot restored = loaded.getSnapshot();
+        int[] rows = new int[10];
+        assertThat(loaded.getModifiedWatermark()).isEqualTo(1234L);
+        assertThat(loaded.getChangeLogWatermark()).isEqualTo(56L);
+        assertThat(restored.size()).isEqualTo(snapshot.size());
+        assertThat(restored.findByUsernameAndAgeGreaterThan("AAA", 15, rows)).isEqualTo(2);
+        assertThat(restored.getId(rows[0])).isEqualTo(3L);
+        assertThat(restored.getUsername(restored.rowOf(5L))).isNull();
+        assertThat(restored.getTeamName(1L)).isEqualTo("teamA");
+        int[] top = new int[3];
+        assertThat(restored.findTop(top)).isEqualTo(3);
+        assertThat(new long[]{restored.getId(top[0]), restored.getId(top[1]), restored.getId(top[2])})
+                .containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    public void snapshotFileReadAcrossSegments(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("members.snapshot");
+        MemberIndexSnapshotFile.write(file, snapshot, 1234L, 56L);
+
+        // 값과 배열이 매핑 구간 경계에 걸치도록 아주 작은 구간으로 읽는다.
+        MemberIndexSnapshotFile.Loaded loaded = MemberIndexSnapshotFile.read(file, 7);
+
+        MemberIndexSnapshot restored = loaded.getSnapshot();
+        int[] rows = new int[10];
+        assertThat(loaded.getChangeLogWatermark()).isEqualTo(56L);
+        assertThat(restored.size()).isEqualTo(snapshot.size());
+        assertThat(restored.findByUsername("AAA", rows)).isEqualTo(3);
+        assertThat(restored.getUsername(restored.rowOf(2L))).isEqualTo("BBB");
+        assertThat(restored.getTeamName(1L)).isEqualTo("teamA");
+    }
+
+    @Test
+    public void snapshotFileCanBeReplacedAfterRead(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("members.snapshot");
+        MemberIndexSnapshotFile.write(file, snapshot, 1L, 1L);
+        MemberIndexSnapshotFile.read(file);
+
+        MemberIndexSnapshotFile.write(file, snapshot, 2L, 2L);
+
+        assertThat(MemberIndexSnapshotFile.read(file).getModifiedWatermark()).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpa.memoryindex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsernameSearchIndexTest {
+
+    private final MemberIndexSnapshot snapshot = MemberIndexSnapshot.of(Arrays.asList(
+            new MemberIndexRow(1L, "kim-minsu", 20, 1L),
+            new MemberIndexRow(2L, "Minsu", 30, null),
+            new MemberIndexRow(3L, "minsu", 10, 1L),
+            new MemberIndexRow(4L, "parkminsu", 40, null),
+            new MemberIndexRow(5L, "minsuk", 50, null),
+            new MemberIndexRow(6L, "lee", 60, null),
+            new MemberIndexRow(7L, null, 0, null)
+    ), Collections.singletonMap(1L, "teamA"));
+
+    private final UsernameSearchIndex index = UsernameSearchIndex.of(snapshot);
+
+    @Test
+    public void rankedSubstringSearch() {
+        int[] rows = index.search("MINSU");
+
+        assertThat(Arrays.stream(rows).mapToLong(snapshot::getId).boxed())
+                .containsExactly(2L, 3L, 5L, 1L, 4L);
+    }
+
+    @Test
+    public void shortQueryMatchesPrefixOnly() {
+        int[] rows = index.search("mi");
+
+        assertThat(Arrays.stream(rows).mapToObj(snapshot::getUsername))
+                .containsExactly("Minsu", "minsu", "minsuk");
+        assertThat(index.search("xyz")).isEmpty();
+    }
+
+    @Test
+    public void autocomplete() {
+        assertThat(index.autocomplete("Min", 10)).containsExactly("Minsu", "minsu", "minsuk");
+        assertThat(index.autocomplete("min", 2)).hasSize(2);
+        assertThat(index.autocomplete("z", 10)).isEmpty();
+    }
+
+    @Test
+    public void rank() {
+        assertThat(UsernameSearchIndex.rank("minsu", "minsu")).isEqualTo(UsernameSearchIndex.EXACT);
+        assertThat(UsernameSearchIndex.rank("minsuk", "minsu")).isEqualTo(UsernameSearchIndex.PREFIX);
+        assertThat(UsernameSearchIndex.rank("kim-minsu", "minsu")).isEqualTo(UsernameSearchIndex.WORD_PREFIX);
+        assertThat(UsernameSearchIndex.rank("parkminsu", "minsu")).isEqualTo(UsernameSearchIndex.SUBSTRING);
+        assertThat(UsernameSearchIndex.rank("lee", "minsu")).isEqualTo(-1);
+    }
+}
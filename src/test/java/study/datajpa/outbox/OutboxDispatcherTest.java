@@ -0,0 +1,106 @@
+package study.datajpa.outbox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.OutboxEvent;
+import study.datajpa.domain.OutboxEventType;
+import study.datajpa.domain.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "outbox.dispatch.enabled=false")
+class OutboxDispatcherTest {
+
+    @Autowired
+    OutboxDispatcher outboxDispatcher;
+    @Autowired
+    InMemoryOutboxSink outboxSink;
+    @Autowired
+    OutboxMetrics outboxMetrics;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private final List<Long> memberIds = new ArrayList<>();
+    private final List<Long> teamIds = new ArrayList<>();
+    private long lastOutboxEventId;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        @Primary
+        InMemoryOutboxSink inMemoryOutboxSink() {
+            return new InMemoryOutboxSink();
+        }
+    }
+
+    /**
+     * 디스패처는 커밋된 행만 보므로 @Transactional 없이 저장하고, 끝나면 직접 지운다.
+     */
+    @AfterEach
+    public void cleanUp() {
+        for (Long memberId : memberIds) {
+            jdbcTemplate.update("delete from member where member_id = ?", memberId);
+            jdbcTemplate.update("delete from change_log where entity_name = 'Member' and entity_id = ?", String.valueOf(memberId));
+        }
+        for (Long teamId : teamIds) {
+            jdbcTemplate.update("delete from team_age_stats where team_id = ?", teamId);
+            jdbcTemplate.update("delete from team where team_id = ?", teamId);
+            jdbcTemplate.update("delete from change_log where entity_name = 'Team' and entity_id = ?", String.valueOf(teamId));
+        }
+        jdbcTemplate.update("delete from outbox_event where outbox_event_id > ?", lastOutboxEventId);
+    }
+
+    @Test
+    public void dispatchMemberEvents() {
+        // given
+        lastOutboxEventId = jdbcTemplate.queryForObject("select coalesce(max(outbox_event_id), 0) from outbox_event", Long.class);
+        Long memberId = transactionTemplate.execute(status -> {
+            Team teamA = teamRepository.save(new Team("teamA"));
+            Team teamB = teamRepository.save(new Team("teamB"));
+            teamIds.add(teamA.getId());
+            teamIds.add(teamB.getId());
+            Member member = memberRepository.save(new Member("outbox1", 10, teamA));
+            memberRepository.flush();
+
+            member.changeTeam(teamB);
+            return member.getId();
+        });
+        memberIds.add(memberId);
+        memberRepository.bulkAgePlus(200);
+
+        // when
+        while (outboxDispatcher.dispatchBatch() > 0) {
+            // drain
+        }
+
+        // then
+        List<OutboxEventType> memberEvents = outboxSink.getDelivered().stream()
+                .filter(e -> String.valueOf(memberId).equals(e.getAggregateId()))
+                .map(OutboxEvent::getEventType)
+                .collect(Collectors.toList());
+        assertThat(memberEvents).containsExactly(OutboxEventType.MEMBER_CREATED, OutboxEventType.MEMBER_TEAM_CHANGED);
+        assertThat(outboxSink.getDelivered()).extracting(OutboxEvent::getEventType)
+                .contains(OutboxEventType.MEMBER_BULK_AGED);
+        assertThat(outboxMetrics.getDispatched()).isGreaterThanOrEqualTo(3);
+    }
+}
@@ -0,0 +1,89 @@
+package study.datajpa.persistencecontext;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.domain.Member;
+import study.datajpa.dto.PersistenceContextStats;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "persistence-context.max-managed-entities=50")
+@Transactional
+class PersistenceContextGuardTest {
+
+    @Autowired
+    MemberLoader memberLoader;
+    @Autowired
+    PersistenceContextMetrics metrics;
+    @PersistenceContext
+    EntityManager em;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        MemberLoader memberLoader() {
+            return new MemberLoader();
+        }
+    }
+
+    static class MemberLoader {
+
+        @PersistenceContext
+        EntityManager em;
+
+        @BatchMode
+        public List<Member> loadInBatchMode(int count) {
+            return load(count);
+        }
+
+        public List<Member> load(int count) {
+            List<Member> members = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Member member = new Member("guard" + i, i);
+                em.persist(member);
+                members.add(member);
+            }
+            return members;
+        }
+    }
+
+    @Test
+    public void batchModeFlushesAndClears() {
+        // given
+        long autoClears = metrics.snapshot().getAutoClears();
+
+        // when
+        List<Member> members = memberLoader.loadInBatchMode(120);
+
+        // then
+        PersistenceContextStats stats = metrics.snapshot();
+        assertThat(stats.getAutoClears() - autoClears).isEqualTo(2);
+        assertThat(em.contains(members.get(0))).isFalse();
+        assertThat(em.contains(members.get(119))).isTrue();
+        assertThat(stats.getDirtyChecks()).isGreaterThan(0);
+    }
+
+    @Test
+    public void outsideBatchModeOnlyWarns() {
+        // given
+        PersistenceContextStats before = metrics.snapshot();
+
+        // when
+        List<Member> members = memberLoader.load(60);
+
+        // then
+        PersistenceContextStats after = metrics.snapshot();
+        assertThat(after.getAutoClears()).isEqualTo(before.getAutoClears());
+        assertThat(after.getWarnings()).isGreaterThan(before.getWarnings());
+        assertThat(em.contains(members.get(0))).isTrue();
+    }
+}
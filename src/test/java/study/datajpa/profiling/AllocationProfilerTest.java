@@ -0,0 +1,76 @@
+package study.datajpa.profiling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.controller.MemberController;
+import study.datajpa.domain.Member;
+import study.datajpa.dto.AllocationStats;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"allocation-profiler.enabled=true", "allocation-profiler.sample-rate=1.0"})
+@Transactional
+class AllocationProfilerTest {
+
+    @Autowired
+    AllocationProfiler allocationProfiler;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberController memberController;
+
+    @BeforeEach
+    public void reset() {
+        allocationProfiler.reset();
+    }
+
+    @Test
+    public void repositoryCallsAreProfiledPerMethod() {
+        // given
+        for (int i = 0; i < 50; i++) {
+            memberRepository.save(new Member("alloc" + i, i));
+        }
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            memberRepository.findProjectionsByUsername("alloc" + i);
+        }
+
+        // then
+        AllocationStats stats = find("MemberRepository.findProjectionsByUsername").orElseThrow(AssertionError::new);
+        assertThat(stats.getKind()).isEqualTo(AllocationProfiler.REPOSITORY);
+        assertThat(stats.getCalls()).isEqualTo(3);
+        assertThat(stats.getTotalAllocatedBytes()).isPositive();
+        assertThat(stats.getMaxAllocatedBytes()).isGreaterThanOrEqualTo(stats.getAvgAllocatedBytes());
+    }
+
+    @Test
+    public void controllerRequestIncludesRepositoryAllocations() {
+        // given
+        for (int i = 0; i < 20; i++) {
+            memberRepository.save(new Member("alloc" + i, i));
+        }
+
+        // when
+        memberController.memberList(PageRequest.of(0, 20));
+
+        // then
+        AllocationStats request = find("MemberController.memberList").orElseThrow(AssertionError::new);
+        AllocationStats query = find("MemberRepository.findAll").orElseThrow(AssertionError::new);
+        assertThat(request.getKind()).isEqualTo(AllocationProfiler.CONTROLLER);
+        assertThat(request.getTotalAllocatedBytes()).isGreaterThanOrEqualTo(query.getTotalAllocatedBytes());
+    }
+
+    private Optional<AllocationStats> find(String method) {
+        return allocationProfiler.snapshot().stream()
+                .filter(s -> s.getMethod().equals(method))
+                .findFirst();
+    }
+}
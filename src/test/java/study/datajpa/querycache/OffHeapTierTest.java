@@ -0,0 +1,100 @@
+package study.datajpa.querycache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapTierTest {
+
+    private static final long[] GENERATIONS = {1L, 1L};
+    private static final long NOW = 1_000L;
+    private static final long EXPIRES_AT = NOW + 60_000L;
+
+    @Test
+    public void missWhenAbsentStaleOrExpired() throws Exception {
+        OffHeapTier tier = new OffHeapTier(1024);
+        tier.put(key(1), "v1", GENERATIONS, EXPIRES_AT);
+        tier.put(key(2), "v2", GENERATIONS, NOW);
+
+        assertThat(tier.get(key(1), GENERATIONS, NOW)).isEqualTo("v1");
+        assertThat(tier.get(key(3), GENERATIONS, NOW)).isNull();
+        // 엔티티 세대가 바뀌었다.
+        assertThat(tier.get(key(1), new long[]{2L, 1L}, NOW)).isNull();
+        assertThat(tier.get(key(2), GENERATIONS, NOW)).isNull();
+        // 직렬화할 수 없는 값은 저장하지 않는다.
+        tier.put(key(4), new Object(), GENERATIONS, EXPIRES_AT);
+        assertThat(tier.get(key(4), GENERATIONS, NOW)).isNull();
+    }
+
+    @Test
+    public void wrapsAroundAndEvictsOldestFirst() throws Exception {
+        // 항목 3개와 반 개가 들어가는 크기
+        int entry = serializedSize(value(0));
+        OffHeapTier tier = new OffHeapTier(entry * 3 + entry / 2);
+        for (int i = 1; i <= 3; i++) {
+            tier.put(key(i), value(i), GENERATIONS, EXPIRES_AT);
+        }
+        assertThat(tier.getEvictions()).isZero();
+
+        // when: 끝에 자리가 모자라 처음으로 돌아가 가장 오래된 1 을 덮어쓴다.
+        tier.put(key(4), value(4), GENERATIONS, EXPIRES_AT);
+
+        // then
+        assertThat(tier.getEvictions()).isEqualTo(1);
+        assertThat(tier.size()).isEqualTo(3);
+        assertThat(tier.get(key(1), GENERATIONS, NOW)).isNull();
+        assertThat(tier.get(key(2), GENERATIONS, NOW)).isEqualTo(value(2));
+        assertThat(tier.get(key(3), GENERATIONS, NOW)).isEqualTo(value(3));
+        assertThat(tier.get(key(4), GENERATIONS, NOW)).isEqualTo(value(4));
+
+        // when: 다음 항목은 그 뒤의 2 를 덮어쓴다.
+        tier.put(key(5), value(5), GENERATIONS, EXPIRES_AT);
+
+        // then
+        assertThat(tier.getEvictions()).isEqualTo(2);
+        assertThat(tier.get(key(2), GENERATIONS, NOW)).isNull();
+        assertThat(tier.get(key(3), GENERATIONS, NOW)).isEqualTo(value(3));
+        assertThat(tier.get(key(5), GENERATIONS, NOW)).isEqualTo(value(5));
+    }
+
+    @Test
+    public void rewrittenKeyIsNotCountedAsEviction() throws Exception {
+        int entry = serializedSize(value(0));
+        OffHeapTier tier = new OffHeapTier(entry * 2);
+        tier.put(key(1), value(1), GENERATIONS, EXPIRES_AT);
+        tier.put(key(1), value(2), GENERATIONS, EXPIRES_AT);
+
+        // when: 먼저 쓴 자리(이미 무효)를 덮어쓴다.
+        tier.put(key(3), value(3), GENERATIONS, EXPIRES_AT);
+
+        // then
+        assertThat(tier.getEvictions()).isZero();
+        assertThat(tier.get(key(1), GENERATIONS, NOW)).isEqualTo(value(2));
+        assertThat(tier.get(key(3), GENERATIONS, NOW)).isEqualTo(value(3));
+    }
+
+    private static QueryCacheKey key(int i) throws NoSuchMethodException {
+        Method method = String.class.getMethod("length");
+        return new QueryCacheKey(null, method, new Object[]{i});
+    }
+
+    /**
+     * 직렬화 크기가 모두 같은 값
+     */
+    private static String value(int i) {
+        return String.format("value-%04d", i);
+    }
+
+    private static int serializedSize(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(value);
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,121 @@
+package study.datajpa.querycache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 캐시는 트랜잭션 밖(또는 읽기 전용 트랜잭션)에서만 동작하므로 @Transactional 없이 실행한다.
+ */
+@SpringBootTest(properties = "query-cache.l2.enabled=true")
+class QueryResultCacheTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    QueryResultCache queryResultCache;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    String prefix = "qc-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+    long lastOutboxEventId;
+
+    @BeforeEach
+    public void clear() {
+        queryResultCache.clear();
+        lastOutboxEventId = jdbcTemplate.queryForObject("select coalesce(max(outbox_event_id), 0) from outbox_event", Long.class);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("delete from change_log where entity_name = 'Member' and entity_id in" +
+                " (select cast(member_id as varchar) from member where username like ?)", prefix + "%");
+        jdbcTemplate.update("delete from member where username like ?", prefix + "%");
+        jdbcTemplate.update("delete from team_age_stats where team_id in (select team_id from team where name like ?)", prefix + "%");
+        jdbcTemplate.update("delete from change_log where entity_name = 'Team' and entity_id in" +
+                " (select cast(team_id as varchar) from team where name like ?)", prefix + "%");
+        jdbcTemplate.update("delete from team where name like ?", prefix + "%");
+        jdbcTemplate.update("delete from outbox_event where outbox_event_id > ?", lastOutboxEventId);
+        queryResultCache.clear();
+    }
+
+    @Test
+    public void repeatedQueryIsServedFromCache() {
+        // given
+        Team team = teamRepository.save(new Team(prefix + "team"));
+        memberRepository.save(new Member(prefix + "member1", 10, team));
+        long hitsBefore = hits("findMemberDto");
+
+        // when
+        List<MemberDto> first = memberRepository.findMemberDto();
+        List<MemberDto> second = memberRepository.findMemberDto();
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(hits("findMemberDto")).isEqualTo(hitsBefore + 1);
+    }
+
+    @Test
+    public void entityWriteInvalidatesCachedQuery() {
+        // given
+        Team team = teamRepository.save(new Team(prefix + "team"));
+        memberRepository.save(new Member(prefix + "member1", 10, team));
+        List<MemberDto> before = memberRepository.findMemberDto();
+
+        // when
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.execute(status -> memberRepository.save(new Member(prefix + "member2", 20, team)));
+        List<MemberDto> after = memberRepository.findMemberDto();
+
+        // then
+        assertThat(after).hasSize(before.size() + 1);
+        assertThat(after).extracting(MemberDto::getUsername).contains(prefix + "member2");
+    }
+
+    @Test
+    public void bulkUpdateInvalidatesCachedQuery() {
+        // given
+        memberRepository.save(new Member(prefix + "member1", 10));
+        List<String> before = memberRepository.findUsernameList();
+        assertThat(memberRepository.findUsernameList()).isSameAs(before);
+
+        // when
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.execute(status -> {
+            memberJpaRepository.bulkAgePlus(Integer.MAX_VALUE);
+            return null;
+        });
+
+        // then
+        assertThat(memberRepository.findUsernameList()).isNotSameAs(before);
+    }
+
+    private long hits(String methodName) {
+        return queryResultCache.snapshot().getMethods().stream()
+                .filter(m -> m.getMethod().endsWith("." + methodName))
+                .mapToLong(m -> m.getL1Hits() + m.getL2Hits())
+                .sum();
+    }
+}
@@ -0,0 +1,51 @@
+package study.datajpa.queryplan;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.QueryPlanCacheStats;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class QueryPlanWarmupTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    QueryPlanMetrics queryPlanMetrics;
+
+    /**
+     * 기동 시(ApplicationReadyEvent) 워밍업이 파생 쿼리의 플랜도 캐시에 넣어 두었어야 한다.
+     */
+    @Test
+    public void derivedQueryPlanIsWarm() {
+        // given
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long misses = statistics.getQueryPlanCacheMissCount();
+
+        // when
+        memberRepository.findByUsernameAndAgeGreaterThan("warm", 10);
+        memberRepository.findListByUsername("warm");
+
+        // then
+        assertThat(statistics.getQueryPlanCacheMissCount()).isEqualTo(misses);
+    }
+
+    @Test
+    public void snapshotReportsConfiguredMaxSize() {
+        QueryPlanCacheStats stats = queryPlanMetrics.snapshot();
+
+        assertThat(stats.isStatisticsEnabled()).isTrue();
+        assertThat(stats.getMaxSize()).isEqualTo(512);
+    }
+}
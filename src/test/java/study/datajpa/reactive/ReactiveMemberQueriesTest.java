@@ -0,0 +1,91 @@
+package study.datajpa.reactive;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import study.datajpa.domain.Member;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"reactive-member.chunk-size=3", "outbox.dispatch.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+class ReactiveMemberQueriesTest {
+
+    @Autowired
+    ReactiveMemberQueries reactiveMemberQueries;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Test
+    public void streamInChunks() {
+        // given
+        String prefix = UUID.randomUUID().toString();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 10; i++) {
+                memberRepository.save(new Member(prefix + i, i));
+            }
+        });
+
+        // when
+        List<MemberDto> result = reactiveMemberQueries.findAll()
+                .filter(dto -> dto.getUsername() != null && dto.getUsername().startsWith(prefix))
+                .collectList()
+                .block();
+
+        // then
+        assertThat(result).hasSize(10);
+        List<Long> ids = result.stream().map(MemberDto::getId).collect(Collectors.toList());
+        assertThat(ids).isSorted();
+    }
+
+    @Test
+    public void fetchOnlyWhatIsRequested() throws Exception {
+        // given
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 10; i++) {
+                memberRepository.save(new Member("stream" + i, i));
+            }
+        });
+
+        QueryStatistics chunkQuery = chunkQueryStatistics();
+        long before = chunkQuery.getExecutionCount();
+
+        // when
+        Flux<MemberDto> flux = reactiveMemberQueries.findAll();
+        long beforeSubscribe = chunkQuery.getExecutionCount();
+        List<MemberDto> firstTwo = flux
+                .limitRate(1)
+                .take(2)
+                .collectList()
+                .block();
+
+        // then
+        assertThat(beforeSubscribe).isEqualTo(before);
+        assertThat(firstTwo).hasSize(2);
+        // 청크 크기가 3 이므로 두 건은 첫 청크에서 끝나고, 다음 청크는 요청되지 않는다.
+        assertThat(chunkQuery.getExecutionCount() - before).isEqualTo(1);
+    }
+
+    private QueryStatistics chunkQueryStatistics() throws NoSuchMethodException {
+        String jpql = MemberRepository.class.getMethod("findMemberDtoChunk", Long.class, Pageable.class)
+                .getAnnotation(Query.class).value();
+        return emf.unwrap(SessionFactory.class).getStatistics().getQueryStatistics(jpql);
+    }
+}
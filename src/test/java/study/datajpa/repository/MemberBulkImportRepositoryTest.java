@@ -0,0 +1,75 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.dto.BulkImportResult;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"member-import.batch-rows=100", "member-import.progress-every=500"})
+class MemberBulkImportRepositoryTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void importCsv(@TempDir Path dir) throws Exception {
+        // given
+        String prefix = "import-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        Path csv = dir.resolve("members.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("username,age,teamName\n");
+            for (int i = 0; i < 1234; i++) {
+                String team = i % 10 == 0 ? "" : "\"" + prefix + "team, " + (i % 3) + "\"";
+                writer.write(prefix + i + "," + (i % 50) + "," + team + "\n");
+            }
+        }
+        List<Long> progress = new ArrayList<>();
+
+        // when
+        BulkImportResult result = memberRepository.importCsv(csv, count -> {
+            synchronized (progress) {
+                progress.add(count);
+            }
+        });
+
+        // then
+        assertThat(result.getMembers()).isEqualTo(1234);
+        assertThat(result.getTeamsCreated()).isEqualTo(3);
+        assertThat(progress).hasSize(2);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member where username like ?", Long.class, prefix + "%"))
+                .isEqualTo(1234);
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from member m join team t on t.team_id = m.team_id where t.name = ?", Long.class, prefix + "team, 1"))
+                .isGreaterThan(0);
+        assertThat(memberRepository.findByUsername(prefix + "10").get(0).getTeam()).isNull();
+        // 배치마다 같은 트랜잭션에서 더한 통계가 팀이 있는 회원 수와 같아야 한다.
+        assertThat(jdbcTemplate.queryForObject("select coalesce(sum(member_count), 0) from team_age_stats" +
+                " where team_id in (select team_id from team where name like ?)", Long.class, prefix + "%"))
+                .isEqualTo(1234 - 124);
+
+        jdbcTemplate.update("delete from member where username like ?", prefix + "%");
+        jdbcTemplate.update("delete from team_age_stats where team_id in (select team_id from team where name like ?)", prefix + "%");
+        jdbcTemplate.update("delete from team where name like ?", prefix + "%");
+    }
+
+    @Test
+    public void splitQuotedFields() {
+        assertThat(MemberBulkImportRepositoryImpl.splitCsv("kim,10,\"team \"\"A\"\", seoul\""))
+                .containsExactly("kim", "10", "team \"A\", seoul");
+        assertThat(MemberBulkImportRepositoryImpl.splitCsv("lee,20,")).containsExactly("lee", "20", "");
+    }
+}
@@ -0,0 +1,79 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.memoryindex.MemberReadIndex;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "member-index.enabled=true",
+        "member-index.snapshot-file=",
+        "member-index.refresh-interval-ms=3600000"})
+class MemberLookupRepositoryTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberReadIndex memberReadIndex;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    String username = "lookup-" + UUID.randomUUID().toString().substring(0, 8);
+    long lateChangeLogId = -System.nanoTime();
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("delete from member where username = ?", username);
+        jdbcTemplate.update("delete from change_log where change_log_id = ?", lateChangeLogId);
+    }
+
+    @Test
+    public void lookupsAreAnsweredFromTheIndex() {
+        // given
+        Member member = memberRepository.save(new Member(username, 20));
+        memberReadIndex.fullRefresh();
+
+        // DB 에서 바로 지워도 인덱스는 다음 refresh 전까지 그대로 답한다.
+        jdbcTemplate.update("delete from member where member_id = ?", member.getId());
+
+        // when
+        List<MemberDto> byUsername = memberRepository.lookupByUsername(username);
+        List<MemberDto> olderThan = memberRepository.lookupByUsernameAndAgeGreaterThan(username, 10);
+
+        // then
+        assertThat(byUsername).extracting(MemberDto::getId).containsExactly(member.getId());
+        assertThat(olderThan).extracting(MemberDto::getId).containsExactly(member.getId());
+        assertThat(memberRepository.lookupByUsernameAndAgeGreaterThan(username, 20)).isEmpty();
+        assertThat(memberRepository.lookupUsername(member.getId())).contains(username);
+    }
+
+    @Test
+    public void lateCommittedDeleteWithLowerIdIsApplied() {
+        // given
+        Member member = memberRepository.save(new Member(username, 20));
+        memberReadIndex.fullRefresh();
+        memberReadIndex.refresh();
+
+        // 먼저 id 를 받았지만 늦게 커밋된 삭제: 이미 읽은 change_log 보다 id 가 작다.
+        jdbcTemplate.update("delete from member where member_id = ?", member.getId());
+        jdbcTemplate.update("insert into change_log (change_log_id, entity_name, entity_id, change_type, changed_at) values (?, ?, ?, ?, ?)",
+                lateChangeLogId, Member.class.getSimpleName(), String.valueOf(member.getId()), "DELETE", LocalDateTime.now());
+
+        // when
+        memberReadIndex.refresh();
+
+        // then
+        assertThat(memberRepository.lookupByUsername(username)).isEmpty();
+        assertThat(memberRepository.lookupUsername(member.getId())).isEmpty();
+    }
+}
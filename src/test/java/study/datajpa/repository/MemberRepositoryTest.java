@@ -468,6 +468,45 @@ class MemberRepositoryTest {
 
     }
 
+    @Test
+    public void searchByUsernameInDatabase() {
+        // given
+        Team team = new Team("searchTeam");
+        em.persist(team);
+        em.persist(new Member("search_kim", 10, team));
+        em.persist(new Member("Search_Kim_Lee", 20));
+        em.persist(new Member("searchXkim", 30));
+        em.flush();
+        em.clear();
+
+        // when
+        Page<MemberDto> page = memberRepository.searchByUsername("search_kim", PageRequest.of(0, 10));
+        List<String> usernames = memberRepository.autocompleteUsername("SEARCH_", 10);
+
+        // then ('_' 는 와일드카드가 아니다)
+        assertThat(page.getContent()).extracting(MemberDto::getUsername)
+                .containsExactly("search_kim", "Search_Kim_Lee");
+        assertThat(page.getContent().get(0).getTeamName()).isEqualTo("searchTeam");
+        assertThat(usernames).contains("search_kim", "Search_Kim_Lee").doesNotContain("searchXkim");
+    }
+
+    @Test
+    public void shortAndEmptySearchInDatabaseMatchesIndex() {
+        // given
+        em.persist(new Member("qzSearch", 10));
+        em.persist(new Member("searchQz", 20));
+        em.flush();
+        em.clear();
+
+        // when (UsernameSearchIndex 와 같이 3자 미만은 접두어로만, 빈 검색어는 결과 없음)
+        Page<MemberDto> shortQuery = memberRepository.searchByUsername("QZ", PageRequest.of(0, 10));
+        Page<MemberDto> emptyQuery = memberRepository.searchByUsername("", PageRequest.of(0, 10));
+
+        // then
+        assertThat(shortQuery.getContent()).extracting(MemberDto::getUsername).containsExactly("qzSearch");
+        assertThat(emptyQuery.getTotalElements()).isZero();
+    }
+
     private void createTeamAndMember() {
         Team teamA = new Team("teamA");
         em.persist(teamA);
@@ -0,0 +1,72 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.config.BootstrapMode;
+import org.springframework.data.repository.query.Param;
+import study.datajpa.domain.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 운영 기동 시에는 쿼리 검증(hibernate.query.startup_check)과 리포지토리 초기화를 미루므로,
+ * 빌드 단계에서 임베디드 DB 로 네임드 쿼리와 모든 리포지토리 쿼리 메서드를 즉시 검증한다.
+ * (BootstrapMode.DEFAULT 라서 잘못된 쿼리 메서드가 하나라도 있으면 컨텍스트가 뜨지 않는다)
+ */
+@DataJpaTest(bootstrapMode = BootstrapMode.DEFAULT,
+        properties = "spring.jpa.properties.hibernate.query.startup_check=true")
+class RepositoryQueryValidationTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    /**
+     * 스프링 데이터는 중첩 인터페이스를 리포지토리로 스캔하지 않으므로 이 테스트에서만 만들어진다.
+     */
+    interface InvalidDerivedQuery extends Repository<Member, Long> {
+
+        List<Member> findByNickname(String nickname);
+    }
+
+    interface InvalidJpqlQuery extends Repository<Member, Long> {
+
+        @Query("select m from Member m where m.nickname = :nickname")
+        List<Member> findMembers(@Param("nickname") String nickname);
+    }
+
+    @Test
+    public void namedQueries() {
+        assertThat(em.createNamedQuery("Member.findByUsername", Member.class)
+                .setParameter("username", "member1")
+                .getResultList()).isEmpty();
+    }
+
+    /**
+     * 컨텍스트 기동 시 리포지토리를 만드는 것과 같은 경로다.
+     */
+    @Test
+    public void invalidDerivedQueryFailsRepositoryCreation() {
+        JpaRepositoryFactory factory = new JpaRepositoryFactory(em);
+
+        assertThatThrownBy(() -> factory.getRepository(InvalidDerivedQuery.class))
+                .hasMessageContaining("nickname");
+    }
+
+    @Test
+    public void invalidJpqlQueryFailsRepositoryCreation() {
+        JpaRepositoryFactory factory = new JpaRepositoryFactory(em);
+
+        assertThatThrownBy(() -> factory.getRepository(InvalidJpqlQuery.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Validation failed")
+                .hasMessageContaining("findMembers");
+    }
+}
@@ -0,0 +1,106 @@
+package study.datajpa.scan;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 청크마다 커밋하므로 @Transactional 없이 실행하고, 만든 회원과 scan_checkpoint 행은 직접 지운다.
+ */
+@SpringBootTest(properties = {"member-scan.chunk-size=7", "outbox.dispatch.enabled=false"})
+class MemberScanExecutorTest {
+
+    @Autowired
+    MemberScanExecutor memberScanExecutor;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    String prefix = UUID.randomUUID().toString();
+    long lastOutboxEventId;
+
+    @BeforeEach
+    public void rememberOutbox() {
+        lastOutboxEventId = jdbcTemplate.queryForObject("select coalesce(max(outbox_event_id), 0) from outbox_event", Long.class);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("delete from scan_checkpoint where job_name = ?", "agePlus-" + prefix);
+        jdbcTemplate.update("delete from change_log where entity_name = 'Member' and entity_id in" +
+                " (select cast(member_id as varchar) from member where username like ?)", prefix + "%");
+        jdbcTemplate.update("delete from member where username like ?", prefix + "%");
+        jdbcTemplate.update("delete from outbox_event where outbox_event_id > ?", lastOutboxEventId);
+    }
+
+    @Test
+    public void agePlusInParallel() {
+        // given
+        List<Long> ids = createMembers(prefix, 50);
+
+        // when
+        ScanResult result = memberScanExecutor.run("agePlus-" + prefix, agePlus(prefix));
+
+        // then
+        assertThat(result.getProcessed()).isGreaterThanOrEqualTo(50);
+        assertThat(memberRepository.findAllById(ids)).extracting(Member::getAge).containsOnly(11);
+    }
+
+    @Test
+    public void resumeFromCheckpoint() {
+        // given
+        List<Long> ids = createMembers(prefix, 50);
+        Long failingId = ids.get(30);
+        AtomicBoolean failed = new AtomicBoolean();
+
+        // when
+        assertThatThrownBy(() -> memberScanExecutor.run("agePlus-" + prefix, member -> {
+            if (member.getId().equals(failingId) && failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("crash");
+            }
+            agePlus(prefix).accept(member);
+        })).isInstanceOf(ScanFailedException.class);
+
+        memberScanExecutor.run("agePlus-" + prefix, agePlus(prefix));
+
+        // then
+        // 실패한 청크만 롤백되고 재실행되므로 모든 회원이 정확히 한 번씩 증가한다.
+        assertThat(memberRepository.findAllById(ids)).extracting(Member::getAge).containsOnly(11);
+    }
+
+    private static Consumer<Member> agePlus(String prefix) {
+        return member -> {
+            if (member.getUsername() != null && member.getUsername().startsWith(prefix)) {
+                member.setAge(member.getAge() + 1);
+            }
+        };
+    }
+
+    private List<Long> createMembers(String prefix, int count) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                ids.add(memberRepository.save(new Member(prefix + i, 10)).getId());
+            }
+            return ids;
+        });
+    }
+}
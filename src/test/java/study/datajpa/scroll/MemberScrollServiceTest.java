@@ -0,0 +1,162 @@
+package study.datajpa.scroll;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberScroll;
+import study.datajpa.dto.ScrollPrefetchStats;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 선읽기는 다른 스레드에서 커밋된 데이터를 읽으므로 @Transactional 없이 실행하고, 만든 행은 직접 지운다.
+ */
+@SpringBootTest
+class MemberScrollServiceTest {
+
+    @Autowired
+    MemberScrollService memberScrollService;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    String prefix = "scroll-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+    long lastOutboxEventId;
+
+    @BeforeEach
+    public void rememberOutbox() {
+        lastOutboxEventId = jdbcTemplate.queryForObject("select coalesce(max(outbox_event_id), 0) from outbox_event", Long.class);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("delete from change_log where entity_name = 'Member' and entity_id in" +
+                " (select cast(member_id as varchar) from member where username like ?)", prefix + "%");
+        jdbcTemplate.update("delete from member where username like ?", prefix + "%");
+        jdbcTemplate.update("delete from team_age_stats where team_id in (select team_id from team where name like ?)", prefix + "%");
+        jdbcTemplate.update("delete from change_log where entity_name = 'Team' and entity_id in" +
+                " (select cast(team_id as varchar) from team where name like ?)", prefix + "%");
+        jdbcTemplate.update("delete from team where name like ?", prefix + "%");
+        jdbcTemplate.update("delete from outbox_event where outbox_event_id > ?", lastOutboxEventId);
+    }
+
+    @Test
+    public void scrollServesNextSliceFromPrefetch() {
+        // given
+        List<Member> seeded = seed(25, null);
+        Long cursor = seeded.get(0).getId() - 1;
+        ScrollPrefetchStats before = memberScrollService.stats();
+
+        // when
+        List<MemberDto> scrolled = new ArrayList<>();
+        MemberScroll scroll;
+        do {
+            scroll = scrollAfterPrefetch(cursor, 10);
+            scrolled.addAll(scroll.getContent());
+            cursor = scroll.getNextCursor();
+        } while (scroll.isHasNext() && scrolled.size() < 25);
+
+        // then
+        List<Long> ids = scrolled.stream().map(MemberDto::getId).collect(Collectors.toList());
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        assertThat(ids).containsAll(seeded.stream().map(Member::getId).collect(Collectors.toList()));
+
+        ScrollPrefetchStats after = memberScrollService.stats();
+        assertThat(after.getHits() - before.getHits()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    public void writeInsideSliceDiscardsPrefetchedSlice() {
+        // given
+        List<Member> seeded = seed(10, null);
+        MemberScroll first = scrollAfterPrefetch(seeded.get(0).getId() - 1, 5);
+        ScrollPrefetchStats before = memberScrollService.stats();
+
+        // when
+        Member inNextSlice = seeded.get(7);
+        inNextSlice.setUsername(prefix + "renamed");
+        memberRepository.save(inNextSlice);
+        MemberScroll second = memberScrollService.scroll(first.getNextCursor(), 5);
+
+        // then
+        ScrollPrefetchStats after = memberScrollService.stats();
+        assertThat(after.getHits()).isEqualTo(before.getHits());
+        assertThat(after.getDiscarded() - before.getDiscarded()).isEqualTo(1);
+        assertThat(second.getContent()).extracting(MemberDto::getUsername).contains(prefix + "renamed");
+    }
+
+    @Test
+    public void writeOutsideSliceKeepsPrefetchedSlice() {
+        // given
+        List<Member> seeded = seed(15, null);
+        MemberScroll first = scrollAfterPrefetch(seeded.get(0).getId() - 1, 5);
+        ScrollPrefetchStats before = memberScrollService.stats();
+
+        // when: 이미 받은 슬라이스의 회원을 바꾼다.
+        Member alreadyServed = seeded.get(0);
+        alreadyServed.setUsername(prefix + "renamed");
+        memberRepository.save(alreadyServed);
+        MemberScroll second = memberScrollService.scroll(first.getNextCursor(), 5);
+
+        // then
+        ScrollPrefetchStats after = memberScrollService.stats();
+        assertThat(after.getHits() - before.getHits()).isEqualTo(1);
+        assertThat(second.getContent()).extracting(MemberDto::getId)
+                .containsExactlyElementsOf(seeded.subList(5, 10).stream().map(Member::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void teamRenameDiscardsSlicesWithItsMembers() {
+        // given
+        Team team = teamRepository.save(new Team(prefix + "team"));
+        List<Member> seeded = seed(10, team);
+        MemberScroll first = scrollAfterPrefetch(seeded.get(0).getId() - 1, 5);
+        ScrollPrefetchStats before = memberScrollService.stats();
+
+        // when
+        team.setName(prefix + "renamed");
+        teamRepository.save(team);
+        MemberScroll second = memberScrollService.scroll(first.getNextCursor(), 5);
+
+        // then
+        ScrollPrefetchStats after = memberScrollService.stats();
+        assertThat(after.getHits()).isEqualTo(before.getHits());
+        assertThat(second.getContent()).extracting(MemberDto::getTeamName).containsOnly(prefix + "renamed");
+    }
+
+    /**
+     * 다음 슬라이스 선읽기가 끝날 때까지 기다린다. (prefetch-wait-ms 보다 늦으면 직접 읽어 버리므로)
+     */
+    private MemberScroll scrollAfterPrefetch(Long cursor, int size) {
+        long prefetches = memberScrollService.stats().getPrefetches();
+        MemberScroll scroll = memberScrollService.scroll(cursor, size);
+        if (scroll.isHasNext() && memberScrollService.stats().getPrefetches() > prefetches) {
+            memberScrollService.awaitPrefetched(scroll.getNextCursor(), size);
+        }
+        return scroll;
+    }
+
+    private List<Member> seed(int count, Team team) {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(new Member(prefix + i, i, team));
+        }
+        return memberRepository.saveAll(members);
+    }
+}
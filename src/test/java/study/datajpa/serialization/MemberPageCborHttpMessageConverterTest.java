@@ -0,0 +1,33 @@
+package study.datajpa.serialization;
+
+import org.junit.jupiter.api.Test;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberPage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberPageCborHttpMessageConverterTest {
+
+    MemberPageCborHttpMessageConverter converter = new MemberPageCborHttpMessageConverter();
+
+    @Test
+    public void roundTrip() throws Exception {
+        // given
+        MemberPage page = new MemberPage(Arrays.asList(
+                new MemberDto(1L, "member1", "teamA"),
+                new MemberDto(2L, "member2", null)), 1, 2, 5);
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        converter.write(page, out);
+        MemberPage read = converter.read(new ByteArrayInputStream(out.toByteArray()));
+
+        // then
+        assertThat(read).isEqualTo(page);
+        assertThat(read.isHasNext()).isTrue();
+    }
+}
@@ -0,0 +1,79 @@
+package study.datajpa.sharding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import study.datajpa.dto.MemberDto;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedMemberStoreTest {
+
+    ShardedMemberStore store;
+
+    @BeforeEach
+    public void setUp() {
+        String prefix = UUID.randomUUID().toString();
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            dataSources.add(new DriverManagerDataSource("jdbc:h2:mem:" + prefix + "-shard" + i + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        }
+        store = new ShardedMemberStore(dataSources);
+        store.createSchema();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void routesByTeam() {
+        // given
+        long teamA = store.saveTeam("teamA");
+        long teamB = store.saveTeam("teamB");
+        long member1 = store.saveMember("member1", 10, teamA);
+        long member2 = store.saveMember("member2", 20, teamB);
+
+        // then
+        ShardRouter router = new ShardRouter(store.getShardCount());
+        assertThat(router.shardOf(member1)).isEqualTo(router.shardOf(teamA));
+        assertThat(router.shardOf(teamA)).isNotEqualTo(router.shardOf(teamB));
+        assertThat(store.findById(member2)).get().extracting(MemberDto::getTeamName).isEqualTo("teamB");
+        assertThat(store.findByTeamId(teamA)).extracting(MemberDto::getUsername).containsExactly("member1");
+    }
+
+    @Test
+    public void scatterGatherPage() {
+        // given
+        List<Long> teams = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            teams.add(store.saveTeam("team" + i));
+        }
+        for (int i = 0; i < 30; i++) {
+            store.saveMember(String.format("member%02d", i), i % 7, teams.get(i % teams.size()));
+        }
+
+        // when
+        Page<MemberDto> page = store.findAll(PageRequest.of(1, 4, Sort.by(Sort.Direction.DESC, "username")));
+
+        // then
+        assertThat(page.getTotalElements()).isEqualTo(30);
+        assertThat(page.getContent()).extracting(MemberDto::getUsername)
+                .containsExactly("member25", "member24", "member23", "member22");
+        assertThat(store.count()).isEqualTo(30);
+        assertThat(store.findByNames(Arrays.asList("member01", "member17", "unknown")))
+                .extracting(MemberDto::getUsername)
+                .containsExactlyInAnyOrder("member01", "member17");
+    }
+}
@@ -0,0 +1,76 @@
+package study.datajpa.teamstats;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.dto.TeamAggregate;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamAggregateTest {
+
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    MemberRepository memberRepository;
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void incrementalAggregates() {
+        // given
+        Team teamA = teamRepository.save(new Team("teamA"));
+        Team teamB = teamRepository.save(new Team("teamB"));
+        Member member1 = memberRepository.save(new Member("member1", 10, teamA));
+        Member member2 = memberRepository.save(new Member("member2", 25, teamA));
+        Member member3 = memberRepository.save(new Member("member3", 40, teamB));
+        em.flush();
+
+        // when
+        member2.changeTeam(teamB);
+        member1.setAge(12);
+        em.flush();
+        memberRepository.delete(member3);
+        em.flush();
+
+        // then
+        TeamAggregate a = teamRepository.findAggregate(teamA.getId());
+        assertThat(a.getMemberCount()).isEqualTo(1);
+        assertThat(a.getMinAge()).isEqualTo(12);
+        assertThat(a.getMaxAge()).isEqualTo(12);
+
+        TeamAggregate b = teamRepository.findAggregate(teamB.getId());
+        assertThat(b.getMemberCount()).isEqualTo(1);
+        assertThat(b.getAgeHistogram()).containsEntry(20, 1L).doesNotContainKey(40);
+    }
+
+    @Test
+    public void bulkAgePlusRefreshesAggregates() {
+        // given
+        Team team = teamRepository.save(new Team("teamBulk"));
+        memberRepository.save(new Member("bulk1", 18, team));
+        memberRepository.save(new Member("bulk2", 19, team));
+        memberRepository.save(new Member("bulk3", 20, team));
+        em.flush();
+
+        // when
+        memberRepository.bulkAgePlus(19);
+
+        // then
+        TeamAggregate aggregate = teamRepository.findAggregate(team.getId());
+        assertThat(aggregate.getMemberCount()).isEqualTo(3);
+        assertThat(aggregate.getMinAge()).isEqualTo(18);
+        assertThat(aggregate.getMaxAge()).isEqualTo(21);
+        assertThat(aggregate.getAverageAge()).isEqualTo((18 + 20 + 21) / 3.0);
+    }
+}
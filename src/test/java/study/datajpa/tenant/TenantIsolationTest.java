@@ -0,0 +1,358 @@
+package study.datajpa.tenant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.changefeed.ChangeFeed;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.dto.TenantStats;
+import study.datajpa.repository.MemberProjection;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 테넌트마다 별도 트랜잭션으로 저장하고 조회하므로 @Transactional 없이 실행하고, 만든 행은 직접 지운다.
+ * 테넌트 제한은 기본으로 꺼져 있으므로 여기서 켠다.
+ */
+@SpringBootTest(properties = {"tenant.max-connections=2", "tenant.acquire-timeout-ms=50"})
+@AutoConfigureMockMvc
+class TenantIsolationTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    TenantLimiter tenantLimiter;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ChangeFeed changeFeed;
+
+    String prefix = UUID.randomUUID().toString().substring(0, 8);
+    long lastOutboxEventId;
+
+    @BeforeEach
+    public void rememberOutbox() {
+        lastOutboxEventId = jdbcTemplate.queryForObject("select coalesce(max(outbox_event_id), 0) from outbox_event", Long.class);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("delete from change_log where entity_name = 'Member' and entity_id in" +
+                " (select cast(member_id as varchar) from member where username like ?)", prefix + "%");
+        jdbcTemplate.update("delete from member where username like ?", prefix + "%");
+        jdbcTemplate.update("delete from team_age_stats where team_id in (select team_id from team where name like ?)", prefix + "%");
+        jdbcTemplate.update("delete from change_log where entity_name = 'Team' and entity_id in" +
+                " (select cast(team_id as varchar) from team where name like ?)", prefix + "%");
+        jdbcTemplate.update("delete from team where name like ?", prefix + "%");
+        jdbcTemplate.update("delete from outbox_event where outbox_event_id > ?", lastOutboxEventId);
+    }
+
+    @Test
+    public void queriesSeeOnlyOwnTenant() {
+        // given
+        Member a = save("a-" + prefix, prefix + "-a");
+        Member b = save("b-" + prefix, prefix + "-b");
+
+        // when
+        List<Member> seenByA = inTenant("a-" + prefix, () -> memberRepository.findAll());
+        List<Member> seenByB = inTenant("b-" + prefix, () -> memberRepository.findAll());
+
+        // then
+        assertThat(seenByA).extracting(Member::getId).containsExactly(a.getId());
+        assertThat(seenByB).extracting(Member::getId).containsExactly(b.getId());
+        assertThat(seenByA.get(0).getTenantId()).isEqualTo("a-" + prefix);
+        assertThat(memberRepository.findById(a.getId())).isPresent();
+    }
+
+    @Test
+    public void findByIdOfOtherTenantIsRejected() {
+        // given
+        Member a = save("a-" + prefix, prefix + "-a");
+
+        // when / then
+        assertThatThrownBy(() -> inTenant("b-" + prefix, () -> memberRepository.findById(a.getId())))
+                .isInstanceOf(TenantMismatchException.class);
+        assertThat(inTenant("a-" + prefix, () -> memberRepository.findById(a.getId()))).isPresent();
+    }
+
+    @Test
+    public void nativeQueriesSeeOnlyOwnTenant() {
+        // given
+        save("a-" + prefix, prefix + "-a");
+        save("b-" + prefix, prefix + "-b");
+
+        // when
+        Member otherTenant = TenantContext.callAs("b-" + prefix, () -> memberRepository.findByNativeQuery(prefix + "-a"));
+        Member ownTenant = TenantContext.callAs("a-" + prefix, () -> memberRepository.findByNativeQuery(prefix + "-a"));
+        List<MemberProjection> projections = TenantContext.callAs("a-" + prefix,
+                () -> memberRepository.findByNativeProjection(PageRequest.of(0, 10)).getContent());
+
+        // then
+        assertThat(otherTenant).isNull();
+        assertThat(ownTenant).isNotNull();
+        assertThat(projections).extracting(MemberProjection::getUsername).containsExactly(prefix + "-a");
+        assertThat(projections).extracting(MemberProjection::getTeamName).containsExactly(prefix + "-a-team");
+    }
+
+    @Test
+    public void bulkAgePlusOnlyAgesOwnTenant() {
+        // given
+        Member a = save("a-" + prefix, prefix + "-a");
+        Member b = save("b-" + prefix, prefix + "-b");
+
+        // when
+        int updated = TenantContext.callAs("a-" + prefix, () -> memberRepository.bulkAgePlus(10));
+
+        // then
+        assertThat(updated).isEqualTo(1);
+        assertThat(ageOf(a)).isEqualTo(11);
+        assertThat(ageOf(b)).isEqualTo(10);
+        assertThat(statsAges(a.getTeam())).containsExactly(11);
+        assertThat(statsAges(b.getTeam())).containsExactly(10);
+    }
+
+    @Test
+    public void teamMembersCollectionSeesOnlyOwnTenant() {
+        // given: 다른 테넌트의 회원이 JDBC 로 같은 팀에 붙어 있다.
+        Member a = save("a-" + prefix, prefix + "-a");
+        Member stray = inTenant("b-" + prefix, () -> memberRepository.save(new Member(prefix + "-b", 10)));
+        jdbcTemplate.update("update member set team_id = ? where member_id = ?", a.getTeam().getId(), stray.getId());
+
+        // when
+        List<Long> memberIds = inTenant("a-" + prefix, () -> {
+            List<Long> ids = new ArrayList<>();
+            teamRepository.findById(a.getTeam().getId()).get().getMembers().forEach(m -> ids.add(m.getId()));
+            return ids;
+        });
+
+        // then
+        assertThat(memberIds).containsExactly(a.getId());
+    }
+
+    @Test
+    public void changeTeamRejectsOtherTenantsTeam() {
+        // given
+        Member a = save("a-" + prefix, prefix + "-a");
+        Team teamOfA = a.getTeam();
+
+        // when / then
+        assertThatThrownBy(() -> TenantContext.callAs("b-" + prefix, () -> new Member(prefix + "-b", 10, teamOfA)))
+                .isInstanceOf(TenantMismatchException.class);
+    }
+
+    @Test
+    public void queryCacheIsNamespacedByTenant() {
+        // given
+        save("a-" + prefix, prefix + "-a");
+        save("b-" + prefix, prefix + "-b");
+
+        // when
+        List<String> first = TenantContext.callAs("a-" + prefix, () -> memberRepository.findUsernameList());
+        List<String> second = TenantContext.callAs("b-" + prefix, () -> memberRepository.findUsernameList());
+
+        // then
+        assertThat(first).containsExactly(prefix + "-a");
+        assertThat(second).containsExactly(prefix + "-b");
+    }
+
+    @Test
+    public void connectionShareIsReleasedOnClose() {
+        // given
+        String tenant = "c-" + prefix;
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            inTenant(tenant, () -> memberRepository.count());
+        }
+
+        // then
+        TenantStats stats = tenantLimiter.snapshot().stream()
+                .filter(s -> s.getTenant().equals(tenant))
+                .findFirst().orElseThrow(IllegalStateException::new);
+        assertThat(stats.getAcquired()).isEqualTo(10);
+        assertThat(stats.getActiveConnections()).isZero();
+    }
+
+    @Test
+    public void requestRunsAsHeaderTenant() throws Exception {
+        // given
+        Member a = save("a-" + prefix, prefix + "-a");
+
+        // when / then
+        mockMvc.perform(get("/members/{id}", a.getId()).header("X-Tenant-Id", "a-" + prefix))
+                .andExpect(status().isOk())
+                .andExpect(content().string(prefix + "-a"));
+        mockMvc.perform(get("/members/{id}", a.getId()).header("X-Tenant-Id", "b-" + prefix))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/members/{id}", a.getId()).header("X-Tenant-Id", "not a tenant"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void lookupAndSearchEndpointsSeeOnlyOwnTenant() throws Exception {
+        // given: 두 테넌트에 같은 이름의 회원이 있다. (메모리 인덱스를 쓰지 않는 테넌트라 DB 로 찾는다)
+        save("a-" + prefix, prefix + "-x");
+        save("a-" + prefix, prefix + "-a");
+        Member b = save("b-" + prefix, prefix + "-x");
+
+        // when / then
+        mockMvc.perform(get("/members/by-username").param("username", prefix + "-x").header("X-Tenant-Id", "b-" + prefix))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(b.getId()));
+        mockMvc.perform(get("/members/by-username").param("username", prefix + "-x").param("minAge", "5")
+                .header("X-Tenant-Id", "b-" + prefix))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(b.getId()));
+        mockMvc.perform(get("/members/top3").header("X-Tenant-Id", "b-" + prefix))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(b.getId()));
+        mockMvc.perform(get("/members/search").param("q", prefix).header("X-Tenant-Id", "b-" + prefix))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(b.getId()));
+        mockMvc.perform(get("/members/autocomplete").param("prefix", prefix).header("X-Tenant-Id", "b-" + prefix))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0]").value(prefix + "-x"));
+        assertThat(TenantContext.callAs("b-" + prefix, () -> memberRepository.findMemberCustom()))
+                .extracting(Member::getId).containsExactly(b.getId());
+    }
+
+    @Test
+    public void changeFeedSeesOnlyOwnTenant() throws Exception {
+        // given
+        long watermark = changeFeed.latestWatermark();
+        save("a-" + prefix, prefix + "-a");
+        Member b = save("b-" + prefix, prefix + "-b");
+
+        // when / then
+        mockMvc.perform(get("/changes").param("since", String.valueOf(watermark)).param("size", "2000")
+                .header("X-Tenant-Id", "b-" + prefix))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[*].entityId")
+                        .value(containsInAnyOrder(String.valueOf(b.getTeam().getId()), String.valueOf(b.getId()))));
+    }
+
+    @Test
+    public void importCsvUsesCurrentTenant(@TempDir Path dir) throws Exception {
+        // given: 같은 이름의 팀이 다른 테넌트에 있다.
+        Member a = save("a-" + prefix, prefix + "-a");
+        Path csv = dir.resolve("members.csv");
+        Files.write(csv, ("username,age,teamName\n" + prefix + "-imported,20," + a.getTeam().getName() + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+
+        // when
+        TenantContext.callAs("b-" + prefix, () -> {
+            try {
+                return memberRepository.importCsv(csv);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        // then
+        Map<String, Object> imported = jdbcTemplate.queryForMap("select m.tenant_id member_tenant, t.tenant_id team_tenant, t.team_id" +
+                " from member m join team t on t.team_id = m.team_id where m.username = ?", prefix + "-imported");
+        assertThat(imported.get("member_tenant")).isEqualTo("b-" + prefix);
+        assertThat(imported.get("team_tenant")).isEqualTo("b-" + prefix);
+        assertThat(((Number) imported.get("team_id")).longValue()).isNotEqualTo(a.getTeam().getId());
+    }
+
+    @Test
+    public void requestBeyondConnectionShareGets429() throws Exception {
+        // given: 테넌트의 커넥션 몫(2개)을 모두 쥔다.
+        Member a = save("a-" + prefix, prefix + "-a");
+        List<Connection> held = new ArrayList<>();
+        try {
+            held.add(connectionAs("a-" + prefix));
+            held.add(connectionAs("a-" + prefix));
+
+            // when / then
+            mockMvc.perform(get("/members/{id}", a.getId()).header("X-Tenant-Id", "a-" + prefix))
+                    .andExpect(status().isTooManyRequests());
+            // 다른 테넌트는 영향을 받지 않는다.
+            mockMvc.perform(get("/members/{id}", a.getId()).header("X-Tenant-Id", "b-" + prefix))
+                    .andExpect(status().isNotFound());
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+        mockMvc.perform(get("/members/{id}", a.getId()).header("X-Tenant-Id", "a-" + prefix))
+                .andExpect(status().isOk());
+    }
+
+    private Member save(String tenant, String username) {
+        return inTenant(tenant, () -> {
+            Team team = teamRepository.save(new Team(username + "-team"));
+            return memberRepository.save(new Member(username, 10, team));
+        });
+    }
+
+    private <T> T inTenant(String tenant, Supplier<T> action) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        return TenantContext.callAs(tenant, () -> tx.execute(status -> action.get()));
+    }
+
+    private Connection connectionAs(String tenant) {
+        return TenantContext.callAs(tenant, () -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private int ageOf(Member member) {
+        return jdbcTemplate.queryForObject("select age from member where member_id = ?", Integer.class, member.getId());
+    }
+
+    private List<Integer> statsAges(Team team) {
+        return jdbcTemplate.queryForList("select age from team_age_stats where team_id = ? and member_count > 0",
+                Integer.class, team.getId());
+    }
+}
@@ -0,0 +1,180 @@
+package study.datajpa.writebehind;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.domain.Member;
+import study.datajpa.domain.Team;
+import study.datajpa.dto.TeamAgeCount;
+import study.datajpa.dto.WriteBehindStats;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * flush 는 스케줄러 대신 직접 호출한다. (별도 커넥션으로 커밋하므로 @Transactional 없이 실행)
+ */
+@SpringBootTest(properties = {"write-behind.enabled=true", "write-behind.flush-interval-ms=3600000"})
+class MemberWriteBehindTest {
+
+    @Autowired
+    MemberWriteBehind memberWriteBehind;
+    @Autowired
+    WriteBehindMetrics writeBehindMetrics;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    MemberUpdateService memberUpdateService;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @PersistenceContext
+    EntityManager em;
+
+    String prefix = "wb-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+    long lastOutboxEventId;
+
+    @BeforeEach
+    public void rememberOutbox() {
+        lastOutboxEventId = jdbcTemplate.queryForObject("select coalesce(max(outbox_event_id), 0) from outbox_event", Long.class);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("delete from change_log where entity_name = 'Member' and entity_id in" +
+                " (select cast(member_id as varchar) from member where username like ?)", prefix + "%");
+        jdbcTemplate.update("delete from member where username like ?", prefix + "%");
+        jdbcTemplate.update("delete from team_age_stats where team_id in (select team_id from team where name like ?)", prefix + "%");
+        jdbcTemplate.update("delete from change_log where entity_name = 'Team' and entity_id in" +
+                " (select cast(team_id as varchar) from team where name like ?)", prefix + "%");
+        jdbcTemplate.update("delete from team where name like ?", prefix + "%");
+        jdbcTemplate.update("delete from outbox_event where outbox_event_id > ?", lastOutboxEventId);
+    }
+
+    @Test
+    public void coalescesUpdatesToSameMember() throws Exception {
+        // given
+        Team team = teamRepository.save(new Team(prefix + "team"));
+        Member member = memberRepository.save(new Member(prefix + "member", 10, team));
+        WriteBehindStats before = writeBehindMetrics.snapshot();
+
+        // when
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int age = 11; age <= 20; age++) {
+            futures.add(memberWriteBehind.submit(member.getId(), null, age));
+        }
+        futures.add(memberWriteBehind.submit(member.getId(), prefix + "renamed", null));
+        assertThat(futures.get(0)).isNotDone();
+        memberWriteBehind.flush();
+
+        // then
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        Member updated = memberRepository.findById(member.getId()).get();
+        assertThat(updated.getAge()).isEqualTo(20);
+        assertThat(updated.getUsername()).isEqualTo(prefix + "renamed");
+
+        assertThat(teamRepository.findAgeCounts(team.getId()))
+                .extracting(TeamAgeCount::getAge)
+                .containsExactly(20);
+
+        WriteBehindStats after = writeBehindMetrics.snapshot();
+        assertThat(after.getFlushedUpdates() - before.getFlushedUpdates()).isEqualTo(11);
+        assertThat(after.getFlushedRows() - before.getFlushedRows()).isEqualTo(1);
+    }
+
+    @Test
+    public void flushRecordsChangeLogAndModifier() {
+        // given
+        Member member = memberRepository.save(new Member(prefix + "member", 10));
+        String createdModifier = memberRepository.findById(member.getId()).get().getLastModifiedBy();
+        long changesBefore = changeLogUpdates(member.getId());
+
+        // when
+        memberWriteBehind.submit(member.getId(), null, 11);
+        memberWriteBehind.flush();
+
+        // then
+        assertThat(changeLogUpdates(member.getId())).isEqualTo(changesBefore + 1);
+        assertThat(memberRepository.findById(member.getId()).get().getLastModifiedBy())
+                .isNotNull()
+                .isNotEqualTo(createdModifier);
+    }
+
+    @Test
+    public void writesInCallerTransactionInsteadOfWaitingForFlush() {
+        // given
+        Member member = memberRepository.save(new Member(prefix + "member", 10));
+        CompletableFuture<Void> buffered = memberWriteBehind.submit(member.getId(), prefix + "buffered", null);
+
+        // when: 호출자 트랜잭션이 행을 잠근 상태에서 FLUSHED 로 수정한다.
+        long start = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            em.find(Member.class, member.getId(), LockModeType.PESSIMISTIC_WRITE);
+            memberWriteBehind.update(member.getId(), null, 30, WriteAck.FLUSHED);
+        });
+
+        // then: 배치를 기다리지 않았고, 버퍼에 있던 변경도 함께 커밋되었다.
+        assertThat(System.currentTimeMillis() - start).isLessThan(5000);
+        assertThat(memberWriteBehind.pendingCount()).isZero();
+        assertThat(buffered).isCompleted();
+        Member updated = memberRepository.findById(member.getId()).get();
+        assertThat(updated.getAge()).isEqualTo(30);
+        assertThat(updated.getUsername()).isEqualTo(prefix + "buffered");
+    }
+
+    @Test
+    public void memberUpdatesGoThroughTheBuffer() throws Exception {
+        // given
+        Member member = memberRepository.save(new Member(prefix + "member", 10));
+        WriteBehindStats before = writeBehindMetrics.snapshot();
+
+        // when: FLUSHED ack 이므로 flush 될 때까지 돌아오지 않는다.
+        CompletableFuture<Void> update = CompletableFuture.runAsync(() -> memberUpdateService.update(member.getId(), null, 40));
+        while (memberWriteBehind.pendingCount() == 0) {
+            Thread.sleep(10);
+        }
+        assertThat(update).isNotDone();
+        memberWriteBehind.flush();
+        update.get();
+
+        // then
+        assertThat(writeBehindMetrics.snapshot().getFlushedUpdates() - before.getFlushedUpdates()).isEqualTo(1);
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(40);
+    }
+
+    private long changeLogUpdates(Long memberId) {
+        return jdbcTemplate.queryForObject("select count(*) from change_log" +
+                " where entity_name = 'Member' and entity_id = ? and change_type = 'UPDATE'", Long.class, String.valueOf(memberId));
+    }
+
+    @Test
+    public void missingMemberFailsItsAck() {
+        // when
+        CompletableFuture<Void> flushed = memberWriteBehind.submit(Long.MAX_VALUE, null, 30);
+        memberWriteBehind.flush();
+
+        // then
+        assertThatThrownBy(flushed::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(EntityNotFoundException.class);
+    }
+}